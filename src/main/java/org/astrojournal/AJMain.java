@@ -106,7 +106,8 @@ public class AJMain {
 		startAJMainGUI(generator, config);
 	    } else if (args[0].equals("-f") || args[0].equals("--config")) {
 		log.info(configUtils.printConfiguration(config));
-	    } else if (args[0].equals("-c") || args[0].equals("--console")) {
+	    } else if (args[0].equals("-c") || args[0].equals("--console")
+		    || args[0].equals("-w") || args[0].equals("--watch")) {
 		AJMainConsole.main(args);
 	    } else if (args[0].equals("-h") || args[0].equals("--help")) {
 		log.info(AJMainConsole.printHelp());
@@ -314,6 +314,8 @@ public class AJConfiguration implements Configuration {
 		status = status && filepathValidation(properties, key);
 	    } else if (key.equals(AJPropertyConstants.GENERATOR_NAME.getKey())) {
 		status = status && generatorValidation(properties, key);
+	    } else if (isIntegerProperty(key)) {
+		status = status && integerValidation(properties, key);
 	    } else {
 		status = status && genericValidation(properties, key);
 	    }
@@ -446,6 +448,53 @@ public class AJConfiguration implements Configuration {
 	return status;
     }
 
+    /**
+     * Validate a property containing a positive integer as value.
+     * 
+     * @param properties
+     * @param key
+     * @return true if the validation for this property is valid.
+     */
+    private boolean integerValidation(Properties properties, String key) {
+	boolean status = true;
+	String value = properties.getProperty(key);
+	try {
+	    if (value == null || Integer.parseInt(value.trim()) < 1) {
+		status = false;
+		log.error("Property not valid: " + key + ":=" + value);
+	    } else {
+		applicationProperties.setProperty(key, value.trim());
+	    }
+	} catch (NumberFormatException e) {
+	    status = false;
+	    log.debug(e);
+	    log.error("Property not valid: " + key + ":=" + value);
+	}
+	log.debug("Using " + key + ":" + applicationProperties.getProperty(key));
+	return status;
+    }
+
+    /**
+     * Return true if the property key requires a positive integer as value.
+     * 
+     * @param key
+     * @return true if the property key requires a positive integer.
+     */
+    private boolean isIntegerProperty(String key) {
+	String[] integerProperties = new String[] {
+		AJPropertyConstants.IMPORTER_THREADS.getKey(),
+		AJPropertyConstants.EXPORTER_THREADS.getKey(),
+		AJPropertyConstants.REPORT_EXPORT_THREADS.getKey(),
+		AJPropertyConstants.POST_PROCESSING_THREADS.getKey(),
+		AJPropertyConstants.LATEX_TIMEOUT.getKey() };
+	for (String integerProperty : integerProperties) {
+	    if (integerProperty.equals(key)) {
+		return true;
+	    }
+	}
+	return false;
+    }
+
     /**
      * Adjust the file separator if needed. The file separator must be '/' as
      * this is the default file separator in LaTeX. Therefore, let's replace '\'
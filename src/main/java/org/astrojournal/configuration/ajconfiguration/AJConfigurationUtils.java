@@ -253,6 +253,54 @@ public class AJConfigurationUtils implements ConfigurationUtils {
 		+ config.getProperty(AJPropertyConstants.TXT_REPORT_BY_DATE_FILENAME
 			.getKey())
 		+ "\n\t"
+		+ resourceBundle.getString("AJ.lblImporterThreads.text")
+		+ " "
+		+ config.getProperty(AJPropertyConstants.IMPORTER_THREADS
+			.getKey())
+		+ "\n\t"
+		+ resourceBundle.getString("AJ.lblExporterThreads.text")
+		+ " "
+		+ config.getProperty(AJPropertyConstants.EXPORTER_THREADS
+			.getKey())
+		+ "\n\t"
+		+ resourceBundle.getString("AJ.lblReportExportThreads.text")
+		+ " "
+		+ config.getProperty(AJPropertyConstants.REPORT_EXPORT_THREADS
+			.getKey())
+		+ "\n\t"
+		+ resourceBundle.getString("AJ.lblImportCache.text")
+		+ " "
+		+ config.getProperty(AJPropertyConstants.IMPORT_CACHE.getKey())
+		+ "\n\t"
+		+ resourceBundle.getString("AJ.lblReportSnapshot.text")
+		+ " "
+		+ config.getProperty(AJPropertyConstants.REPORT_SNAPSHOT
+			.getKey())
+		+ "\n\t"
+		+ resourceBundle.getString("AJ.lblIncrementalExport.text")
+		+ " "
+		+ config.getProperty(AJPropertyConstants.INCREMENTAL_EXPORT
+			.getKey())
+		+ "\n\t"
+		+ resourceBundle.getString("AJ.lblLatexInlineReports.text")
+		+ " "
+		+ config.getProperty(AJPropertyConstants.LATEX_INLINE_REPORTS
+			.getKey())
+		+ "\n\t"
+		+ resourceBundle.getString("AJ.lblPostProcessingThreads.text")
+		+ " "
+		+ config.getProperty(AJPropertyConstants.POST_PROCESSING_THREADS
+			.getKey())
+		+ "\n\t"
+		+ resourceBundle.getString("AJ.lblLatexTimeout.text")
+		+ " "
+		+ config.getProperty(AJPropertyConstants.LATEX_TIMEOUT.getKey())
+		+ "\n\t"
+		+ resourceBundle.getString("AJ.lblLatexSplitByCatalogue.text")
+		+ " "
+		+ config.getProperty(AJPropertyConstants.LATEX_SPLIT_BY_CATALOGUE
+			.getKey())
+		+ "\n\t"
 		+ resourceBundle.getString("AJ.lblQuiet.text")
 		+ " "
 		+ config.getProperty(AJPropertyConstants.QUIET.getKey())
@@ -432,7 +480,9 @@ public class AJConfigurationUtils implements ConfigurationUtils {
     }
 
     /**
-     * Delete the previous output folder content if this is present.
+     * Delete the previous output folder content if this is present. In
+     * incremental export, the content is kept and the exporters delete the
+     * files which are not exported any more.
      * 
      * @param config
      *            The configuration.
@@ -446,6 +496,10 @@ public class AJConfigurationUtils implements ConfigurationUtils {
 	if (!(filesLocation.exists() && filesLocation.canWrite())) {
 	    throw new FileNotFoundException();
 	}
+	if (Boolean.parseBoolean(config
+		.getProperty(AJPropertyConstants.INCREMENTAL_EXPORT.getKey()))) {
+	    return;
+	}
 	try {
 	    FileUtils
 		    .cleanDirectory(new File(
@@ -143,6 +143,28 @@ public enum AJPropertyConstants {
     TXT_REPORT_BY_DATE_FILENAME("aj.txt_report_by_date_filename",
 	    "astrojournal_by_date.txt"),
 
+    // PERFORMANCE
+    /** The number of threads for importing the raw reports. */
+    IMPORTER_THREADS("aj.importer_threads", "1"),
+    /** The number of threads for running the exporters. */
+    EXPORTER_THREADS("aj.exporter_threads", "1"),
+    /** The number of threads for exporting the reports to their own files. */
+    REPORT_EXPORT_THREADS("aj.report_export_threads", "1"),
+    /** True if the reports of unchanged raw files are read from a cache. */
+    IMPORT_CACHE("aj.import_cache", "false"),
+    /** True if the imported reports are loaded from a snapshot if possible. */
+    REPORT_SNAPSHOT("aj.report_snapshot", "false"),
+    /** True if only the report files whose content changed are written. */
+    INCREMENTAL_EXPORT("aj.incremental_export", "false"),
+    /** True if the LaTeX reports are copied in the journals, not included. */
+    LATEX_INLINE_REPORTS("aj.latex_inline_reports", "false"),
+    /** The number of threads for compiling the LaTeX journals. */
+    POST_PROCESSING_THREADS("aj.post_processing_threads", "1"),
+    /** The maximum time for compiling a LaTeX journal in seconds. */
+    LATEX_TIMEOUT("aj.latex_timeout", "1800"),
+    /** True if the journal by target is compiled as one PDF per catalogue. */
+    LATEX_SPLIT_BY_CATALOGUE("aj.latex_split_by_catalogue", "false"),
+
     ;
 
     /** The property key name. */
@@ -23,6 +23,11 @@
  */
 package org.astrojournal.console;
 
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.astrojournal.AJMainControls;
 import org.astrojournal.AJMetaInfo;
 import org.astrojournal.configuration.Configuration;
@@ -41,8 +46,20 @@ import org.springframework.context.support.ClassPathXmlApplicationContext;
  */
 public class AJMainConsole {
 
+    /** The log associated to this class */
+    private static Logger log = LogManager.getLogger(AJMainConsole.class);
+
+    /**
+     * The time the raw reports folder must be quiet before the journals are
+     * created again in watch mode (ms).
+     */
+    private static final long WATCH_DEBOUNCE = 1000;
+
     private AJMainControls ajMainControls;
 
+    /** The configuration. */
+    private Configuration config;
+
     /**
      * Constructor.
      * 
@@ -53,6 +70,7 @@ public class AJMainConsole {
      *            The configuration
      */
     public AJMainConsole(Generator generator, Configuration config) {
+	this.config = config;
 	generator.setConfiguration(config);
 	initComponents(generator);
     }
@@ -73,6 +91,7 @@ public class AJMainConsole {
 			+ "\t-f [--config] :\t\tPrint the current configuration on a shell.\n"
 			+ "\t-c [--console] :\tRun AstroJournal via command line instead of via GUI.\n"
 			+ "\t-l [--latex-output] :\tIn combination with the option -c, it prints the LaTeX output.\n"
+			+ "\t-w [--watch] :\t\tRun AstroJournal via command line and create the journals again when the raw reports change.\n"
 			+ "\t-h [--help] :\t\tShow this help on a shell.\n"
 			+ "\t--license :\t\tShow the license for AstroJournal on a shell.\n"
 			+ "\t-t [--test-latex] :\tTest the installation of pdflatex.\n");
@@ -89,6 +108,76 @@ public class AJMainConsole {
 	return ajMainControls.createJournal();
     }
 
+    /**
+     * Create the astro journals and create them again whenever the raw reports
+     * change, until the application is stopped. The generator is kept in
+     * memory between two runs and the import cache is used, so that only the
+     * new or changed raw reports are imported again.
+     * 
+     * @return false if the raw reports folder cannot be watched
+     */
+    public boolean watchJournals() {
+	createJournals();
+
+	// Do not show the license, pdflatex version and configuration again.
+	System.setProperty(AJPropertyConstants.SHOW_LICENSE_AT_START.getKey(),
+		"false");
+	System.setProperty(
+		AJPropertyConstants.SHOW_PDFLATEX_VERSION_AT_START.getKey(),
+		"false");
+	System.setProperty(
+		AJPropertyConstants.SHOW_CONFIGURATION_AT_START.getKey(),
+		"false");
+	config.loadSystemProperties();
+
+	File rawReportsFolder = new File(
+		config.getProperty(AJPropertyConstants.FILES_LOCATION.getKey())
+			+ File.separator
+			+ config.getProperty(AJPropertyConstants.RAW_REPORTS_FOLDER
+				.getKey()));
+	log.info("");
+	log.info("Watching " + rawReportsFolder.getAbsolutePath()
+		+ " for changes. Press Ctrl+C to stop.");
+	try {
+	    new RawReportsWatcher(rawReportsFolder, WATCH_DEBOUNCE)
+		    .watch(new Runnable() {
+			@Override
+			public void run() {
+			    log.info("");
+			    log.info("Raw reports changed.");
+			    createJournals();
+			}
+		    });
+	} catch (IOException ex) {
+	    log.error("The folder " + rawReportsFolder.getAbsolutePath()
+		    + " cannot be watched.");
+	    log.debug(ex, ex);
+	    return false;
+	}
+	return true;
+    }
+
+    /**
+     * Return true if the command line arguments contain an option.
+     * 
+     * @param args
+     *            The command line arguments
+     * @param shortOption
+     *            the short name of the option
+     * @param longOption
+     *            the long name of the option
+     * @return true if the option is in args
+     */
+    private static boolean hasOption(String[] args, String shortOption,
+	    String longOption) {
+	for (String arg : args) {
+	    if (arg.equals(shortOption) || arg.equals(longOption)) {
+		return true;
+	    }
+	}
+	return false;
+    }
+
     /**
      * Initialise other fields.
      * 
@@ -114,8 +203,8 @@ public class AJMainConsole {
 	Generator generator = (Generator) factory.getBean("generator");
 
 	AJMainConsole ajMainConsole = new AJMainConsole(generator, config);
-	if (args.length > 1
-		&& (args[1].equals("-l") || args[1].equals("--latex-output"))) {
+	boolean watch = hasOption(args, "-w", "--watch");
+	if (hasOption(args, "-l", "--latex-output")) {
 	    if (config.getProperty(AJPropertyConstants.QUIET.getKey()).equals(
 		    "true")) {
 		// If the configuration was quiet, we switch every thing off,
@@ -137,8 +226,20 @@ public class AJMainConsole {
 	    System.setProperty(AJPropertyConstants.SHOW_LATEX_OUTPUT.getKey(),
 		    "false");
 	}
+	if (watch) {
+	    // only import the new or changed raw reports and only write the
+	    // changed report files at each run.
+	    System.setProperty(AJPropertyConstants.IMPORT_CACHE.getKey(),
+		    "true");
+	    System.setProperty(
+		    AJPropertyConstants.INCREMENTAL_EXPORT.getKey(), "true");
+	}
 	config.loadSystemProperties();
-	if (!ajMainConsole.createJournals()) {
+	if (watch) {
+	    if (!ajMainConsole.watchJournals()) {
+		System.exit(1);
+	    }
+	} else if (!ajMainConsole.createJournals()) {
 	    System.exit(1);
 	}
     }
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2015 Piero Dalle Pezze
+ *
+ * This file is part of AstroJournal.
+ *
+ * AstroJournal is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+/*
+ * Changelog:
+ * - Piero Dalle Pezze: class creation.
+ */
+package org.astrojournal.console;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.astrojournal.utilities.filefilters.TSVRawReportFilter;
+
+/**
+ * Watch the folder containing the raw reports and run a task when raw reports
+ * are created, modified or deleted. Bursts of changes (e.g. an editor saving a
+ * file in several steps) are debounced, so that the task runs once after the
+ * folder has been quiet for a while.
+ * 
+ * @author Piero Dalle Pezze
+ * @version $Rev$
+ * @since 1.0
+ */
+public class RawReportsWatcher {
+
+    /** The log associated to this class */
+    private static Logger log = LogManager.getLogger(RawReportsWatcher.class);
+
+    /** The folder containing the raw reports. */
+    private File folder;
+
+    /** The time the folder must be quiet before running the task (ms). */
+    private long debounce;
+
+    /** The filter for the raw reports. */
+    private TSVRawReportFilter filter = new TSVRawReportFilter();
+
+    /**
+     * Constructor.
+     * 
+     * @param folder
+     *            the folder containing the raw reports
+     * @param debounce
+     *            the time the folder must be quiet before running the task
+     *            (ms)
+     */
+    public RawReportsWatcher(File folder, long debounce) {
+	this.folder = folder;
+	this.debounce = debounce;
+    }
+
+    /**
+     * Watch the folder and run the task after each burst of changes. This
+     * returns when the folder is deleted or the current thread is interrupted.
+     * 
+     * @param task
+     *            the task to run
+     * @throws IOException
+     *             if the folder cannot be watched
+     */
+    public void watch(Runnable task) throws IOException {
+	WatchService watchService = FileSystems.getDefault().newWatchService();
+	try {
+	    folder.toPath().register(watchService,
+		    StandardWatchEventKinds.ENTRY_CREATE,
+		    StandardWatchEventKinds.ENTRY_MODIFY,
+		    StandardWatchEventKinds.ENTRY_DELETE);
+	    log.debug("Watching " + folder.getAbsolutePath());
+	    boolean valid = true;
+	    while (valid) {
+		WatchKey key = watchService.take();
+		boolean changed = processEvents(key);
+		valid = key.reset();
+		// wait until the folder is quiet
+		while (valid
+			&& (key = watchService.poll(debounce,
+				TimeUnit.MILLISECONDS)) != null) {
+		    changed = processEvents(key) || changed;
+		    valid = key.reset();
+		}
+		if (changed) {
+		    task.run();
+		}
+	    }
+	    log.debug("The folder " + folder.getAbsolutePath()
+		    + " cannot be watched any more");
+	} catch (InterruptedException ex) {
+	    log.debug(ex, ex);
+	    Thread.currentThread().interrupt();
+	} finally {
+	    watchService.close();
+	}
+    }
+
+    /**
+     * Return true if the events of a key concern raw reports.
+     * 
+     * @param key
+     *            the signalled key
+     * @return true if at least a raw report changed
+     */
+    private boolean processEvents(WatchKey key) {
+	boolean changed = false;
+	for (WatchEvent<?> event : key.pollEvents()) {
+	    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+		// some events were lost
+		changed = true;
+	    } else {
+		Path path = (Path) event.context();
+		File file = new File(folder, path.toString());
+		if (filter.accept(file)) {
+		    log.debug(event.kind().name() + " " + file.getName());
+		    changed = true;
+		}
+	    }
+	}
+	return changed;
+    }
+
+}
@@ -27,7 +27,9 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.ResourceBundle;
 
 import org.apache.logging.log4j.LogManager;
@@ -69,6 +71,13 @@ public class AJGenerator implements Generator {
     /** An object for managing statistics. */
     private BasicStatistics basicStatistics = new BasicStatistics();
 
+    /**
+     * The names of the importer and exporter classes found in the classpath
+     * for each generator.
+     */
+    private Map<String, List<String>> classNames =
+	    new HashMap<String, List<String>>();
+
     /**
      * Default constructor
      */
@@ -91,7 +100,23 @@ public class AJGenerator implements Generator {
 	if (config == null) {
 	    return false;
 	}
-	if (!ajImport()) {
+	// Load the exporters before importing the reports, so that the
+	// exporters which do not need all the sorted reports can export each
+	// report as soon as it is imported.
+	boolean exportStatus = loadExporters();
+	configureExporters();
+	List<StreamingExporter> streamingExporters =
+		new ArrayList<StreamingExporter>();
+	for (Exporter exporter : exporters) {
+	    ReportSink sink = exporter.getReportSink();
+	    if (sink != null) {
+		log.debug(exporter.getName()
+			+ " exports the reports while these are imported");
+		streamingExporters.add(new StreamingExporter(exporter, sink));
+	    }
+	}
+
+	if (!ajImport(streamingExporters)) {
 	    if (reports.isEmpty()) {
 		log.error(resourceBundle
 			.getString("AJ.errNoObservationFound.text")
@@ -112,7 +137,7 @@ public class AJGenerator implements Generator {
 	    // continue exporting.
 	}
 
-	if (!ajExport()) {
+	if (!ajExport(exportStatus, streamingExporters)) {
 	    log.error(resourceBundle.getString("AJ.errSomeExporterFailed.text"));
 	    return false;
 	}
@@ -165,9 +190,68 @@ public class AJGenerator implements Generator {
 
     @Override
     public boolean ajImport() {
+	return ajImport(new ArrayList<StreamingExporter>());
+    }
+
+    /**
+     * Import the reports using the available Importers. Each report is also
+     * passed to the streaming exporters as soon as it is imported.
+     * 
+     * @param streamingExporters
+     *            the exporters receiving the reports while these are imported
+     * @return true if the reports have been imported.
+     */
+    private boolean ajImport(final List<StreamingExporter> streamingExporters) {
 	if (config == null) {
 	    return false;
 	}
+	// reset the reports
+	resetReports();
+	ReportSink sink = new ReportSink() {
+	    @Override
+	    public boolean accept(Report report) {
+		reports.add(report);
+		for (StreamingExporter streamingExporter : streamingExporters) {
+		    streamingExporter.accept(report);
+		}
+		return true;
+	    }
+
+	    @Override
+	    public boolean finish() {
+		for (StreamingExporter streamingExporter : streamingExporters) {
+		    streamingExporter.finish();
+		}
+		return true;
+	    }
+	};
+
+	ReportSnapshot snapshot = null;
+	if (Boolean.parseBoolean(config
+		.getProperty(AJPropertyConstants.REPORT_SNAPSHOT.getKey()))) {
+	    snapshot = new ReportSnapshot(getSnapshotFile(),
+		    config.getProperty(AJPropertyConstants.GENERATOR_NAME
+			    .getKey()));
+	    if (snapshot.isUpToDate(getRawReportsFolder())) {
+		List<Report> snapshotReports = snapshot.load();
+		if (snapshotReports != null) {
+		    // the snapshot reports are already sorted.
+		    for (Report report : snapshotReports) {
+			sink.accept(report);
+		    }
+		    sink.finish();
+		    return true;
+		}
+	    }
+	}
+
+	// read before the import, so that a raw report changed in the meantime
+	// is newer than the snapshot.
+	long inputTime = 0L;
+	if (snapshot != null) {
+	    inputTime = snapshot.getInputTime(getRawReportsFolder());
+	}
+
 	boolean status = loadImporters();
 	if (importers.isEmpty()) {
 	    log.error(resourceBundle.getString("AJ.errNoDataImported.text"));
@@ -175,24 +259,55 @@ public class AJGenerator implements Generator {
 	}
 	configureImporters();
 
-	// reset the reports
-	resetReports();
 	// import the reports
 	for (Importer importer : importers) {
 	    log.debug(importer.getName() + " is importing reports");
-	    List<Report> obs = importer.importReports();
-	    reports.addAll(obs);
-	    log.debug(importer.getName() + " imported " + obs.size()
-		    + " reports");
+	    int nReports = reports.size();
+	    importer.importReports(sink);
+	    log.debug(importer.getName() + " imported "
+		    + (reports.size() - nReports) + " reports");
 	}
+	sink.finish();
 
+	// sort the reports so that the most recent is the first. The reports
+	// with the same date are reversed too, as they always were.
 	Collections.sort(reports);
-	// reverse the reports so that the most recent is the first.
 	Collections.reverse(reports);
 
+	if (snapshot != null && status) {
+	    snapshot.save(reports, inputTime);
+	}
 	return status;
     }
 
+    /**
+     * Return the folder containing the raw reports.
+     * 
+     * @return the raw reports folder
+     */
+    private File getRawReportsFolder() {
+	return new File(
+		config.getProperty(AJPropertyConstants.FILES_LOCATION.getKey())
+			+ File.separator
+			+ config.getProperty(AJPropertyConstants.RAW_REPORTS_FOLDER
+				.getKey()));
+    }
+
+    /**
+     * Return the file storing the snapshot of the imported reports. This is a
+     * hidden file in the files location, one for each generator.
+     * 
+     * @return the snapshot file
+     */
+    private File getSnapshotFile() {
+	return new File(
+		config.getProperty(AJPropertyConstants.FILES_LOCATION.getKey())
+			+ File.separator
+			+ ".astrojournal_"
+			+ config.getProperty(AJPropertyConstants.GENERATOR_NAME
+				.getKey()) + ".snapshot");
+    }
+
     @Override
     public boolean ajStatistics() {
 	if (basicStatistics.process(reports)) {
@@ -207,58 +322,114 @@ public class AJGenerator implements Generator {
 	    return false;
 	}
 	boolean status = loadExporters();
+	configureExporters();
+	return ajExport(status, new ArrayList<StreamingExporter>());
+    }
+
+    /**
+     * Export the reports using the available Exporters. The streaming
+     * exporters only generate the journal as they already exported the
+     * reports while these were imported. The exporters are run by a pool of
+     * threads if more than one exporter thread is configured.
+     * 
+     * @param status
+     *            false if some exporters were not loaded
+     * @param streamingExporters
+     *            the exporters which received the reports while these were
+     *            imported
+     * @return true if the reports have been exported.
+     */
+    private boolean ajExport(boolean status,
+	    final List<StreamingExporter> streamingExporters) {
 	if (exporters.isEmpty()) {
 	    log.error(resourceBundle.getString("AJ.errNoDataExported.text"));
 	    return false;
 	}
-	configureExporters();
 
-	// Export the reports
-	for (Exporter exporter : exporters) {
-	    log.debug(exporter.getName() + " is exporting reports");
-	    boolean result = exporter.exportReports(reports)
-		    && exporter.generateJournal(basicStatistics);
-	    status = result && status;
-	    if (result) {
-		log.debug(exporter.getName() + " SUCCEEDED");
-	    } else {
-		log.debug(exporter.getName() + " FAILED");
+	// Export the reports. The exporters write to different folders, so
+	// that they can run in parallel.
+	ExporterScheduler scheduler = new ExporterScheduler(
+		Integer.parseInt(config
+			.getProperty(AJPropertyConstants.EXPORTER_THREADS
+				.getKey())));
+	return scheduler.run(exporters, new ExporterScheduler.ExporterTask() {
+	    @Override
+	    public boolean run(Exporter exporter) {
+		return exportReports(exporter, streamingExporters)
+			&& exporter.generateJournal(basicStatistics);
+	    }
+	}) && status;
+    }
+
+    /**
+     * Export the reports unless the exporter already exported them while
+     * these were imported.
+     * 
+     * @param exporter
+     *            the exporter
+     * @param streamingExporters
+     *            the exporters which received the reports while these were
+     *            imported
+     * @return true if the reports have been exported.
+     */
+    private boolean exportReports(Exporter exporter,
+	    List<StreamingExporter> streamingExporters) {
+	for (StreamingExporter streamingExporter : streamingExporters) {
+	    if (streamingExporter.getExporter() == exporter) {
+		return streamingExporter.getStatus();
 	    }
 	}
-	return status;
+	return exporter.exportReports(reports);
     }
 
+    /**
+     * Post process the exported journals. The exporters write to different
+     * files, so that their journals can be compiled in parallel by a pool of
+     * threads if more than one post processing thread is configured.
+     */
     @Override
     public boolean postProcessing() {
-	boolean status = true;
-	for (Exporter exporter : exporters) {
-	    try {
-		exporter.postProcessing();
-	    } catch (IOException e) {
-		log.debug(exporter.getName()
-			+ " failed the post processing phase.", e);
-		status = false;
-	    }
+	int threads = 1;
+	if (config != null) {
+	    threads = Integer.parseInt(config
+		    .getProperty(AJPropertyConstants.POST_PROCESSING_THREADS
+			    .getKey()));
 	}
-	return status;
+	return new ExporterScheduler(threads).run(exporters,
+		new ExporterScheduler.ExporterTask() {
+		    @Override
+		    public boolean run(Exporter exporter) {
+			try {
+			    exporter.postProcessing();
+			    return true;
+			} catch (IOException e) {
+			    log.debug(exporter.getName()
+				    + " failed the post processing phase.", e);
+			    return false;
+			}
+		    }
+		});
     }
 
     /**
-     * Load the importers.
+     * Load the importers. The importers loaded by a previous import are kept,
+     * so that their state (e.g. the import cache) is reused.
      * 
      * @return true if the importers are loaded correctly.
      */
     private boolean loadImporters() {
+	List<Importer> previousImporters = importers;
 	resetImporters();
 	boolean status = true;
-	List<String> importerNames = ClassesInstanceOf
-		.getClassFullNamesInstanceOf(
-			this.getClass().getPackage().getName()
-				+ "."
-				+ config.getProperty(AJPropertyConstants.GENERATOR_NAME
-					.getKey()), Importer.class);
-	Collections.sort(importerNames);
+	List<String> importerNames = getClassNames(Importer.class);
 	for (String importerName : importerNames) {
+	    Importer previousImporter = findImporter(previousImporters,
+		    importerName);
+	    if (previousImporter != null) {
+		log.debug("Importer " + importerName + " is reused");
+		importers.add(previousImporter);
+		continue;
+	    }
 	    try {
 		log.debug("Loading importer " + importerName);
 		Class<?> cls = Class.forName(importerName);
@@ -299,13 +470,7 @@ public class AJGenerator implements Generator {
     private boolean loadExporters() {
 	resetExporters();
 	boolean status = true;
-	List<String> exporterNames = ClassesInstanceOf
-		.getClassFullNamesInstanceOf(
-			this.getClass().getPackage().getName()
-				+ "."
-				+ config.getProperty(AJPropertyConstants.GENERATOR_NAME
-					.getKey()), Exporter.class);
-	Collections.sort(exporterNames);
+	List<String> exporterNames = getClassNames(Exporter.class);
 	for (String exporterName : exporterNames) {
 	    try {
 		log.debug("Loading exporter " + exporterName);
@@ -339,6 +504,49 @@ public class AJGenerator implements Generator {
 	return status;
     }
 
+    /**
+     * Return the sorted names of the classes of the configured generator
+     * which extend a class. The classpath is only searched the first time.
+     * 
+     * @param cls
+     *            the class to extend (e.g. Importer or Exporter)
+     * @return the class names
+     */
+    private List<String> getClassNames(Class<?> cls) {
+	String packageName = this.getClass().getPackage().getName()
+		+ "."
+		+ config.getProperty(AJPropertyConstants.GENERATOR_NAME
+			.getKey());
+	String key = packageName + ":" + cls.getName();
+	List<String> names = classNames.get(key);
+	if (names == null) {
+	    names = ClassesInstanceOf.getClassFullNamesInstanceOf(packageName,
+		    cls);
+	    Collections.sort(names);
+	    classNames.put(key, names);
+	}
+	return names;
+    }
+
+    /**
+     * Return the importer with a name.
+     * 
+     * @param importers
+     *            the importers
+     * @param name
+     *            the importer name
+     * @return the importer or null if there is no importer with this name
+     */
+    private static Importer findImporter(List<Importer> importers,
+	    String name) {
+	for (Importer importer : importers) {
+	    if (importer.getName().equals(name)) {
+		return importer;
+	    }
+	}
+	return null;
+    }
+
     /** Configure the importers. */
     private void configureImporters() {
 	for (Importer importer : importers) {
@@ -353,4 +561,63 @@ public class AJGenerator implements Generator {
 	}
     }
 
+    /**
+     * An exporter receiving the reports while these are imported. This
+     * records whether all the reports were exported correctly.
+     */
+    private static class StreamingExporter implements ReportSink {
+
+	/** The exporter. */
+	private Exporter exporter;
+
+	/** The sink of the exporter. */
+	private ReportSink sink;
+
+	/** True if all the reports were exported correctly. */
+	private boolean status = true;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param exporter
+	 *            the exporter
+	 * @param sink
+	 *            the sink of the exporter
+	 */
+	public StreamingExporter(Exporter exporter, ReportSink sink) {
+	    this.exporter = exporter;
+	    this.sink = sink;
+	}
+
+	@Override
+	public boolean accept(Report report) {
+	    status = sink.accept(report) && status;
+	    return status;
+	}
+
+	@Override
+	public boolean finish() {
+	    status = sink.finish() && status;
+	    return status;
+	}
+
+	/**
+	 * Return the exporter.
+	 * 
+	 * @return the exporter
+	 */
+	public Exporter getExporter() {
+	    return exporter;
+	}
+
+	/**
+	 * Return true if all the reports were exported correctly.
+	 * 
+	 * @return the status
+	 */
+	public boolean getStatus() {
+	    return status;
+	}
+    }
+
 }
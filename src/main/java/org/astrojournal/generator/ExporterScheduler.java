@@ -0,0 +1,177 @@
+/*
+ * Copyright 2015 Piero Dalle Pezze
+ *
+ * This file is part of AstroJournal.
+ *
+ * AstroJournal is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+/*
+ * Changelog:
+ * - Piero Dalle Pezze: class creation.
+ */
+package org.astrojournal.generator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.astrojournal.generator.absgen.Exporter;
+
+/**
+ * A scheduler running a task for each exporter. As the exporters write to
+ * different folders, the tasks can run in parallel on a bounded pool of
+ * threads. The info messages and the result of each exporter are logged
+ * following the order of the exporters, so that the log is the same
+ * regardless of which exporter finishes first.
+ * 
+ * @author Piero Dalle Pezze
+ * @version $Rev$
+ * @since 1.0
+ */
+public class ExporterScheduler {
+
+    /** The log associated to this class */
+    private static Logger log = LogManager.getLogger(ExporterScheduler.class);
+
+    /** The maximum number of threads. */
+    private int threads = 1;
+
+    /**
+     * Constructor.
+     * 
+     * @param threads
+     *            the maximum number of threads (1 for running the exporters
+     *            one after another)
+     */
+    public ExporterScheduler(int threads) {
+	this.threads = threads;
+    }
+
+    /**
+     * Run a task for each exporter.
+     * 
+     * @param exporters
+     *            the exporters
+     * @param task
+     *            the task to run for each exporter
+     * @return true if the task succeeded for all the exporters
+     */
+    public boolean run(List<Exporter> exporters, final ExporterTask task) {
+	if (threads <= 1 || exporters.size() <= 1) {
+	    boolean status = true;
+	    for (Exporter exporter : exporters) {
+		log.debug(exporter.getName() + " is running");
+		status = logResult(exporter, task.run(exporter)) && status;
+	    }
+	    return status;
+	}
+	return runConcurrently(exporters, task);
+    }
+
+    /**
+     * Run a task for each exporter using a pool of threads. The info messages
+     * of the exporters are held while these run and, with the results, are
+     * logged following the order of the exporters.
+     * 
+     * @param exporters
+     *            the exporters
+     * @param task
+     *            the task to run for each exporter
+     * @return true if the task succeeded for all the exporters
+     */
+    protected boolean runConcurrently(List<Exporter> exporters,
+	    final ExporterTask task) {
+	boolean status = true;
+	List<Future<Boolean>> results = new ArrayList<Future<Boolean>>(
+		exporters.size());
+	ExecutorService executor = Executors.newFixedThreadPool(Math.min(
+		threads, exporters.size()));
+	try {
+	    for (final Exporter exporter : exporters) {
+		log.debug(exporter.getName() + " is running");
+		exporter.holdMessages();
+		results.add(executor.submit(new Callable<Boolean>() {
+		    @Override
+		    public Boolean call() {
+			return task.run(exporter);
+		    }
+		}));
+	    }
+	    for (int i = 0; i < exporters.size(); i++) {
+		boolean result = false;
+		try {
+		    result = results.get(i).get();
+		} catch (ExecutionException ex) {
+		    log.error("Error when running "
+			    + exporters.get(i).getName());
+		    log.debug("Error when running "
+			    + exporters.get(i).getName(), ex.getCause());
+		}
+		exporters.get(i).releaseMessages();
+		status = logResult(exporters.get(i), result) && status;
+	    }
+	} catch (InterruptedException ex) {
+	    log.debug(ex, ex);
+	    Thread.currentThread().interrupt();
+	    status = false;
+	} finally {
+	    executor.shutdownNow();
+	    for (Exporter exporter : exporters) {
+		exporter.releaseMessages();
+	    }
+	}
+	return status;
+    }
+
+    /**
+     * Log the result of an exporter.
+     * 
+     * @param exporter
+     *            the exporter
+     * @param result
+     *            the result of the task
+     * @return the result
+     */
+    private boolean logResult(Exporter exporter, boolean result) {
+	if (result) {
+	    log.debug(exporter.getName() + " SUCCEEDED");
+	} else {
+	    log.debug(exporter.getName() + " FAILED");
+	}
+	return result;
+    }
+
+    /**
+     * A task run for each exporter.
+     */
+    public interface ExporterTask {
+
+	/**
+	 * Run the task for an exporter.
+	 * 
+	 * @param exporter
+	 *            the exporter
+	 * @return true if the task succeeded
+	 */
+	public boolean run(Exporter exporter);
+    }
+
+}
@@ -1,6 +1,8 @@
 package org.astrojournal.generator;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -13,21 +15,61 @@ import java.util.List;
  * must be greater or equal than the defined data column size passed to the
  * constructor.
  * 
+ * Values are stored as int codes of a ReportDictionary shared by all the
+ * reports, so that a value repeated across the reports (e.g. a constellation,
+ * a type or a location) is stored once. Only the low cardinality columns are
+ * stored in the dictionary, so that this does not grow with the free text of
+ * the reports. The data columns after the first ENCODED_DATA_COLUMNS columns
+ * (e.g. the notes) are unlikely to repeat and are stored as Strings in the
+ * report. The data rows are stored in a single array of codes. The String
+ * arrays returned by this class are decoded on request.
+ * 
+ * The first meta data field is the date of the report (dd/mm/yyyy, followed
+ * by an optional letter for the reports of the same night). This is parsed
+ * once into a date key, which orders the reports by date.
+ * 
  * @author Piero Dalle Pezze
  * @version $Rev$
  * @since 1.0
  */
 public class Report implements Comparable<Report> {
 
+    /** The dictionary of the values of all the reports. */
+    private static final ReportDictionary dictionary = new ReportDictionary();
+
+    /**
+     * The number of data columns stored in the dictionary (target,
+     * constellation, type and power). The next columns are free text.
+     */
+    public static final int ENCODED_DATA_COLUMNS = 4;
+
+    /** The number of bits of a date key storing the letter of the date. */
+    private static final int DATE_SUFFIX_BITS = 5;
+
+    /** The date key of a report without a valid date. */
+    public static final long INVALID_DATE_KEY = Long.MIN_VALUE;
+
     /** The report meta data. */
-    private String[] metaData = null;
+    private int[] metaData = null;
+
+    /** The report data rows one after another. */
+    private int[] data = new int[0];
 
-    /** The report data. */
-    private List<String[]> data = new ArrayList<String[]>();
+    /** The offset of each data row in data, followed by the end offset. */
+    private int[] rowOffsets = new int[] { 0 };
+
+    /** The number of data rows. */
+    private int dataRowNumber = 0;
+
+    /** The values which are not stored in the dictionary. */
+    private List<String> texts = null;
 
     /** The minimum number of columns the data must have. */
     private int dataColumnNumber = 1;
 
+    /** The date key of the report. */
+    private long dateKey = INVALID_DATE_KEY;
+
     /**
      * Default constructor. A report of one meta data field and one data column
      * is generated.
@@ -46,10 +88,20 @@ public class Report implements Comparable<Report> {
      *            The minimum number of columns for the data table
      */
     public Report(int metaDataLength, int dataColumnNumber) {
-	metaData = new String[metaDataLength];
+	metaData = new int[metaDataLength];
+	Arrays.fill(metaData, ReportDictionary.NULL);
 	this.dataColumnNumber = dataColumnNumber;
     }
 
+    /**
+     * Return the dictionary of the values of all the reports.
+     * 
+     * @return the dictionary
+     */
+    public static ReportDictionary getDictionary() {
+	return dictionary;
+    }
+
     /**
      * Add an array of String objects containing the report meta data.
      * 
@@ -60,7 +112,13 @@ public class Report implements Comparable<Report> {
      */
     public boolean addMetaData(String[] metaData) {
 	if (this.metaData.length <= metaData.length) {
-	    this.metaData = metaData;
+	    int[] codes = new int[metaData.length];
+	    for (int i = 0; i < metaData.length; i++) {
+		codes[i] = encode(metaData[i], false);
+	    }
+	    this.metaData = codes;
+	    dateKey = metaData.length > 0 ? parseDateKey(metaData[0])
+		    : INVALID_DATE_KEY;
 	    return true;
 	}
 	return false;
@@ -72,7 +130,23 @@ public class Report implements Comparable<Report> {
      * @return the meta data
      */
     public String[] getMetaData() {
-	return metaData;
+	String[] values = new String[metaData.length];
+	for (int i = 0; i < metaData.length; i++) {
+	    values[i] = decode(metaData[i]);
+	}
+	return values;
+    }
+
+    /**
+     * Return the dictionary code of the i-th meta data field. A value which is
+     * not stored in the dictionary is added to it.
+     * 
+     * @param i
+     *            the i-th meta data field
+     * @return the code (ReportDictionary.NULL for a null value)
+     */
+    public int getMetaDataCode(int i) {
+	return toDictionaryCode(metaData[i]);
     }
 
     /**
@@ -85,7 +159,20 @@ public class Report implements Comparable<Report> {
      */
     public boolean addData(String[] data) {
 	if (dataColumnNumber <= data.length) {
-	    this.data.add(data);
+	    int offset = rowOffsets[dataRowNumber];
+	    if (offset + data.length > this.data.length) {
+		this.data = Arrays.copyOf(this.data,
+			Math.max(offset + data.length, 2 * this.data.length));
+	    }
+	    if (dataRowNumber + 2 > rowOffsets.length) {
+		rowOffsets = Arrays.copyOf(rowOffsets, 2 * rowOffsets.length);
+	    }
+	    for (int i = 0; i < data.length; i++) {
+		this.data[offset + i] = encode(data[i],
+			i >= ENCODED_DATA_COLUMNS);
+	    }
+	    dataRowNumber++;
+	    rowOffsets[dataRowNumber] = offset + data.length;
 	    return true;
 	}
 	return false;
@@ -100,19 +187,64 @@ public class Report implements Comparable<Report> {
      *         number of data row inserted
      */
     public String[] getData(int i) {
-	if (i < data.size()) {
-	    return data.get(i);
+	if (i < dataRowNumber) {
+	    int offset = rowOffsets[i];
+	    String[] values = new String[rowOffsets[i + 1] - offset];
+	    for (int j = 0; j < values.length; j++) {
+		values[j] = decode(data[offset + j]);
+	    }
+	    return values;
 	}
 	return null;
     }
 
     /**
-     * Return the table containing the report data.
+     * Return the length of the i-th data row.
+     * 
+     * @param i
+     *            the i-th data row
+     * @return the length of the row
+     */
+    public int getDataLength(int i) {
+	return rowOffsets[i + 1] - rowOffsets[i];
+    }
+
+    /**
+     * Return the dictionary code of a data field. A value which is not stored
+     * in the dictionary is added to it.
+     * 
+     * @param i
+     *            the i-th data row
+     * @param j
+     *            the j-th column
+     * @return the code (ReportDictionary.NULL for a null value)
+     */
+    public int getDataCode(int i, int j) {
+	return toDictionaryCode(data[rowOffsets[i] + j]);
+    }
+
+    /**
+     * Return the table containing the report data. The table cannot be
+     * modified and its rows are decoded on request.
      * 
      * @return the report data table
      */
     public List<String[]> getAllData() {
-	return data;
+	return new AbstractList<String[]>() {
+	    @Override
+	    public String[] get(int i) {
+		if (i < 0 || i >= dataRowNumber) {
+		    throw new IndexOutOfBoundsException("Index: " + i
+			    + ", Size: " + dataRowNumber);
+		}
+		return getData(i);
+	    }
+
+	    @Override
+	    public int size() {
+		return dataRowNumber;
+	    }
+	};
     }
 
     /**
@@ -130,7 +262,7 @@ public class Report implements Comparable<Report> {
      * @return the number of data rows
      */
     public int getDataRowNumber() {
-	return data.size();
+	return dataRowNumber;
     }
 
     /**
@@ -142,19 +274,187 @@ public class Report implements Comparable<Report> {
 	return dataColumnNumber;
     }
 
+    /**
+     * Return the date key of the report. Date keys order the reports by date
+     * and by the letter of the reports of the same night.
+     * 
+     * @return the date key or INVALID_DATE_KEY if the report does not have a
+     *         valid date
+     */
+    public long getDateKey() {
+	return dateKey;
+    }
+
+    /**
+     * Compare the reports by date key. A report without a valid date precedes
+     * the other reports.
+     */
     @Override
     public int compareTo(Report report) {
-	String thisStr = metaData[0].replaceAll("[^\\d.]", "");
-	String thatStr = report.getMetaData()[0].replaceAll("[^\\d.]", "");
-	if (thisStr.length() == 8 && thatStr.length() == 8) {
-	    thisStr = thisStr.substring(4) + thisStr.substring(2, 4)
-		    + thisStr.substring(0, 2);
-	    thatStr = thatStr.substring(4) + thatStr.substring(2, 4)
-		    + thatStr.substring(0, 2);
-	    return thisStr.compareTo(thatStr);
-	} else if (thisStr.length() < thatStr.length()) {
-	    return -1;
+	return Long.compare(dateKey, report.dateKey);
+    }
+
+    /**
+     * Parse a date (dd/mm/yyyy followed by an optional letter) into a date
+     * key. Separators other than digits and letters are ignored.
+     * 
+     * @param date
+     *            the date
+     * @return the date key or INVALID_DATE_KEY if date is not valid
+     */
+    public static long parseDateKey(String date) {
+	if (date == null) {
+	    return INVALID_DATE_KEY;
+	}
+	int[] digits = new int[8];
+	int nDigits = 0;
+	int suffix = 0;
+	for (int i = 0; i < date.length(); i++) {
+	    char c = date.charAt(i);
+	    if (c >= '0' && c <= '9') {
+		if (nDigits == digits.length || suffix != 0) {
+		    return INVALID_DATE_KEY;
+		}
+		digits[nDigits++] = c - '0';
+	    } else if (Character.isLetter(c)) {
+		c = Character.toLowerCase(c);
+		if (nDigits != digits.length || suffix != 0 || c < 'a'
+			|| c > 'z') {
+		    return INVALID_DATE_KEY;
+		}
+		suffix = c - 'a' + 1;
+	    }
+	}
+	if (nDigits != digits.length) {
+	    return INVALID_DATE_KEY;
+	}
+	int day = digits[0] * 10 + digits[1];
+	int month = digits[2] * 10 + digits[3];
+	int year = digits[4] * 1000 + digits[5] * 100 + digits[6] * 10
+		+ digits[7];
+	if (day < 1 || day > 31 || month < 1 || month > 12) {
+	    return INVALID_DATE_KEY;
+	}
+	return getDateKey(toEpochDay(year, month, day), suffix);
+    }
+
+    /**
+     * Return the date key of an epoch day and a letter.
+     * 
+     * @param epochDay
+     *            the number of days since 01/01/1970
+     * @param suffix
+     *            the letter of the reports of the same night (0 for no
+     *            letter, 1 for a, ..., 26 for z)
+     * @return the date key
+     */
+    public static long getDateKey(long epochDay, int suffix) {
+	return (epochDay << DATE_SUFFIX_BITS) | suffix;
+    }
+
+    /**
+     * Return the epoch day of a date key.
+     * 
+     * @param dateKey
+     *            the date key
+     * @return the number of days since 01/01/1970
+     */
+    public static long getEpochDay(long dateKey) {
+	return dateKey >> DATE_SUFFIX_BITS;
+    }
+
+    /**
+     * Return the year of a date key.
+     * 
+     * @param dateKey
+     *            the date key
+     * @return the year of the Gregorian calendar
+     */
+    public static int getYear(long dateKey) {
+	// the inverse of toEpochDay(), counting the years from March
+	long z = getEpochDay(dateKey) + 719468;
+	long era = (z >= 0 ? z : z - 146096) / 146097;
+	long dayOfEra = z - era * 146097;
+	long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524
+		- dayOfEra / 146096) / 365;
+	long dayOfYear = dayOfEra
+		- (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+	long month = (5 * dayOfYear + 2) / 153;
+	long year = yearOfEra + era * 400;
+	return (int) (month >= 10 ? year + 1 : year);
+    }
+
+    /**
+     * Return the number of days since 01/01/1970 of a date of the Gregorian
+     * calendar.
+     * 
+     * @param year
+     *            the year
+     * @param month
+     *            the month (1-12)
+     * @param day
+     *            the day of the month (1-31)
+     * @return the epoch day
+     */
+    private static long toEpochDay(int year, int month, int day) {
+	// count the years from March, so that February is the last month
+	long y = month <= 2 ? year - 1 : year;
+	long era = (y >= 0 ? y : y - 399) / 400;
+	long yearOfEra = y - era * 400;
+	long dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5
+		+ day - 1;
+	long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100
+		+ dayOfYear;
+	return era * 146097 + dayOfEra - 719468;
+    }
+
+    /**
+     * Return the code of a value. Free text values are stored in this report
+     * and their codes are lower than ReportDictionary.NULL.
+     * 
+     * @param value
+     *            the value
+     * @param freeText
+     *            true if the value is free text
+     * @return the code
+     */
+    private int encode(String value, boolean freeText) {
+	if (value == null || !freeText) {
+	    return dictionary.encode(value);
+	}
+	if (texts == null) {
+	    texts = new ArrayList<String>();
+	}
+	texts.add(value);
+	return ReportDictionary.NULL - texts.size();
+    }
+
+    /**
+     * Return the value of a code.
+     * 
+     * @param code
+     *            the code
+     * @return the value
+     */
+    private String decode(int code) {
+	if (code < ReportDictionary.NULL) {
+	    return texts.get(ReportDictionary.NULL - code - 1);
+	}
+	return dictionary.decode(code);
+    }
+
+    /**
+     * Return the dictionary code of a code, adding the value to the
+     * dictionary if this is stored in this report.
+     * 
+     * @param code
+     *            the code
+     * @return the dictionary code
+     */
+    private int toDictionaryCode(int code) {
+	if (code < ReportDictionary.NULL) {
+	    return dictionary.encode(decode(code));
 	}
-	return 1;
+	return code;
     }
 }
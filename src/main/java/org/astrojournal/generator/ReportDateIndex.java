@@ -0,0 +1,140 @@
+/*
+ * Copyright 2015 Piero Dalle Pezze
+ *
+ * This file is part of AstroJournal.
+ *
+ * AstroJournal is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+/*
+ * Changelog:
+ * - Piero Dalle Pezze: class creation.
+ */
+package org.astrojournal.generator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An index of the reports by date. The reports are sorted by date key once,
+ * so that the reports of a range of dates are found by binary search. Reports
+ * without a valid date are not indexed.
+ * 
+ * @author Piero Dalle Pezze
+ * @version $Rev$
+ * @since 1.0
+ */
+public class ReportDateIndex {
+
+    /** The date keys of the indexed reports in ascending order. */
+    private long[] dateKeys;
+
+    /** The indexed reports in ascending order of date key. */
+    private Report[] reports;
+
+    /**
+     * Constructor.
+     * 
+     * @param reports
+     *            the reports to index
+     */
+    public ReportDateIndex(List<Report> reports) {
+	List<Report> validReports = new ArrayList<Report>(reports.size());
+	for (Report report : reports) {
+	    if (report.getDateKey() != Report.INVALID_DATE_KEY) {
+		validReports.add(report);
+	    }
+	}
+	this.reports = validReports.toArray(new Report[validReports.size()]);
+	// stable, so that reports with the same date keep their order
+	Arrays.sort(this.reports);
+	dateKeys = new long[this.reports.length];
+	for (int i = 0; i < dateKeys.length; i++) {
+	    dateKeys[i] = this.reports[i].getDateKey();
+	}
+    }
+
+    /**
+     * Return the reports between two dates (dd/mm/yyyy), including both. The
+     * most recent report is the first.
+     * 
+     * @param fromDate
+     *            the first date
+     * @param toDate
+     *            the last date
+     * @return the reports or an empty list if a date is not valid
+     */
+    public List<Report> getReports(String fromDate, String toDate) {
+	long fromKey = Report.parseDateKey(fromDate);
+	long toKey = Report.parseDateKey(toDate);
+	if (fromKey == Report.INVALID_DATE_KEY
+		|| toKey == Report.INVALID_DATE_KEY) {
+	    return new ArrayList<Report>();
+	}
+	return getReports(Report.getEpochDay(fromKey),
+		Report.getEpochDay(toKey));
+    }
+
+    /**
+     * Return the reports between two epoch days, including both. The most
+     * recent report is the first.
+     * 
+     * @param fromEpochDay
+     *            the first day (days since 01/01/1970)
+     * @param toEpochDay
+     *            the last day (days since 01/01/1970)
+     * @return the reports
+     */
+    public List<Report> getReports(long fromEpochDay, long toEpochDay) {
+	int from = lowerBound(Report.getDateKey(fromEpochDay, 0));
+	int to = lowerBound(Report.getDateKey(toEpochDay + 1, 0));
+	List<Report> range = new ArrayList<Report>(Math.max(0, to - from));
+	for (int i = to - 1; i >= from; i--) {
+	    range.add(reports[i]);
+	}
+	return range;
+    }
+
+    /**
+     * Return the number of indexed reports.
+     * 
+     * @return the number of reports
+     */
+    public int size() {
+	return reports.length;
+    }
+
+    /**
+     * Return the index of the first date key which is greater or equal than a
+     * date key.
+     * 
+     * @param dateKey
+     *            the date key
+     * @return the index (the number of date keys if all are lower)
+     */
+    private int lowerBound(long dateKey) {
+	int low = 0, high = dateKeys.length;
+	while (low < high) {
+	    int mid = (low + high) >>> 1;
+	    if (dateKeys[mid] < dateKey) {
+		low = mid + 1;
+	    } else {
+		high = mid;
+	    }
+	}
+	return low;
+    }
+
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2015 Piero Dalle Pezze
+ *
+ * This file is part of AstroJournal.
+ *
+ * AstroJournal is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+/*
+ * Changelog:
+ * - Piero Dalle Pezze: class creation.
+ */
+package org.astrojournal.generator;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A dictionary of the values stored in the reports. Each distinct value is
+ * stored once and is identified by an int code. Each code is also associated
+ * to the code of its normalised value (trimmed and in lower case), so that
+ * values can be grouped ignoring the case by comparing codes. This class is
+ * thread safe.
+ * 
+ * @author Piero Dalle Pezze
+ * @version $Rev$
+ * @since 1.0
+ */
+public class ReportDictionary {
+
+    /** The code of a null value. */
+    public static final int NULL = -1;
+
+    /** The code of each value. */
+    private Map<String, Integer> codes = new ConcurrentHashMap<String, Integer>();
+
+    /** The values. */
+    private volatile String[] values = new String[256];
+
+    /** The code of the normalised value of each value. */
+    private volatile int[] normalisedCodes = new int[256];
+
+    /** The number of values. */
+    private int size = 0;
+
+    /**
+     * Constructor.
+     */
+    public ReportDictionary() {
+    }
+
+    /**
+     * Return the code of a value, adding the value to the dictionary if this
+     * is not present.
+     * 
+     * @param value
+     *            the value, which can be null
+     * @return the code
+     */
+    public int encode(String value) {
+	if (value == null) {
+	    return NULL;
+	}
+	Integer code = codes.get(value);
+	if (code != null) {
+	    return code;
+	}
+	return add(value);
+    }
+
+    /**
+     * Return the value of a code.
+     * 
+     * @param code
+     *            the code
+     * @return the value or null if code is NULL
+     */
+    public String decode(int code) {
+	if (code == NULL) {
+	    return null;
+	}
+	return values[code];
+    }
+
+    /**
+     * Return the code of the normalised value (trimmed and in lower case) of
+     * a code. Two values which are equal ignoring the case have the same
+     * normalised code.
+     * 
+     * @param code
+     *            the code
+     * @return the normalised code or NULL if code is NULL
+     */
+    public int normalise(int code) {
+	if (code == NULL) {
+	    return NULL;
+	}
+	return normalisedCodes[code];
+    }
+
+    /**
+     * Return the number of values in the dictionary. Codes are lower than
+     * this.
+     * 
+     * @return the number of values
+     */
+    public synchronized int size() {
+	return size;
+    }
+
+    /**
+     * Add a value to the dictionary.
+     * 
+     * @param value
+     *            the value
+     * @return the code of the value
+     */
+    private synchronized int add(String value) {
+	Integer code = codes.get(value);
+	if (code != null) {
+	    return code;
+	}
+	if (size == values.length) {
+	    values = Arrays.copyOf(values, size * 2);
+	    normalisedCodes = Arrays.copyOf(normalisedCodes, size * 2);
+	}
+	int newCode = size++;
+	values[newCode] = value;
+	String normalised = value.trim().toLowerCase();
+	// this can add the normalised value and grow the arrays
+	int normalisedCode = normalised.equals(value) ? newCode
+		: encode(normalised);
+	normalisedCodes[newCode] = normalisedCode;
+	// publish the code after the value is stored
+	codes.put(value, newCode);
+	return newCode;
+    }
+
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2015 Piero Dalle Pezze
+ *
+ * This file is part of AstroJournal.
+ *
+ * AstroJournal is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+/*
+ * Changelog:
+ * - Piero Dalle Pezze: class creation.
+ */
+package org.astrojournal.generator;
+
+/**
+ * A sink receiving the reports one at a time as soon as they are imported.
+ * This allows the reports to be processed without waiting for the whole
+ * archive to be imported.
+ * 
+ * @author Piero Dalle Pezze
+ * @version $Rev$
+ * @since 1.0
+ */
+public interface ReportSink {
+
+    /**
+     * Receive an imported report.
+     * 
+     * @param report
+     *            the imported report
+     * @return true if the report was processed correctly
+     */
+    public boolean accept(Report report);
+
+    /**
+     * Notify that all the reports were imported.
+     * 
+     * @return true if the sink completed correctly
+     */
+    public boolean finish();
+
+}
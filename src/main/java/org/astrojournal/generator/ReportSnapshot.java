@@ -0,0 +1,420 @@
+/*
+ * Copyright 2015 Piero Dalle Pezze
+ *
+ * This file is part of AstroJournal.
+ *
+ * AstroJournal is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+/*
+ * Changelog:
+ * - Piero Dalle Pezze: class creation.
+ */
+package org.astrojournal.generator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.astrojournal.utilities.filefilters.TSVRawReportFilter;
+
+/**
+ * A compact binary snapshot of the imported reports. Each distinct string is
+ * stored once in a dictionary as length prefixed UTF-8 and the reports refer
+ * to it by index. The snapshot is read at once through a file channel when
+ * loaded, so that a warm start does not parse the raw reports again. The
+ * snapshot records the newest modification time of the raw reports before
+ * they were imported, so that a raw report changed during the import is
+ * imported again next time.
+ * 
+ * @author Piero Dalle Pezze
+ * @version $Rev$
+ * @since 1.0
+ */
+public class ReportSnapshot {
+
+    /** The log associated to this class */
+    private static Logger log = LogManager.getLogger(ReportSnapshot.class);
+
+    /** The first bytes of a snapshot file ("AJSN"). */
+    private static final int MAGIC = 0x414A534E;
+
+    /** The version of the snapshot file format. */
+    private static final int VERSION = 2;
+
+    /** The dictionary index of a null string. */
+    private static final int NULL = -1;
+
+    /** The charset for the strings stored in the snapshot file. */
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /** The snapshot file. */
+    private File snapshotFile;
+
+    /** The name of the generator owning this snapshot. */
+    private String generatorName;
+
+    /**
+     * Constructor.
+     * 
+     * @param snapshotFile
+     *            the snapshot file
+     * @param generatorName
+     *            the name of the generator owning the snapshot. A snapshot
+     *            written for another generator is ignored.
+     */
+    public ReportSnapshot(File snapshotFile, String generatorName) {
+	this.snapshotFile = snapshotFile;
+	this.generatorName = generatorName;
+    }
+
+    /**
+     * Return true if the raw reports folder and every raw report file in it
+     * were not modified after the time recorded in the snapshot. A file added
+     * to or removed from the folder changes the modification time of the
+     * folder.
+     * 
+     * @param rawReportsFolder
+     *            the folder containing the raw reports
+     * @return true if the snapshot is up to date
+     */
+    public boolean isUpToDate(File rawReportsFolder) {
+	long inputTime = readInputTime();
+	return inputTime > 0L && rawReportsFolder.isDirectory()
+		&& getInputTime(rawReportsFolder) <= inputTime;
+    }
+
+    /**
+     * Return the newest modification time of the raw reports folder and of
+     * the raw report files in it. This must be read before the raw reports
+     * are imported and passed to save().
+     * 
+     * @param rawReportsFolder
+     *            the folder containing the raw reports
+     * @return the modification time
+     */
+    public long getInputTime(File rawReportsFolder) {
+	long inputTime = rawReportsFolder.lastModified();
+	File[] files = rawReportsFolder.listFiles(new TSVRawReportFilter());
+	if (files != null) {
+	    for (File file : files) {
+		inputTime = Math.max(inputTime, file.lastModified());
+	    }
+	}
+	return inputTime;
+    }
+
+    /**
+     * Return the modification time of the raw reports recorded in the
+     * snapshot file.
+     * 
+     * @return the modification time or 0 if the snapshot cannot be read
+     */
+    private long readInputTime() {
+	if (!snapshotFile.exists()) {
+	    return 0L;
+	}
+	DataInputStream in = null;
+	try {
+	    in = new DataInputStream(new BufferedInputStream(
+		    new FileInputStream(snapshotFile)));
+	    if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+		return 0L;
+	    }
+	    byte[] name = new byte[in.readInt()];
+	    in.readFully(name);
+	    if (!generatorName.equals(new String(name, UTF8))) {
+		return 0L;
+	    }
+	    return in.readLong();
+	} catch (IOException ex) {
+	    log.debug(ex, ex);
+	    return 0L;
+	} catch (NegativeArraySizeException ex) {
+	    log.debug(ex, ex);
+	    return 0L;
+	} finally {
+	    try {
+		if (in != null)
+		    in.close();
+	    } catch (IOException ex) {
+		log.debug(ex, ex);
+	    }
+	}
+    }
+
+    /**
+     * Load the reports from the snapshot file.
+     * 
+     * @return the reports or null if the snapshot cannot be read
+     */
+    public List<Report> load() {
+	FileInputStream in = null;
+	try {
+	    in = new FileInputStream(snapshotFile);
+	    // the file is read in memory rather than mapped, so that it can be
+	    // replaced as soon as it is closed.
+	    FileChannel channel = in.getChannel();
+	    if (channel.size() > Integer.MAX_VALUE) {
+		throw new IOException("The snapshot is too large");
+	    }
+	    ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+	    while (buffer.hasRemaining()) {
+		if (channel.read(buffer) < 0) {
+		    break;
+		}
+	    }
+	    buffer.flip();
+	    if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION
+		    || !generatorName.equals(readString(buffer))) {
+		log.debug("Ignoring the snapshot " + snapshotFile);
+		return null;
+	    }
+	    // the modification time of the raw reports
+	    buffer.getLong();
+	    String[] dictionary = new String[buffer.getInt()];
+	    for (int i = 0; i < dictionary.length; i++) {
+		dictionary[i] = readString(buffer);
+	    }
+	    int nReports = buffer.getInt();
+	    List<Report> reports = new ArrayList<Report>(nReports);
+	    for (int i = 0; i < nReports; i++) {
+		int dataColumnNumber = buffer.getInt();
+		String[] metaData = readStrings(buffer, dictionary);
+		Report report = new Report(metaData.length, dataColumnNumber);
+		report.addMetaData(metaData);
+		int nRows = buffer.getInt();
+		for (int j = 0; j < nRows; j++) {
+		    report.addData(readStrings(buffer, dictionary));
+		}
+		reports.add(report);
+	    }
+	    log.debug("Loaded " + nReports + " reports from the snapshot "
+		    + snapshotFile);
+	    return reports;
+	} catch (IOException ex) {
+	    log.warn("The snapshot " + snapshotFile + " cannot be read.");
+	    log.debug(ex, ex);
+	} catch (BufferUnderflowException ex) {
+	    log.warn("The snapshot " + snapshotFile + " is truncated.");
+	    log.debug(ex, ex);
+	} catch (IndexOutOfBoundsException ex) {
+	    log.warn("The snapshot " + snapshotFile + " is corrupted.");
+	    log.debug(ex, ex);
+	} catch (NegativeArraySizeException ex) {
+	    log.warn("The snapshot " + snapshotFile + " is corrupted.");
+	    log.debug(ex, ex);
+	} finally {
+	    try {
+		if (in != null)
+		    in.close();
+	    } catch (IOException ex) {
+		log.debug(ex, ex);
+	    }
+	}
+	return null;
+    }
+
+    /**
+     * Save the reports to the snapshot file. The snapshot file is replaced
+     * atomically where the file system allows this.
+     * 
+     * @param reports
+     *            the reports to save
+     * @param inputTime
+     *            the newest modification time of the raw reports before
+     *            they were imported, as returned by getInputTime()
+     * @return true if the snapshot was saved
+     */
+    public boolean save(List<Report> reports, long inputTime) {
+	// build the dictionary of the distinct strings
+	Map<String, Integer> codes = new HashMap<String, Integer>();
+	List<String> dictionary = new ArrayList<String>();
+	for (Report report : reports) {
+	    addToDictionary(report.getMetaData(), codes, dictionary);
+	    for (String[] row : report.getAllData()) {
+		addToDictionary(row, codes, dictionary);
+	    }
+	}
+
+	File tmpFile = new File(snapshotFile.getPath() + ".tmp");
+	DataOutputStream out = null;
+	boolean status = true;
+	try {
+	    out = new DataOutputStream(new BufferedOutputStream(
+		    new FileOutputStream(tmpFile)));
+	    out.writeInt(MAGIC);
+	    out.writeInt(VERSION);
+	    writeString(out, generatorName);
+	    out.writeLong(inputTime);
+	    out.writeInt(dictionary.size());
+	    for (String s : dictionary) {
+		writeString(out, s);
+	    }
+	    out.writeInt(reports.size());
+	    for (Report report : reports) {
+		out.writeInt(report.getdataColumnNumber());
+		writeStrings(out, report.getMetaData(), codes);
+		out.writeInt(report.getDataRowNumber());
+		for (String[] row : report.getAllData()) {
+		    writeStrings(out, row, codes);
+		}
+	    }
+	} catch (IOException ex) {
+	    status = false;
+	    log.debug(ex, ex);
+	} finally {
+	    try {
+		if (out != null)
+		    out.close();
+	    } catch (IOException ex) {
+		status = false;
+		log.debug(ex, ex);
+	    }
+	}
+	try {
+	    if (status) {
+		Files.move(tmpFile.toPath(), snapshotFile.toPath(),
+			StandardCopyOption.REPLACE_EXISTING);
+		log.debug("Saved " + reports.size() + " reports and "
+			+ dictionary.size() + " strings to the snapshot "
+			+ snapshotFile);
+	    }
+	} catch (IOException ex) {
+	    status = false;
+	    log.debug(ex, ex);
+	}
+	if (!status) {
+	    log.warn("The snapshot " + snapshotFile + " cannot be saved.");
+	    tmpFile.delete();
+	}
+	return status;
+    }
+
+    /**
+     * Return the snapshot file.
+     * 
+     * @return the snapshot file
+     */
+    public File getSnapshotFile() {
+	return snapshotFile;
+    }
+
+    /**
+     * Add the strings which are not in the dictionary yet.
+     * 
+     * @param strings
+     *            the strings
+     * @param codes
+     *            the dictionary index of each string
+     * @param dictionary
+     *            the dictionary
+     */
+    private static void addToDictionary(String[] strings,
+	    Map<String, Integer> codes, List<String> dictionary) {
+	for (String s : strings) {
+	    if (s != null && !codes.containsKey(s)) {
+		codes.put(s, dictionary.size());
+		dictionary.add(s);
+	    }
+	}
+    }
+
+    /**
+     * Read an array of strings stored as dictionary indexes.
+     * 
+     * @param buffer
+     *            the buffer
+     * @param dictionary
+     *            the dictionary
+     * @return the array
+     */
+    private static String[] readStrings(ByteBuffer buffer,
+	    String[] dictionary) {
+	String[] strings = new String[buffer.getInt()];
+	for (int i = 0; i < strings.length; i++) {
+	    int code = buffer.getInt();
+	    strings[i] = code == NULL ? null : dictionary[code];
+	}
+	return strings;
+    }
+
+    /**
+     * Write an array of strings as dictionary indexes.
+     * 
+     * @param out
+     *            the output stream
+     * @param strings
+     *            the array
+     * @param codes
+     *            the dictionary index of each string
+     * @throws IOException
+     *             if the array cannot be written
+     */
+    private static void writeStrings(DataOutputStream out, String[] strings,
+	    Map<String, Integer> codes) throws IOException {
+	out.writeInt(strings.length);
+	for (String s : strings) {
+	    out.writeInt(s == null ? NULL : codes.get(s));
+	}
+    }
+
+    /**
+     * Read a length prefixed UTF-8 string.
+     * 
+     * @param buffer
+     *            the buffer
+     * @return the string
+     */
+    private static String readString(ByteBuffer buffer) {
+	byte[] bytes = new byte[buffer.getInt()];
+	buffer.get(bytes);
+	return new String(bytes, UTF8);
+    }
+
+    /**
+     * Write a length prefixed UTF-8 string.
+     * 
+     * @param out
+     *            the output stream
+     * @param s
+     *            the string
+     * @throws IOException
+     *             if the string cannot be written
+     */
+    private static void writeString(DataOutputStream out, String s)
+	    throws IOException {
+	byte[] bytes = s.getBytes(UTF8);
+	out.writeInt(bytes.length);
+	out.write(bytes);
+    }
+
+}
@@ -0,0 +1,358 @@
+/*
+ * Copyright 2015 Piero Dalle Pezze
+ *
+ * This file is part of AstroJournal.
+ *
+ * AstroJournal is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+/*
+ * Changelog:
+ * - Piero Dalle Pezze: class creation.
+ */
+package org.astrojournal.generator.absgen;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A classifier of the target names by catalogue. The catalogues are data: a
+ * name and the prefixes of the targets in the catalogue (ignoring the case).
+ * The targets of a numbered catalogue (e.g. M31, NGC7000) must have a digit
+ * after the prefix and are sorted by number. The targets of the other
+ * catalogues (e.g. the Solar System) are sorted by the order of the prefixes
+ * they are equal to, followed by the other targets with the same prefixes.
+ * All the prefixes are matched by a single precompiled pattern, so that a name
+ * is classified once. The catalogues are tested in order and the targets
+ * which are not in any catalogue are sorted by name after all the catalogues.
+ * 
+ * @author Piero Dalle Pezze
+ * @version $Rev$
+ * @since 1.0
+ */
+public class CatalogueClassifier {
+
+    /** The name of the targets which are not in any catalogue. */
+    public static final String UNCLASSIFIED = "Stars and unclassified targets";
+
+    /** The position of the targets which are not in any catalogue. */
+    private static final int UNCLASSIFIED_INDEX = Integer.MAX_VALUE;
+
+    /** The default catalogues. */
+    public static final Catalogue[] DEFAULT_CATALOGUES = new Catalogue[] {
+	    new Catalogue("Solar System", false, "sun", "moon", "mercury",
+		    "venus", "mars", "asteroid", "jupiter", "saturn",
+		    "uranus", "neptune", "pluto", "comet"),
+	    new Catalogue("Milky Way", false, "milkyway"),
+	    new Catalogue("Messier Catalogue", true, "m"),
+	    new Catalogue("New General Catalogue (NGC)", true, "ngc"),
+	    new Catalogue("Index Catalogue (IC)", true, "ic"),
+	    new Catalogue("Stock Catalogue", true, "stock"),
+	    new Catalogue("Melotte Catalogue", true, "mel"),
+	    new Catalogue("Collider Catalogue", true, "cr"),
+	    new Catalogue("Perek-Kohoutex Catalogue", true, "pk"),
+	    new Catalogue("Barnard Catalogue", true, "b", "barnard"),
+	    new Catalogue("Hickson Compact Group Catalogue", true, "hcg",
+		    "hickson compact group"),
+	    new Catalogue("Abell Catalogue", true, "abell"),
+	    new Catalogue("Uppsala General Catalogue", true, "ugc"),
+	    new Catalogue("Steph Catalogue", true, "steph") };
+
+    /** The catalogues. */
+    private Catalogue[] catalogues;
+
+    /** The pattern matching the prefixes of each catalogue as a group. */
+    private Pattern pattern;
+
+    /**
+     * Constructor. The default catalogues are used.
+     */
+    public CatalogueClassifier() {
+	this(Arrays.asList(DEFAULT_CATALOGUES));
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param catalogues
+     *            the catalogues in the order they are tested and sorted
+     */
+    public CatalogueClassifier(List<Catalogue> catalogues) {
+	this.catalogues = catalogues.toArray(new Catalogue[catalogues.size()]);
+	StringBuilder regex = new StringBuilder("^(?:");
+	for (int i = 0; i < this.catalogues.length; i++) {
+	    if (i > 0) {
+		regex.append('|');
+	    }
+	    regex.append("((?:");
+	    String[] prefixes = this.catalogues[i].getPrefixes();
+	    for (int j = 0; j < prefixes.length; j++) {
+		if (j > 0) {
+		    regex.append('|');
+		}
+		regex.append(Pattern.quote(prefixes[j]));
+	    }
+	    regex.append(this.catalogues[i].isNumbered() ? ")(?=[0-9]))"
+		    : "))");
+	}
+	regex.append(')');
+	pattern = Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE);
+    }
+
+    /**
+     * Classify a target name (e.g. the name of a target file).
+     * 
+     * @param name
+     *            the name
+     * @return the classification
+     */
+    public Classification classify(String name) {
+	Matcher matcher = pattern.matcher(name);
+	if (matcher.find()) {
+	    for (int i = 0; i < catalogues.length; i++) {
+		if (matcher.group(i + 1) != null) {
+		    Catalogue catalogue = catalogues[i];
+		    if (catalogue.isNumbered()) {
+			return new Classification(name, i,
+				catalogue.getName(), extractNumber(name), 0);
+		    }
+		    return new Classification(name, i, catalogue.getName(), 0,
+			    catalogue.getRank(removeExtension(name)));
+		}
+	    }
+	}
+	return new Classification(name, UNCLASSIFIED_INDEX, UNCLASSIFIED, 0, 0);
+    }
+
+    /**
+     * Return the catalogues.
+     * 
+     * @return the catalogues
+     */
+    public List<Catalogue> getCatalogues() {
+	return new ArrayList<Catalogue>(Arrays.asList(catalogues));
+    }
+
+    /**
+     * Return the number formed by all the digits of a name.
+     * 
+     * @param name
+     *            the name
+     * @return the number or 0 if name does not contain digits
+     */
+    private static long extractNumber(String name) {
+	long number = 0;
+	int nDigits = 0;
+	for (int i = 0; i < name.length() && nDigits < 18; i++) {
+	    char c = name.charAt(i);
+	    if (c >= '0' && c <= '9') {
+		number = number * 10 + (c - '0');
+		nDigits++;
+	    }
+	}
+	return number;
+    }
+
+    /**
+     * Return a name without its extension.
+     * 
+     * @param name
+     *            the name
+     * @return the name without extension
+     */
+    private static String removeExtension(String name) {
+	int dot = name.lastIndexOf('.');
+	return dot < 0 ? name : name.substring(0, dot);
+    }
+
+    /**
+     * A catalogue of targets.
+     */
+    public static class Catalogue {
+
+	/** The name of the catalogue. */
+	private String name;
+
+	/** True if the targets are numbered. */
+	private boolean numbered;
+
+	/** The prefixes of the targets. */
+	private String[] prefixes;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param name
+	 *            the name of the catalogue (e.g. Messier Catalogue)
+	 * @param numbered
+	 *            true if the targets have a number after the prefix and
+	 *            are sorted by number
+	 * @param prefixes
+	 *            the prefixes of the targets (ignoring the case)
+	 */
+	public Catalogue(String name, boolean numbered, String... prefixes) {
+	    this.name = name;
+	    this.numbered = numbered;
+	    this.prefixes = prefixes;
+	}
+
+	/**
+	 * Return the name of the catalogue.
+	 * 
+	 * @return the name
+	 */
+	public String getName() {
+	    return name;
+	}
+
+	/**
+	 * Return true if the targets are numbered.
+	 * 
+	 * @return true if the targets are numbered
+	 */
+	public boolean isNumbered() {
+	    return numbered;
+	}
+
+	/**
+	 * Return the prefixes of the targets.
+	 * 
+	 * @return the prefixes
+	 */
+	public String[] getPrefixes() {
+	    return prefixes.clone();
+	}
+
+	/**
+	 * Return the position of the prefix which is equal to a target name
+	 * ignoring the case.
+	 * 
+	 * @param target
+	 *            the target name
+	 * @return the position or the number of prefixes if the target is not
+	 *         equal to any prefix
+	 */
+	private int getRank(String target) {
+	    for (int i = 0; i < prefixes.length; i++) {
+		if (prefixes[i].equalsIgnoreCase(target)) {
+		    return i;
+		}
+	    }
+	    return prefixes.length;
+	}
+    }
+
+    /**
+     * The classification of a target name. Classifications are ordered by
+     * catalogue, then by number, position of the prefix or name depending on
+     * the catalogue.
+     */
+    public static class Classification implements Comparable<Classification> {
+
+	/** The target name. */
+	private String name;
+
+	/** The position of the catalogue. */
+	private int catalogueIndex;
+
+	/** The name of the catalogue. */
+	private String catalogueName;
+
+	/** The number of the target in a numbered catalogue. */
+	private long number;
+
+	/** The position of the prefix equal to the target name. */
+	private int rank;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param name
+	 *            the target name
+	 * @param catalogueIndex
+	 *            the position of the catalogue
+	 * @param catalogueName
+	 *            the name of the catalogue
+	 * @param number
+	 *            the number of the target in a numbered catalogue
+	 * @param rank
+	 *            the position of the prefix equal to the target name
+	 */
+	private Classification(String name, int catalogueIndex,
+		String catalogueName, long number, int rank) {
+	    this.name = name;
+	    this.catalogueIndex = catalogueIndex;
+	    this.catalogueName = catalogueName;
+	    this.number = number;
+	    this.rank = rank;
+	}
+
+	/**
+	 * Return the target name.
+	 * 
+	 * @return the name
+	 */
+	public String getName() {
+	    return name;
+	}
+
+	/**
+	 * Return the name of the catalogue.
+	 * 
+	 * @return the name of the catalogue
+	 */
+	public String getCatalogueName() {
+	    return catalogueName;
+	}
+
+	/**
+	 * Return the number of the target in a numbered catalogue.
+	 * 
+	 * @return the number (0 for the other catalogues)
+	 */
+	public long getNumber() {
+	    return number;
+	}
+
+	/**
+	 * Return the position of the prefix equal to the target name.
+	 * 
+	 * @return the position (0 for the numbered catalogues)
+	 */
+	public int getRank() {
+	    return rank;
+	}
+
+	@Override
+	public int compareTo(Classification other) {
+	    if (catalogueIndex != other.catalogueIndex) {
+		return catalogueIndex < other.catalogueIndex ? -1 : 1;
+	    }
+	    if (number != other.number) {
+		return number < other.number ? -1 : 1;
+	    }
+	    if (rank != other.rank) {
+		return rank < other.rank ? -1 : 1;
+	    }
+	    if (catalogueIndex == UNCLASSIFIED_INDEX) {
+		return name.compareTo(other.name);
+	    }
+	    return 0;
+	}
+    }
+
+}
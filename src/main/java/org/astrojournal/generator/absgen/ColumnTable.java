@@ -0,0 +1,180 @@
+/*
+ * Copyright 2015 Piero Dalle Pezze
+ *
+ * This file is part of AstroJournal.
+ *
+ * AstroJournal is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+/*
+ * Changelog:
+ * - Piero Dalle Pezze: class creation.
+ */
+package org.astrojournal.generator.absgen;
+
+import java.util.Arrays;
+
+/**
+ * A case insensitive lookup table from the names and aliases of a set of
+ * columns to the columns. This is built once for each set of columns. The
+ * field of a TSVTokenizer is looked up by hashing its bytes, so that no String
+ * is created.
+ * 
+ * @author Piero Dalle Pezze
+ * @version $Rev$
+ * @since 1.0
+ * @param <E>
+ *            the enumeration of the columns
+ */
+public class ColumnTable<E extends Enum<E> & ReportColumn> {
+
+    /** The number of columns. */
+    private int nColumns;
+
+    /** The mask for the index of a slot. */
+    private int mask;
+
+    /** The hash codes ignoring the case of the names in the slots. */
+    private int[] hashes;
+
+    /** The names (or aliases) in the slots. */
+    private String[] names;
+
+    /** The columns in the slots. */
+    private Object[] columns;
+
+    /**
+     * Constructor.
+     * 
+     * @param values
+     *            all the columns (e.g. ExtDataCols.values())
+     * @throws IllegalArgumentException
+     *             if two columns have the same name or alias
+     */
+    public ColumnTable(E[] values) {
+	nColumns = values.length;
+	int nNames = 0;
+	for (E column : values) {
+	    nNames = nNames + 1 + column.getAliases().length;
+	}
+	// keep the table at most half full
+	int capacity = 8;
+	while (capacity < 2 * nNames) {
+	    capacity = capacity * 2;
+	}
+	mask = capacity - 1;
+	hashes = new int[capacity];
+	names = new String[capacity];
+	columns = new Object[capacity];
+	for (E column : values) {
+	    put(column.getColName(), column);
+	    for (String alias : column.getAliases()) {
+		put(alias, column);
+	    }
+	}
+    }
+
+    /**
+     * Return the column with a name or alias ignoring the case.
+     * 
+     * @param name
+     *            the name
+     * @return the column or null if no column has this name
+     */
+    @SuppressWarnings("unchecked")
+    public E get(String name) {
+	int hash = TSVTokenizer.hashCodeIgnoreCase(name);
+	for (int i = hash & mask; columns[i] != null; i = (i + 1) & mask) {
+	    if (hashes[i] == hash && names[i].equalsIgnoreCase(name)) {
+		return (E) columns[i];
+	    }
+	}
+	return null;
+    }
+
+    /**
+     * Return the column whose name or alias is a field of the current line of
+     * a tokenizer, ignoring the case.
+     * 
+     * @param tokenizer
+     *            the tokenizer
+     * @param field
+     *            the index of the field
+     * @return the column or null if no column has this name
+     */
+    @SuppressWarnings("unchecked")
+    public E get(TSVTokenizer tokenizer, int field) {
+	int hash = tokenizer.fieldHashCodeIgnoreCase(field);
+	for (int i = hash & mask; columns[i] != null; i = (i + 1) & mask) {
+	    if (hashes[i] == hash
+		    && tokenizer.fieldEqualsIgnoreCase(field, names[i])) {
+		return (E) columns[i];
+	    }
+	}
+	return null;
+    }
+
+    /**
+     * Map the fields of a header line to the columns. The columns can be in
+     * any order. Fields which are not columns, or repeat a column, are
+     * ignored.
+     * 
+     * @param tokenizer
+     *            the tokenizer positioned on the header line
+     * @return the ordinal of the column of each field (-1 if the field is
+     *         ignored), or null if some columns are missing
+     */
+    public int[] getFieldColumns(TSVTokenizer tokenizer) {
+	int[] fieldColumns = new int[tokenizer.getFieldCount()];
+	Arrays.fill(fieldColumns, -1);
+	boolean[] found = new boolean[nColumns];
+	int nFound = 0;
+	for (int i = 0; i < fieldColumns.length; i++) {
+	    E column = get(tokenizer, i);
+	    if (column != null && !found[column.ordinal()]) {
+		found[column.ordinal()] = true;
+		fieldColumns[i] = column.ordinal();
+		nFound++;
+	    }
+	}
+	if (nFound < nColumns) {
+	    return null;
+	}
+	return fieldColumns;
+    }
+
+    /**
+     * Add a name to the table.
+     * 
+     * @param name
+     *            the name or alias
+     * @param column
+     *            the column
+     */
+    private void put(String name, E column) {
+	int hash = TSVTokenizer.hashCodeIgnoreCase(name);
+	int i = hash & mask;
+	while (columns[i] != null) {
+	    if (names[i].equalsIgnoreCase(name)) {
+		throw new IllegalArgumentException("Column name " + name
+			+ " is used by " + columns[i] + " and " + column);
+	    }
+	    i = (i + 1) & mask;
+	}
+	hashes[i] = hash;
+	names[i] = name;
+	columns[i] = column;
+    }
+
+}
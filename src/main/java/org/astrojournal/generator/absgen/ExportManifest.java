@@ -0,0 +1,249 @@
+/*
+ * Copyright 2015 Piero Dalle Pezze
+ *
+ * This file is part of AstroJournal.
+ *
+ * AstroJournal is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+/*
+ * Changelog:
+ * - Piero Dalle Pezze: class creation.
+ */
+package org.astrojournal.generator.absgen;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.astrojournal.generator.Report;
+import org.astrojournal.generator.absgen.CatalogueClassifier.Classification;
+
+/**
+ * The manifest of the report files produced by an exporter. Each exporter
+ * records the files it writes with what the master document needs to know
+ * about them (date, catalogue, constellation), so that the master document is
+ * generated without listing the report folder and parsing the file names
+ * again. Files which were not produced by the exporter are never included.
+ * This class is thread safe.
+ * 
+ * @author Piero Dalle Pezze
+ * @version $Rev$
+ * @since 1.0
+ */
+public class ExportManifest {
+
+    /** The exported files by path. */
+    private Map<File, ExportedFile> files = new ConcurrentHashMap<File, ExportedFile>();
+
+    /**
+     * Constructor.
+     */
+    public ExportManifest() {
+    }
+
+    /**
+     * Record an exported file. A file exported again replaces the previous
+     * record.
+     * 
+     * @param file
+     *            the exported file
+     */
+    public void add(ExportedFile file) {
+	files.put(file.getPath(), file);
+    }
+
+    /**
+     * Return the exported files sorted by a comparator.
+     * 
+     * @param comparator
+     *            the comparator
+     * @return the sorted exported files
+     */
+    public List<ExportedFile> getFiles(Comparator<ExportedFile> comparator) {
+	List<ExportedFile> sortedFiles = new ArrayList<ExportedFile>(
+		files.values());
+	Collections.sort(sortedFiles, comparator);
+	return sortedFiles;
+    }
+
+    /**
+     * Return the number of exported files.
+     * 
+     * @return the number of exported files
+     */
+    public int size() {
+	return files.size();
+    }
+
+    /**
+     * Remove all the exported files.
+     */
+    public void clear() {
+	files.clear();
+    }
+
+    /**
+     * A report file produced by an exporter.
+     */
+    public static class ExportedFile {
+
+	/** Sort the files by decreasing date and then by decreasing name. */
+	public static final Comparator<ExportedFile> BY_DATE = new Comparator<ExportedFile>() {
+	    @Override
+	    public int compare(ExportedFile a, ExportedFile b) {
+		if (a.dateKey != b.dateKey) {
+		    return a.dateKey > b.dateKey ? -1 : 1;
+		}
+		return b.getName().compareTo(a.getName());
+	    }
+	};
+
+	/** Sort the files by catalogue and then by name. */
+	public static final Comparator<ExportedFile> BY_TARGET = new Comparator<ExportedFile>() {
+	    @Override
+	    public int compare(ExportedFile a, ExportedFile b) {
+		int result = a.classification.compareTo(b.classification);
+		if (result != 0) {
+		    return result;
+		}
+		return a.getName().compareTo(b.getName());
+	    }
+	};
+
+	/** Sort the files by name. */
+	public static final Comparator<ExportedFile> BY_NAME = new Comparator<ExportedFile>() {
+	    @Override
+	    public int compare(ExportedFile a, ExportedFile b) {
+		return a.getName().compareTo(b.getName());
+	    }
+	};
+
+	/** The path of the file. */
+	private File path;
+
+	/** The date key of the report or Report.INVALID_DATE_KEY. */
+	private long dateKey;
+
+	/** The classification of the target or null. */
+	private Classification classification;
+
+	/** The constellation or null. */
+	private String constellation;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param path
+	 *            the path of the file
+	 * @param dateKey
+	 *            the date key of the report or Report.INVALID_DATE_KEY
+	 * @param classification
+	 *            the classification of the target or null
+	 * @param constellation
+	 *            the constellation or null
+	 */
+	public ExportedFile(File path, long dateKey,
+		Classification classification, String constellation) {
+	    this.path = path;
+	    this.dateKey = dateKey;
+	    this.classification = classification;
+	    this.constellation = constellation;
+	}
+
+	/**
+	 * Return the path of the file.
+	 * 
+	 * @return the path
+	 */
+	public File getPath() {
+	    return path;
+	}
+
+	/**
+	 * Return the name of the file.
+	 * 
+	 * @return the name
+	 */
+	public String getName() {
+	    return path.getName();
+	}
+
+	/**
+	 * Return the name of the file without its extension.
+	 * 
+	 * @return the name without extension
+	 */
+	public String getBaseName() {
+	    String name = path.getName();
+	    int dot = name.lastIndexOf('.');
+	    return dot < 0 ? name : name.substring(0, dot);
+	}
+
+	/**
+	 * Return the date key of the report.
+	 * 
+	 * @return the date key or Report.INVALID_DATE_KEY
+	 */
+	public long getDateKey() {
+	    return dateKey;
+	}
+
+	/**
+	 * Return the year of the report. If the report does not have a valid
+	 * date, the year is the beginning of the file name.
+	 * 
+	 * @return the year
+	 */
+	public String getYear() {
+	    if (dateKey == Report.INVALID_DATE_KEY) {
+		return getName().substring(0, Math.min(4, getName().length()));
+	    }
+	    return String.valueOf(Report.getYear(dateKey));
+	}
+
+	/**
+	 * Return the classification of the target.
+	 * 
+	 * @return the classification or null
+	 */
+	public Classification getClassification() {
+	    return classification;
+	}
+
+	/**
+	 * Return the name of the catalogue of the target.
+	 * 
+	 * @return the name of the catalogue or null
+	 */
+	public String getCatalogue() {
+	    return classification == null ? null : classification
+		    .getCatalogueName();
+	}
+
+	/**
+	 * Return the constellation.
+	 * 
+	 * @return the constellation or null
+	 */
+	public String getConstellation() {
+	    return constellation;
+	}
+    }
+
+}
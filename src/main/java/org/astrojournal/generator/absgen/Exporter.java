@@ -23,13 +23,27 @@
  */
 package org.astrojournal.generator.absgen;
 
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.ResourceBundle;
-
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.astrojournal.configuration.Configuration;
 import org.astrojournal.configuration.ajconfiguration.AJPropertyConstants;
 import org.astrojournal.generator.Report;
+import org.astrojournal.generator.ReportSink;
+import org.astrojournal.generator.absgen.ExportManifest.ExportedFile;
 import org.astrojournal.generator.statistics.BasicStatistics;
 
 /**
@@ -41,6 +55,9 @@ import org.astrojournal.generator.statistics.BasicStatistics;
  */
 public abstract class Exporter {
 
+    /** The log associated to this class */
+    private static Logger log = LogManager.getLogger(Exporter.class);
+
     /** The absolute path of the location to export the data. */
     protected String filesLocation = System.getProperty("user.home");
 
@@ -65,6 +82,21 @@ public abstract class Exporter {
     /** The resource bundle. */
     protected ResourceBundle resourceBundle = null;
 
+    /** The number of threads used for exporting the reports to own files. */
+    protected int reportThreads = 1;
+
+    /** True if only the report files whose content changed are written. */
+    protected boolean incrementalExport = false;
+
+    /** The manifest of the report files for the incremental export. */
+    private OutputManifest outputManifest = null;
+
+    /** The manifest of the report files produced by this exporter. */
+    protected ExportManifest exportManifest = new ExportManifest();
+
+    /** The info messages held until these are released, or null. */
+    private List<String> heldMessages = null;
+
     /**
      * Default constructor.
      */
@@ -86,6 +118,11 @@ public abstract class Exporter {
 	setHeaderFooterFolder(config
 		.getProperty(AJPropertyConstants.LATEX_HEADER_FOOTER_FOLDER
 			.getKey()));
+	setReportThreads(Integer.parseInt(config
+		.getProperty(AJPropertyConstants.REPORT_EXPORT_THREADS
+			.getKey())));
+	setIncrementalExport(Boolean.parseBoolean(config
+		.getProperty(AJPropertyConstants.INCREMENTAL_EXPORT.getKey())));
     }
 
     /**
@@ -97,6 +134,199 @@ public abstract class Exporter {
      */
     public abstract boolean exportReports(List<Report> reports);
 
+    /**
+     * Export a report to its own file. This is implemented by the exporters
+     * writing a file for each report and it can be called by any thread. By
+     * default, the report is not exported.
+     * 
+     * @param report
+     *            the report to export
+     * @return true if the report was exported
+     */
+    protected boolean exportReport(Report report) {
+	log.error(getName() + " does not export a report to its own file");
+	return false;
+    }
+
+    /**
+     * Export each report to its own file using exportReport(). The reports
+     * are independent, so these are exported by a pool of threads if more
+     * than one report thread is set.
+     * 
+     * @param reports
+     *            the reports to export
+     * @return the result of each report following the order of the reports
+     */
+    protected boolean[] exportEachReport(List<Report> reports) {
+	boolean[] results = new boolean[reports.size()];
+	if (reportThreads <= 1 || reports.size() <= 1) {
+	    for (int i = 0; i < results.length; i++) {
+		results[i] = exportReport(reports.get(i));
+	    }
+	    return results;
+	}
+	List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>(
+		results.length);
+	ExecutorService executor = Executors.newFixedThreadPool(Math.min(
+		reportThreads, results.length));
+	try {
+	    for (final Report report : reports) {
+		futures.add(executor.submit(new Callable<Boolean>() {
+		    @Override
+		    public Boolean call() {
+			return exportReport(report);
+		    }
+		}));
+	    }
+	    for (int i = 0; i < results.length; i++) {
+		try {
+		    results[i] = futures.get(i).get();
+		} catch (ExecutionException ex) {
+		    // the file name is derived from the date of the report
+		    String[] metaData = reports.get(i).getMetaData();
+		    String message = "Error when exporting the report "
+			    + (metaData.length > 0 ? metaData[0] : "") + " to "
+			    + filesLocation + File.separator + reportFolder
+			    + ": " + ex.getCause();
+		    log.error(message);
+		    log.debug(message, ex.getCause());
+		}
+	    }
+	} catch (InterruptedException ex) {
+	    log.debug(ex, ex);
+	    Thread.currentThread().interrupt();
+	} finally {
+	    executor.shutdownNow();
+	}
+	return results;
+    }
+
+    /**
+     * Write a file to the report folder. In incremental export, the file is
+     * only written if its content changed since the previous export. This can
+     * be called by any thread.
+     * 
+     * @param filename
+     *            the name of the file in the report folder
+     * @param content
+     *            the content of the file
+     * @return true if the file was written or was unchanged
+     */
+    protected boolean writeReportFile(String filename, String content) {
+	OutputStream out = null;
+	try {
+	    byte[] bytes = content.getBytes("utf-8");
+	    if (incrementalExport) {
+		if (!getOutputManifest().write(filename, bytes)) {
+		    log.debug("File " + filename + " is unchanged");
+		}
+		return true;
+	    }
+	    out = new FileOutputStream(new File(filesLocation + File.separator
+		    + reportFolder, filename));
+	    out.write(bytes);
+	} catch (IOException ex) {
+	    log.error("Error when opening the file " + filesLocation
+		    + File.separator + reportFolder + File.separator + filename);
+	    log.debug("Error when opening the file " + filesLocation
+		    + File.separator + reportFolder + File.separator + filename,
+		    ex);
+	    return false;
+	} finally {
+	    try {
+		if (out != null)
+		    out.close();
+	    } catch (IOException ex) {
+		log.debug(ex, ex);
+		log.error(ex, ex);
+		return false;
+	    }
+	}
+	return true;
+    }
+
+    /**
+     * Write a report file and record this in the export manifest, so that the
+     * master document can include it. This can be called by any thread.
+     * 
+     * @param file
+     *            the exported file in the report folder
+     * @param content
+     *            the content of the file
+     * @return true if the file was written or was unchanged
+     */
+    protected boolean writeReportFile(ExportedFile file, String content) {
+	if (!writeReportFile(file.getName(), content)) {
+	    return false;
+	}
+	exportManifest.add(file);
+	return true;
+    }
+
+    /**
+     * Return a file of the report folder.
+     * 
+     * @param filename
+     *            the name of the file in the report folder
+     * @return the file
+     */
+    protected File getReportFile(String filename) {
+	return new File(filesLocation + File.separator + reportFolder, filename);
+    }
+
+    /**
+     * Return the report files produced by this exporter. In incremental
+     * export, the files of the report folder which were not written by this
+     * export are deleted first.
+     * 
+     * @param comparator
+     *            the order of the files
+     * @return the sorted files
+     */
+    protected List<ExportedFile> getExportedFiles(
+	    Comparator<ExportedFile> comparator) {
+	if (incrementalExport) {
+	    getOutputManifest().finish();
+	}
+	return exportManifest.getFiles(comparator);
+    }
+
+    /**
+     * Return the manifest of the report folder, loading this the first time.
+     * 
+     * @return the manifest
+     */
+    private synchronized OutputManifest getOutputManifest() {
+	File folder = new File(filesLocation + File.separator + reportFolder);
+	if (outputManifest == null
+		|| !outputManifest.getFolder().equals(folder)) {
+	    outputManifest = new OutputManifest(folder);
+	    outputManifest.load();
+	}
+	return outputManifest;
+    }
+
+    /**
+     * Return the manifest of the report files produced by this exporter.
+     * 
+     * @return the manifest
+     */
+    public ExportManifest getExportManifest() {
+	return exportManifest;
+    }
+
+    /**
+     * Return a sink exporting each report as soon as it is imported. This is
+     * only possible for exporters which do not need all the sorted reports.
+     * The reports passed to the sink must not be passed to exportReports()
+     * again.
+     * 
+     * @return the sink or null if this exporter needs all the reports
+     */
+    public ReportSink getReportSink() {
+	return null;
+    }
+
     /**
      * Generate the journal document.
      * 
@@ -115,6 +345,43 @@ public abstract class Exporter {
      */
     public abstract void postProcessing() throws IOException;
 
+    /**
+     * Log an info message. If the messages are held, this is logged when the
+     * messages are released.
+     * 
+     * @param message
+     *            the message
+     */
+    protected synchronized void logInfo(String message) {
+	if (heldMessages != null) {
+	    heldMessages.add(message);
+	} else {
+	    log.info(message);
+	}
+    }
+
+    /**
+     * Hold the info messages until these are released, so that the messages
+     * of the exporters running in parallel do not mix.
+     */
+    public synchronized void holdMessages() {
+	if (heldMessages == null) {
+	    heldMessages = new ArrayList<String>();
+	}
+    }
+
+    /**
+     * Log the held info messages. The next messages are logged at once.
+     */
+    public synchronized void releaseMessages() {
+	if (heldMessages != null) {
+	    for (String message : heldMessages) {
+		log.info(message);
+	    }
+	    heldMessages = null;
+	}
+    }
+
     /**
      * Return the exporter name
      * 
@@ -266,6 +533,49 @@ public abstract class Exporter {
 	this.quiet = quiet;
     }
 
+    /**
+     * Return the number of threads used for exporting the reports to their
+     * own files.
+     * 
+     * @return the report threads
+     */
+    public int getReportThreads() {
+	return reportThreads;
+    }
+
+    /**
+     * Set the number of threads used for exporting the reports to their own
+     * files. A value lower than 2 exports the reports sequentially.
+     * 
+     * @param reportThreads
+     *            the report threads to set
+     */
+    public void setReportThreads(int reportThreads) {
+	this.reportThreads = reportThreads;
+    }
+
+    /**
+     * Return true if only the report files whose content changed are
+     * written.
+     * 
+     * @return the incrementalExport
+     */
+    public boolean isIncrementalExport() {
+	return incrementalExport;
+    }
+
+    /**
+     * Set true if only the report files whose content changed are written.
+     * The report files which are not exported any more are then deleted when
+     * the journal is generated.
+     * 
+     * @param incrementalExport
+     *            the incrementalExport to set
+     */
+    public void setIncrementalExport(boolean incrementalExport) {
+	this.incrementalExport = incrementalExport;
+    }
+
     /**
      * Get the resource bundle.
      * 
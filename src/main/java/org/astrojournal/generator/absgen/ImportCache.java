@@ -0,0 +1,508 @@
+/*
+ * Copyright 2015 Piero Dalle Pezze
+ *
+ * This file is part of AstroJournal.
+ *
+ * AstroJournal is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+/*
+ * Changelog:
+ * - Piero Dalle Pezze: class creation.
+ */
+package org.astrojournal.generator.absgen;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.astrojournal.generator.Report;
+
+/**
+ * A persisted cache of the reports imported from each raw report file. A file
+ * is identified by its absolute path, size, last modification time and
+ * content hash. The reports of a file are served from the cache if the file
+ * has the same size and last modification time, or if its content hash is
+ * unchanged. Files which are not looked up during an import are removed from
+ * the cache when this is saved. A cache can be kept in memory and used for
+ * several imports. This class is thread safe.
+ * 
+ * @author Piero Dalle Pezze
+ * @version $Rev$
+ * @since 1.0
+ */
+public class ImportCache {
+
+    /** The log associated to this class */
+    private static Logger log = LogManager.getLogger(ImportCache.class);
+
+    /** The version of the cache file format. */
+    private static final int VERSION = 1;
+
+    /** The charset for the strings stored in the cache file. */
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /** The algorithm computing the content hash of a file. */
+    private static final String HASH_ALGORITHM = "SHA-1";
+
+    /** The cache file. */
+    private File cacheFile;
+
+    /** The name of the importer owning this cache. */
+    private String importerName;
+
+    /** The entries loaded from the cache file. */
+    private Map<String, Entry> loaded = new ConcurrentHashMap<String, Entry>();
+
+    /** The entries looked up or added during the current import. */
+    private Map<String, Entry> current = new ConcurrentHashMap<String, Entry>();
+
+    /**
+     * Constructor.
+     * 
+     * @param cacheFile
+     *            the cache file
+     * @param importerName
+     *            the name of the importer owning this cache. A cache file
+     *            written by another importer is ignored.
+     */
+    public ImportCache(File cacheFile, String importerName) {
+	this.cacheFile = cacheFile;
+	this.importerName = importerName;
+    }
+
+    /**
+     * Load the cache file. If this does not exist, cannot be read or is
+     * corrupted, the cache is empty.
+     * 
+     * @return true if the cache file was loaded
+     */
+    public boolean load() {
+	loaded.clear();
+	current.clear();
+	if (!cacheFile.exists()) {
+	    return false;
+	}
+	DataInputStream in = null;
+	try {
+	    in = new DataInputStream(new BufferedInputStream(
+		    new FileInputStream(cacheFile)));
+	    if (in.readInt() != VERSION
+		    || !importerName.equals(readString(in))) {
+		log.debug("Ignoring the import cache " + cacheFile);
+		return false;
+	    }
+	    int nEntries = readLength(in);
+	    for (int i = 0; i < nEntries; i++) {
+		String path = readString(in);
+		if (path == null) {
+		    throw new IOException("Missing file path");
+		}
+		loaded.put(path, readEntry(in));
+	    }
+	    log.debug("Loaded " + nEntries + " files from the import cache "
+		    + cacheFile);
+	    return true;
+	} catch (IOException ex) {
+	    log.warn("The import cache " + cacheFile
+		    + " cannot be read. All files will be imported.");
+	    log.debug(ex, ex);
+	    loaded.clear();
+	    return false;
+	} finally {
+	    try {
+		if (in != null)
+		    in.close();
+	    } catch (IOException ex) {
+		log.debug(ex, ex);
+	    }
+	}
+    }
+
+    /**
+     * Save the entries looked up or added since the cache was loaded or
+     * saved. The cache file is replaced atomically where the file system
+     * allows this. The saved entries are used by the next import.
+     * 
+     * @return true if the cache file was saved
+     */
+    public boolean save() {
+	File tmpFile = new File(cacheFile.getPath() + ".tmp");
+	DataOutputStream out = null;
+	boolean status = true;
+	try {
+	    out = new DataOutputStream(new BufferedOutputStream(
+		    new FileOutputStream(tmpFile)));
+	    out.writeInt(VERSION);
+	    writeString(out, importerName);
+	    out.writeInt(current.size());
+	    for (Map.Entry<String, Entry> entry : current.entrySet()) {
+		writeString(out, entry.getKey());
+		writeEntry(out, entry.getValue());
+	    }
+	} catch (IOException ex) {
+	    status = false;
+	    log.debug(ex, ex);
+	} finally {
+	    try {
+		if (out != null)
+		    out.close();
+	    } catch (IOException ex) {
+		status = false;
+		log.debug(ex, ex);
+	    }
+	}
+	try {
+	    if (status) {
+		Files.move(tmpFile.toPath(), cacheFile.toPath(),
+			StandardCopyOption.REPLACE_EXISTING);
+		log.debug("Saved " + current.size()
+			+ " files to the import cache " + cacheFile);
+	    }
+	} catch (IOException ex) {
+	    status = false;
+	    log.debug(ex, ex);
+	}
+	if (!status) {
+	    log.warn("The import cache " + cacheFile + " cannot be saved.");
+	    tmpFile.delete();
+	}
+	loaded.clear();
+	loaded.putAll(current);
+	current.clear();
+	return status;
+    }
+
+    /**
+     * Return the cached reports of a file.
+     * 
+     * @param file
+     *            the raw report file
+     * @return the reports or null if the file is not cached or has changed
+     * @throws IOException
+     *             if the file cannot be read
+     */
+    public List<Report> getReports(File file) throws IOException {
+	String path = file.getAbsolutePath();
+	Entry entry = loaded.get(path);
+	if (entry == null || entry.size != file.length()) {
+	    return null;
+	}
+	long lastModified = file.lastModified();
+	if (entry.lastModified != lastModified) {
+	    // the file was touched. Check whether the content changed.
+	    if (!Arrays.equals(entry.hash, hash(file))) {
+		return null;
+	    }
+	    entry = new Entry(entry.size, lastModified, entry.hash,
+		    entry.reports);
+	}
+	current.put(path, entry);
+	return entry.reports;
+    }
+
+    /**
+     * Add the reports imported from a file. The size and the last
+     * modification time of the file must be read before the file is imported.
+     * If the file changed since, the reports are not added, as they might not
+     * match the content of the file, which is imported again next time.
+     * 
+     * @param file
+     *            the raw report file
+     * @param size
+     *            the size of the file before it was imported
+     * @param lastModified
+     *            the last modification time of the file before it was
+     *            imported
+     * @param reports
+     *            the reports imported from file
+     * @return true if the reports were added
+     * @throws IOException
+     *             if the file cannot be read
+     */
+    public boolean putReports(File file, long size, long lastModified,
+	    List<Report> reports) throws IOException {
+	byte[] hash = hash(file);
+	if (file.length() != size || file.lastModified() != lastModified) {
+	    log.debug("The file " + file.getName()
+		    + " changed while it was imported and is not cached");
+	    return false;
+	}
+	current.put(file.getAbsolutePath(), new Entry(size, lastModified,
+		hash, reports));
+	return true;
+    }
+
+    /**
+     * Return the cache file.
+     * 
+     * @return the cache file
+     */
+    public File getCacheFile() {
+	return cacheFile;
+    }
+
+    /**
+     * Compute the content hash of a file.
+     * 
+     * @param file
+     *            the file
+     * @return the hash
+     * @throws IOException
+     *             if the file cannot be read
+     */
+    private static byte[] hash(File file) throws IOException {
+	MessageDigest digest;
+	try {
+	    digest = MessageDigest.getInstance(HASH_ALGORITHM);
+	} catch (NoSuchAlgorithmException ex) {
+	    throw new IOException(ex);
+	}
+	InputStream in = new FileInputStream(file);
+	try {
+	    byte[] buffer = new byte[8192];
+	    int read;
+	    while ((read = in.read(buffer)) > 0) {
+		digest.update(buffer, 0, read);
+	    }
+	} finally {
+	    in.close();
+	}
+	return digest.digest();
+    }
+
+    /**
+     * Read a cache entry.
+     * 
+     * @param in
+     *            the input stream
+     * @return the entry
+     * @throws IOException
+     *             if the entry cannot be read
+     */
+    private static Entry readEntry(DataInputStream in) throws IOException {
+	long size = in.readLong();
+	long lastModified = in.readLong();
+	byte[] hash = new byte[readLength(in)];
+	in.readFully(hash);
+	int nReports = readLength(in);
+	List<Report> reports = new ArrayList<Report>(nReports);
+	for (int i = 0; i < nReports; i++) {
+	    int dataColumnNumber = in.readInt();
+	    String[] metaData = readStrings(in);
+	    Report report = new Report(metaData.length, dataColumnNumber);
+	    report.addMetaData(metaData);
+	    int nRows = readLength(in);
+	    for (int j = 0; j < nRows; j++) {
+		report.addData(readStrings(in));
+	    }
+	    reports.add(report);
+	}
+	return new Entry(size, lastModified, hash, reports);
+    }
+
+    /**
+     * Write a cache entry.
+     * 
+     * @param out
+     *            the output stream
+     * @param entry
+     *            the entry
+     * @throws IOException
+     *             if the entry cannot be written
+     */
+    private static void writeEntry(DataOutputStream out, Entry entry)
+	    throws IOException {
+	out.writeLong(entry.size);
+	out.writeLong(entry.lastModified);
+	out.writeInt(entry.hash.length);
+	out.write(entry.hash);
+	out.writeInt(entry.reports.size());
+	for (Report report : entry.reports) {
+	    out.writeInt(report.getdataColumnNumber());
+	    writeStrings(out, report.getMetaData());
+	    out.writeInt(report.getDataRowNumber());
+	    for (String[] row : report.getAllData()) {
+		writeStrings(out, row);
+	    }
+	}
+    }
+
+    /**
+     * Read an array of strings.
+     * 
+     * @param in
+     *            the input stream
+     * @return the array
+     * @throws IOException
+     *             if the array cannot be read
+     */
+    private static String[] readStrings(DataInputStream in) throws IOException {
+	String[] strings = new String[readLength(in)];
+	for (int i = 0; i < strings.length; i++) {
+	    strings[i] = readString(in);
+	}
+	return strings;
+    }
+
+    /**
+     * Write an array of strings.
+     * 
+     * @param out
+     *            the output stream
+     * @param strings
+     *            the array
+     * @throws IOException
+     *             if the array cannot be written
+     */
+    private static void writeStrings(DataOutputStream out, String[] strings)
+	    throws IOException {
+	out.writeInt(strings.length);
+	for (String s : strings) {
+	    writeString(out, s);
+	}
+    }
+
+    /**
+     * Read a length prefixed UTF-8 string. A length of -1 is a null string.
+     * 
+     * @param in
+     *            the input stream
+     * @return the string
+     * @throws IOException
+     *             if the string cannot be read
+     */
+    private static String readString(DataInputStream in) throws IOException {
+	int length = in.readInt();
+	if (length == -1) {
+	    return null;
+	}
+	byte[] bytes = new byte[checkLength(in, length)];
+	in.readFully(bytes);
+	return new String(bytes, UTF8);
+    }
+
+    /**
+     * Read the length of an array or the number of the next items.
+     * 
+     * @param in
+     *            the input stream
+     * @return the length
+     * @throws IOException
+     *             if the length cannot be read or is not valid
+     */
+    private static int readLength(DataInputStream in) throws IOException {
+	return checkLength(in, in.readInt());
+    }
+
+    /**
+     * Check a length read from the cache file. As each item takes at least
+     * one byte, a length which is negative or greater than the remaining
+     * bytes of the cache file is not valid, so that a corrupted cache file
+     * does not allocate a huge array.
+     * 
+     * @param in
+     *            the input stream
+     * @param length
+     *            the length
+     * @return the length
+     * @throws IOException
+     *             if the length is not valid
+     */
+    private static int checkLength(DataInputStream in, int length)
+	    throws IOException {
+	if (length < 0 || length > in.available()) {
+	    throw new IOException("Invalid length " + length);
+	}
+	return length;
+    }
+
+    /**
+     * Write a length prefixed UTF-8 string.
+     * 
+     * @param out
+     *            the output stream
+     * @param s
+     *            the string, which can be null
+     * @throws IOException
+     *             if the string cannot be written
+     */
+    private static void writeString(DataOutputStream out, String s)
+	    throws IOException {
+	if (s == null) {
+	    out.writeInt(-1);
+	    return;
+	}
+	byte[] bytes = s.getBytes(UTF8);
+	out.writeInt(bytes.length);
+	out.write(bytes);
+    }
+
+    /**
+     * The reports imported from a file and the fingerprint of that file.
+     */
+    private static class Entry {
+
+	/** The size of the file. */
+	private final long size;
+
+	/** The last modification time of the file. */
+	private final long lastModified;
+
+	/** The content hash of the file. */
+	private final byte[] hash;
+
+	/** The reports imported from the file. */
+	private final List<Report> reports;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param size
+	 *            the size of the file
+	 * @param lastModified
+	 *            the last modification time of the file
+	 * @param hash
+	 *            the content hash of the file
+	 * @param reports
+	 *            the reports imported from the file
+	 */
+	public Entry(long size, long lastModified, byte[] hash,
+		List<Report> reports) {
+	    this.size = size;
+	    this.lastModified = lastModified;
+	    this.hash = hash;
+	    this.reports = reports;
+	}
+    }
+
+}
@@ -23,13 +23,17 @@
  */
 package org.astrojournal.generator.absgen;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.ResourceBundle;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.io.comparator.NameFileComparator;
 import org.apache.logging.log4j.LogManager;
@@ -37,10 +41,16 @@ import org.apache.logging.log4j.Logger;
 import org.astrojournal.configuration.Configuration;
 import org.astrojournal.configuration.ajconfiguration.AJPropertyConstants;
 import org.astrojournal.generator.Report;
+import org.astrojournal.generator.ReportSink;
 import org.astrojournal.utilities.filefilters.TSVRawReportFilter;
 
 /**
- * The parser for AstroJournal. It imports files containing the reports.
+ * The parser for AstroJournal. It imports files containing the reports. The
+ * reports are returned as a list or passed to a ReportSink as soon as they are
+ * parsed. If more than one thread is configured, files are parsed concurrently.
+ * Therefore, implementations must not store the state of a parse in their
+ * fields. If the import cache is enabled, only the files which are new or
+ * changed since the previous import are parsed.
  * 
  * @author Piero Dalle Pezze
  * @version $Rev$
@@ -60,6 +70,15 @@ public abstract class Importer {
     /** The resource bundle. */
     protected ResourceBundle resourceBundle = null;
 
+    /** The number of threads used for importing the files. */
+    protected int threads = 1;
+
+    /** True if the reports of unchanged files are read from a cache. */
+    protected boolean importCacheEnabled = false;
+
+    /** The import cache, kept in memory between imports. */
+    private ImportCache importCache = null;
+
     /**
      * Default constructor
      */
@@ -78,6 +97,10 @@ public abstract class Importer {
 		.getKey()));
 	setRawReportFolder(config
 		.getProperty(AJPropertyConstants.RAW_REPORTS_FOLDER.getKey()));
+	setThreads(Integer.parseInt(config
+		.getProperty(AJPropertyConstants.IMPORTER_THREADS.getKey())));
+	setImportCacheEnabled(Boolean.parseBoolean(config
+		.getProperty(AJPropertyConstants.IMPORT_CACHE.getKey())));
     }
 
     /**
@@ -86,6 +109,22 @@ public abstract class Importer {
      * @return the imported observations
      */
     public List<Report> importReports() {
+	List<Report> reports = new ArrayList<Report>();
+	importReports(newCollector(reports));
+	return reports;
+    }
+
+    /**
+     * Import the observations passing each of them to a sink as soon as the
+     * file containing it is parsed. The sink receives the reports in the same
+     * order of importReports() and it is always called by the current thread.
+     * The method finish() of the sink is not called.
+     * 
+     * @param sink
+     *            the sink receiving the imported observations
+     * @return true if the sink processed all the observations correctly
+     */
+    public boolean importReports(ReportSink sink) {
 	if (resourceBundle != null) {
 	    log.info("Importing observation files:");
 	}
@@ -94,9 +133,9 @@ public abstract class Importer {
 		.listFiles(new TSVRawReportFilter());
 	if (files == null) {
 	    log.error("Folder " + rawReportPath + " not found");
-	    return new ArrayList<Report>();
+	    return true;
 	}
-	return importReports(files);
+	return importReports(files, sink);
     }
 
     /**
@@ -108,14 +147,107 @@ public abstract class Importer {
      * @return a list of Report objects
      */
     public List<Report> importReports(File[] files) {
-	Arrays.sort(files, NameFileComparator.NAME_COMPARATOR);
 	List<Report> reports = new ArrayList<Report>();
-	for (File file : files) {
-	    reports.addAll(importReports(file));
-	}
+	importReports(files, newCollector(reports));
 	return reports;
     }
 
+    /**
+     * Imports the report data stored in multiple files passing each report to
+     * a sink.
+     * 
+     * @param files
+     *            An array of files to parse (either CSV or TSV file, separated
+     *            by TAB delimiter).
+     * @param sink
+     *            the sink receiving the imported reports
+     * @return true if the sink processed all the reports correctly
+     */
+    public boolean importReports(File[] files, ReportSink sink) {
+	Arrays.sort(files, NameFileComparator.NAME_COMPARATOR);
+	ImportCache cache = null;
+	if (importCacheEnabled) {
+	    File cacheFile = getImportCacheFile();
+	    if (importCache == null
+		    || !importCache.getCacheFile().equals(cacheFile)) {
+		importCache = new ImportCache(cacheFile, getName());
+		importCache.load();
+	    }
+	    cache = importCache;
+	}
+	boolean status = true;
+	if (threads > 1 && files.length > 1) {
+	    status = importReportsConcurrently(files, sink, cache);
+	} else if (cache == null) {
+	    for (File file : files) {
+		status = importReports(file, sink) && status;
+	    }
+	} else {
+	    for (File file : files) {
+		for (Report report : importReports(file, cache)) {
+		    status = sink.accept(report) && status;
+		}
+	    }
+	}
+	if (cache != null) {
+	    cache.save();
+	}
+	return status;
+    }
+
+    /**
+     * Imports the report data stored in multiple files using a pool of
+     * threads. The reports are passed to the sink following the order of the
+     * files, so that the result is the same as the one of a sequential
+     * import. The sink is called by the current thread only.
+     * 
+     * @param files
+     *            An array of sorted files to parse
+     * @param sink
+     *            the sink receiving the imported reports
+     * @param cache
+     *            the import cache or null
+     * @return true if the sink processed all the reports correctly
+     */
+    protected boolean importReportsConcurrently(File[] files,
+	    ReportSink sink, final ImportCache cache) {
+	boolean status = true;
+	List<Future<List<Report>>> results = new ArrayList<Future<List<Report>>>(
+		files.length);
+	ExecutorService executor = Executors.newFixedThreadPool(Math.min(
+		threads, files.length));
+	try {
+	    for (final File file : files) {
+		results.add(executor.submit(new Callable<List<Report>>() {
+		    @Override
+		    public List<Report> call() {
+			return importReports(file, cache);
+		    }
+		}));
+	    }
+	    for (int i = 0; i < files.length; i++) {
+		try {
+		    for (Report report : results.get(i).get()) {
+			status = sink.accept(report) && status;
+		    }
+		} catch (ExecutionException ex) {
+		    log.error("Error when importing the file "
+			    + files[i].getAbsolutePath());
+		    log.debug("Error when importing the file "
+			    + files[i].getAbsolutePath(), ex.getCause());
+		    status = false;
+		}
+	    }
+	} catch (InterruptedException ex) {
+	    log.debug(ex, ex);
+	    Thread.currentThread().interrupt();
+	    status = false;
+	} finally {
+	    executor.shutdownNow();
+	}
+	return status;
+    }
+
     /**
      * Imports the report data stored in a file.
      * 
@@ -123,25 +255,81 @@ public abstract class Importer {
      *            The file to parse
      * @return a list of Report objects
      */
-    public abstract List<Report> importReports(File file);
+    public List<Report> importReports(File file) {
+	List<Report> reports = new ArrayList<Report>();
+	importReports(file, newCollector(reports));
+	return reports;
+    }
+
+    /**
+     * Imports the report data stored in a file unless its reports are in the
+     * import cache. The imported reports are added to the cache.
+     * 
+     * @param file
+     *            The file to parse
+     * @param cache
+     *            the import cache or null
+     * @return a list of Report objects
+     */
+    protected List<Report> importReports(File file, ImportCache cache) {
+	if (cache == null) {
+	    return importReports(file);
+	}
+	List<Report> reports = null;
+	try {
+	    reports = cache.getReports(file);
+	} catch (IOException ex) {
+	    log.debug(ex, ex);
+	}
+	if (reports != null) {
+	    log.debug("Reports of " + file.getName() + " read from the cache");
+	    return reports;
+	}
+	// read size and time before the import, so that a file changing in
+	// the meantime is not cached.
+	long size = file.length();
+	long lastModified = file.lastModified();
+	reports = importReports(file);
+	try {
+	    cache.putReports(file, size, lastModified, reports);
+	} catch (IOException ex) {
+	    log.debug(ex, ex);
+	}
+	return reports;
+    }
+
+    /**
+     * Imports the report data stored in a file passing each report to a sink
+     * as soon as it is parsed.
+     * 
+     * @param file
+     *            The file to parse
+     * @param sink
+     *            the sink receiving the imported reports
+     * @return true if the sink processed all the reports correctly
+     */
+    public abstract boolean importReports(File file, ReportSink sink);
 
     /**
-     * Imports an report record
+     * Return a sink adding the reports to a list.
      * 
-     * @param reader
-     *            the buffered reader associated to the file
-     * @param report
-     *            the object containing the report to import
-     * @param line
-     *            the current line parsed in the file (the first line of the
-     *            record)
-     * @param delimiter
-     *            the field delimiter
-     * @throws IOException
-     *             if reader cannot read the report
+     * @param reports
+     *            the list of reports
+     * @return the sink
      */
-    protected abstract void importReport(BufferedReader reader, Report report,
-	    String line, String delimiter) throws IOException;
+    private static ReportSink newCollector(final List<Report> reports) {
+	return new ReportSink() {
+	    @Override
+	    public boolean accept(Report report) {
+		return reports.add(report);
+	    }
+
+	    @Override
+	    public boolean finish() {
+		return true;
+	    }
+	};
+    }
 
     /**
      * Return the importer name
@@ -199,6 +387,56 @@ public abstract class Importer {
 	this.rawReportFolder = rawReportFolder;
     }
 
+    /**
+     * Return the number of threads used for importing the files.
+     * 
+     * @return the threads
+     */
+    public int getThreads() {
+	return threads;
+    }
+
+    /**
+     * Set the number of threads used for importing the files. A value lower
+     * than 2 imports the files sequentially.
+     * 
+     * @param threads
+     *            the threads to set
+     */
+    public void setThreads(int threads) {
+	this.threads = threads;
+    }
+
+    /**
+     * Return true if the reports of unchanged files are read from a cache.
+     * 
+     * @return the importCacheEnabled
+     */
+    public boolean isImportCacheEnabled() {
+	return importCacheEnabled;
+    }
+
+    /**
+     * Set whether the reports of unchanged files are read from a cache.
+     * 
+     * @param importCacheEnabled
+     *            the importCacheEnabled to set
+     */
+    public void setImportCacheEnabled(boolean importCacheEnabled) {
+	this.importCacheEnabled = importCacheEnabled;
+    }
+
+    /**
+     * Return the file storing the import cache of this importer. This is a
+     * hidden file in the files location.
+     * 
+     * @return the import cache file
+     */
+    public File getImportCacheFile() {
+	return new File(filesLocation + File.separator + "."
+		+ this.getClass().getSimpleName() + ".cache");
+    }
+
     /**
      * Get the resource bundle.
      * 
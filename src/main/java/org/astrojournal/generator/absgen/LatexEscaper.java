@@ -0,0 +1,157 @@
+/*
+ * Copyright 2015 Piero Dalle Pezze
+ *
+ * This file is part of AstroJournal.
+ *
+ * AstroJournal is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+/*
+ * Changelog:
+ * - Piero Dalle Pezze: class creation.
+ */
+package org.astrojournal.generator.absgen;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+/**
+ * An escaper of the LaTeX special characters of a text, so that a text (e.g.
+ * the notes of a target) is printed as it is. A text is scanned once and the
+ * runs of characters which do not need escaping are written to the Writer as
+ * they are, so that nothing is allocated for a text without special
+ * characters.
+ * 
+ * @author Piero Dalle Pezze
+ * @version $Rev$
+ * @since 1.0
+ */
+public class LatexEscaper {
+
+    /** The escaped LaTeX special characters (up to '~'). */
+    private static final String[] ESCAPES = new String['~' + 1];
+
+    static {
+	ESCAPES['\\'] = "\\textbackslash{}";
+	ESCAPES['%'] = "\\%";
+	ESCAPES['&'] = "\\&";
+	ESCAPES['#'] = "\\#";
+	ESCAPES['$'] = "\\$";
+	ESCAPES['_'] = "\\_";
+	ESCAPES['{'] = "\\{";
+	ESCAPES['}'] = "\\}";
+	ESCAPES['~'] = "\\textasciitilde{}";
+	ESCAPES['^'] = "\\textasciicircum{}";
+    }
+
+    /**
+     * Private constructor.
+     */
+    private LatexEscaper() {
+    }
+
+    /**
+     * Write a text escaping its LaTeX special characters.
+     * 
+     * @param writer
+     *            the writer
+     * @param text
+     *            the text (null is not written)
+     * @throws IOException
+     */
+    public static void escape(Writer writer, CharSequence text)
+	    throws IOException {
+	if (text == null) {
+	    return;
+	}
+	int length = text.length();
+	// the beginning of the run of characters which are not escaped
+	int start = 0;
+	for (int i = 0; i < length; i++) {
+	    char c = text.charAt(i);
+	    if (c < ESCAPES.length && ESCAPES[c] != null) {
+		write(writer, text, start, i);
+		writer.write(ESCAPES[c]);
+		start = i + 1;
+	    }
+	}
+	write(writer, text, start, length);
+    }
+
+    /**
+     * Return a text escaping its LaTeX special characters.
+     * 
+     * @param text
+     *            the text
+     * @return the escaped text (text itself if this does not contain special
+     *         characters)
+     */
+    public static String escape(String text) {
+	if (text == null || !needsEscaping(text)) {
+	    return text;
+	}
+	StringWriter writer = new StringWriter(text.length() + 16);
+	try {
+	    escape(writer, text);
+	} catch (IOException e) {
+	    // a StringWriter does not throw IOException
+	}
+	return writer.toString();
+    }
+
+    /**
+     * Return true if a text contains LaTeX special characters.
+     * 
+     * @param text
+     *            the text
+     * @return true if the text needs escaping
+     */
+    public static boolean needsEscaping(CharSequence text) {
+	for (int i = 0; i < text.length(); i++) {
+	    char c = text.charAt(i);
+	    if (c < ESCAPES.length && ESCAPES[c] != null) {
+		return true;
+	    }
+	}
+	return false;
+    }
+
+    /**
+     * Write a part of a text.
+     * 
+     * @param writer
+     *            the writer
+     * @param text
+     *            the text
+     * @param start
+     *            the position of the first character
+     * @param end
+     *            the position after the last character
+     * @throws IOException
+     */
+    private static void write(Writer writer, CharSequence text, int start,
+	    int end) throws IOException {
+	if (start >= end) {
+	    return;
+	}
+	if (text instanceof String) {
+	    // no sub sequence is created
+	    writer.write((String) text, start, end - start);
+	} else {
+	    writer.append(text, start, end);
+	}
+    }
+
+}
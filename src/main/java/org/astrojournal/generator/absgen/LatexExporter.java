@@ -25,14 +25,29 @@ package org.astrojournal.generator.absgen;
 
 import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringWriter;
 import java.io.Writer;
+import java.net.URI;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.io.FilenameUtils;
-import org.apache.commons.lang3.SystemUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.astrojournal.configuration.Configuration;
@@ -59,12 +74,43 @@ public abstract class LatexExporter extends Exporter {
     /** The command to post-process the LaTeX code. */
     protected String command = "pdflatex -halt-on-error";
 
+    /** The option of the command for a pass which does not write the PDF. */
+    protected String draftModeOption = "-draftmode";
+
+    /** The maximum number of passes of the command. */
+    protected static final int MAX_LATEX_PASSES = 3;
+
+    /** The auxiliary files read by the next pass of the command. */
+    private static final String[] AUXILIARY_EXTENSIONS = new String[] {
+	    ".aux", ".toc" };
+
+    /**
+     * The extension of the file saved next to the PDF with the hashes of the
+     * files the PDF was compiled from.
+     */
+    public static final String INPUT_MANIFEST_EXTENSION = ".inputs";
+
+    /** The LaTeX temporary, log, and output files removed after compiling. */
+    private static final String LATEX_OUTPUT_GLOB = "*.{aux,toc,log,out}";
+
     /** If the LaTeX output should be printed. */
     protected boolean latexOutput = false;
 
+    /** If the report files are copied in the main file instead of included. */
+    protected boolean inlineReports = false;
+
+    /** The maximum time for compiling the main file in seconds. */
+    protected int latexTimeout = 1800;
+
     /** The LaTeX filename for storing the statistics. */
     protected String basicStatisticsFilename = "BasicStatistics.tex";
 
+    /** The compiled templates by file name. */
+    private Map<String, LatexTemplate> templates = new HashMap<String, LatexTemplate>();
+
+    /** The files included by the last generated main file. */
+    protected List<File> includedFiles = new ArrayList<File>();
+
     /**
      * Default constructor.
      */
@@ -77,6 +123,11 @@ public abstract class LatexExporter extends Exporter {
 	super.setConfiguration(config);
 	setLatexOutput(Boolean.parseBoolean(config
 		.getProperty(AJPropertyConstants.SHOW_LATEX_OUTPUT.getKey())));
+	setInlineReports(Boolean.parseBoolean(config
+		.getProperty(AJPropertyConstants.LATEX_INLINE_REPORTS
+			.getKey())));
+	setLatexTimeout(Integer.parseInt(config
+		.getProperty(AJPropertyConstants.LATEX_TIMEOUT.getKey())));
     }
 
     /**
@@ -98,6 +149,96 @@ public abstract class LatexExporter extends Exporter {
 	this.latexOutput = latexOutput;
     }
 
+    /**
+     * Get true if the report files are copied in the main file.
+     * 
+     * @return the inlineReports
+     */
+    public boolean isInlineReports() {
+	return inlineReports;
+    }
+
+    /**
+     * Set true to copy the report files in the main file instead of including
+     * them with \input. The main file is then compiled without opening one
+     * file per report. The report files are still written.
+     * 
+     * @param inlineReports
+     *            the inlineReports to set
+     */
+    public void setInlineReports(boolean inlineReports) {
+	this.inlineReports = inlineReports;
+    }
+
+    /**
+     * Get the maximum time for compiling the main file.
+     * 
+     * @return the latexTimeout in seconds
+     */
+    public int getLatexTimeout() {
+	return latexTimeout;
+    }
+
+    /**
+     * Set the maximum time for compiling the main file. The LaTeX command is
+     * destroyed if this runs longer.
+     * 
+     * @param latexTimeout
+     *            the latexTimeout to set in seconds
+     */
+    public void setLatexTimeout(int latexTimeout) {
+	this.latexTimeout = latexTimeout;
+    }
+
+    /**
+     * Return a compiled template. The template is read from the header /
+     * footer folder if this contains the template file, so that users can
+     * change the LaTeX code of the reports. Otherwise, or if the template file
+     * is not valid, the default template is used. The template is compiled
+     * once and can be used by any thread.
+     * 
+     * @param filename
+     *            the name of the template file in the header / footer folder
+     * @param defaultTemplate
+     *            the default template
+     * @param metaDataColumns
+     *            the meta data columns
+     * @param dataColumns
+     *            the data columns
+     * @return the template
+     */
+    protected synchronized <M extends Enum<M> & ReportColumn, D extends Enum<D> & ReportColumn> LatexTemplate getTemplate(
+	    String filename, String defaultTemplate, M[] metaDataColumns,
+	    D[] dataColumns) {
+	LatexTemplate template = templates.get(filename);
+	if (template != null) {
+	    return template;
+	}
+	File file = new File(filesLocation + File.separator
+		+ headerFooterFolder, filename);
+	if (file.isFile()) {
+	    try {
+		template = new LatexTemplate(new String(Files.readAllBytes(file
+			.toPath()), "utf-8"), metaDataColumns, dataColumns);
+		log.debug("Using the template " + file.getAbsolutePath());
+	    } catch (IOException ex) {
+		log.error("Error when reading the template "
+			+ file.getAbsolutePath());
+		log.debug(ex, ex);
+	    } catch (IllegalArgumentException ex) {
+		log.error("The template " + file.getAbsolutePath()
+			+ " is not valid: " + ex.getMessage());
+		log.debug(ex, ex);
+	    }
+	}
+	if (template == null) {
+	    template = new LatexTemplate(defaultTemplate, metaDataColumns,
+		    dataColumns);
+	}
+	templates.put(filename, template);
+	return template;
+    }
+
     /**
      * Generate the LaTeX document sorting the observation by decreasing date.
      */
@@ -107,6 +248,7 @@ public abstract class LatexExporter extends Exporter {
 		headerFooterFolder, headerFilename);
 	LatexFooter latexFooter = new LatexFooter(filesLocation,
 		headerFooterFolder, footerFilename);
+	includedFiles.clear();
 	Writer writer = null;
 	try {
 
@@ -140,6 +282,48 @@ public abstract class LatexExporter extends Exporter {
 	return true;
     }
 
+    /**
+     * Write a report file to the main file. This is included with \input or,
+     * if the reports are inlined, its content is copied.
+     * 
+     * @param writer
+     *            the Writer of the main file
+     * @param file
+     *            the report file
+     * @throws IOException
+     *             if the report file cannot be read
+     */
+    protected void writeInput(Writer writer, File file) throws IOException {
+	includedFiles.add(file);
+	String name = file.getName();
+	if (!inlineReports) {
+	    // include the file removing the extension .tex
+	    writer.write("\\input{" + reportFolder + "/"
+		    + name.replaceFirst("[.][^.]+$", "") + "}\n");
+	    return;
+	}
+	writer.write("% " + reportFolder + "/" + name + "\n");
+	Reader reader = new InputStreamReader(new FileInputStream(file),
+		"utf-8");
+	try {
+	    char[] buffer = new char[8192];
+	    char last = '\n';
+	    int n;
+	    while ((n = reader.read(buffer)) >= 0) {
+		if (n > 0) {
+		    writer.write(buffer, 0, n);
+		    last = buffer[n - 1];
+		}
+	    }
+	    // a comment at the end of the file must not hide the next line
+	    if (last != '\n') {
+		writer.write("\n");
+	    }
+	} finally {
+	    reader.close();
+	}
+    }
+
     /**
      * This method contains the LaTeX code for the main file.
      * 
@@ -174,10 +358,8 @@ public abstract class LatexExporter extends Exporter {
     public void writeSectionStatistics(Writer writer) throws Exception {
 	writer.write("\\clearpage\n");
 	writer.write("\\section{Basic Statistics}\n");
-	// include the file removing the extension .tex
 	writer.write("\\begin{center} \n");
-	writer.write("\\input{" + reportFolder + "/"
-		+ basicStatisticsFilename.replaceFirst("[.][^.]+$", "") + "}\n");
+	writeInput(writer, getReportFile(basicStatisticsFilename));
 	writer.write("\\end{center} \n");
     }
 
@@ -190,89 +372,279 @@ public abstract class LatexExporter extends Exporter {
      * @return true if the file was written correctly
      */
     public boolean writeLatexStatistics(BasicStatistics basicStatistics) {
-	Writer writer = null;
+	StringWriter writer = new StringWriter();
 	try {
-	    writer = new BufferedWriter(new OutputStreamWriter(
-		    new FileOutputStream(new File(filesLocation
-			    + File.separator + reportFolder,
-			    basicStatisticsFilename)), "utf-8"));
 	    LatexStatistics latexStatistics = new LatexStatistics();
 	    latexStatistics.writeAll(writer, basicStatistics);
-	} catch (IOException ex) {
-	    log.error("Error when opening the file " + filesLocation
-		    + File.separator + reportFolder + File.separator
-		    + basicStatisticsFilename);
-	    log.debug("Error when opening the file " + filesLocation
-		    + File.separator + reportFolder + File.separator
-		    + basicStatisticsFilename, ex);
-	    return false;
 	} catch (Exception ex) {
 	    log.debug(ex);
 	    log.error(ex, ex);
 	    return false;
-	} finally {
-	    try {
-		if (writer != null)
-		    writer.close();
-	    } catch (IOException e) {
-	    }
 	}
-	return true;
+	return writeReportFile(basicStatisticsFilename, writer.toString());
     }
 
+    /**
+     * Compile the main file.
+     */
     @Override
     public void postProcessing() throws IOException {
-	// The pdflatex command must be called two times in order to
-	// generate the list of contents correctly.
-	String commandOutput;
+	compile(reportFilename);
+    }
+
+    /**
+     * Compile a main file. The output of the LaTeX command is collected and
+     * logged at once, so that this does not mix with the output of the main
+     * files compiled in parallel. The first pass of the command runs in draft
+     * mode, as its PDF would be replaced anyway. The next passes write the PDF
+     * and run until the auxiliary files (e.g. the table of contents) do not
+     * change, up to MAX_LATEX_PASSES passes. The main file is not compiled if
+     * the PDF was compiled from the same input files.
+     * 
+     * @param filename
+     *            the name of the main file in the files location
+     * @throws IOException
+     *             if the main file cannot be compiled
+     */
+    protected void compile(String filename) throws IOException {
+	String name = FilenameUtils.removeExtension(filename);
+	File pdf = new File(filesLocation, name + ".pdf");
+	File inputManifestFile = new File(filesLocation, name
+		+ INPUT_MANIFEST_EXTENSION);
+	String inputManifest = getInputManifest(filename);
+	if (pdf.isFile()
+		&& inputManifestFile.isFile()
+		&& inputManifest.equals(new String(Files
+			.readAllBytes(inputManifestFile.toPath()), "utf-8"))) {
+	    log.debug(filename
+		    + " is not compiled as its input files did not change");
+	    if (resourceBundle != null) {
+		log.info("\t" + pdf.getPath());
+	    }
+	    return;
+	}
+	// the manifest is only saved once the PDF is compiled, so that a failed
+	// compilation is repeated. The last PDF is kept meanwhile.
+	inputManifestFile.delete();
+
+	StringBuilder output = new StringBuilder();
+	long deadline = System.currentTimeMillis() + latexTimeout * 1000L;
+	boolean showOutput = !quiet && latexOutput && resourceBundle != null;
 	RunExternalCommand extCommand = new RunExternalCommand(filesLocation,
 		resourceBundle);
-	commandOutput = extCommand.runCommand(command + " " + reportFilename);
-	if (!quiet && latexOutput && resourceBundle != null) {
-	    log.info(commandOutput + "\n");
+	// The first pass generates the auxiliary files (e.g. the list of
+	// contents).
+	extCommand.setTimeout(Math.max(1,
+		deadline - System.currentTimeMillis()));
+	extCommand.setOutputCollected(showOutput);
+	String commandOutput = extCommand.runCommand(command + " "
+		+ draftModeOption + " " + filename);
+	if (showOutput) {
+	    output.append(commandOutput).append("\n");
 	}
+	extCommand.setOutputCollected(false);
+	boolean status = extCommand.getExitValue() == 0;
 
-	// A second execution is required for building the document index.
-	commandOutput = extCommand.runCommand(command + " " + reportFilename);
-	// if (!quiet && latexOutput && resourceBundle != null) {
-	// log.info(commandOutput + "\n");
-	// }
+	// The next passes use the auxiliary files of the previous pass. Once
+	// these do not change, the document is complete.
+	byte[] auxiliaryHash = hashAuxiliaryFiles(name);
+	for (int pass = 2; status && pass <= MAX_LATEX_PASSES; pass++) {
+	    extCommand.setTimeout(Math.max(1,
+		    deadline - System.currentTimeMillis()));
+	    extCommand.runCommand(command + " " + filename);
+	    status = extCommand.getExitValue() == 0;
+	    byte[] previousHash = auxiliaryHash;
+	    auxiliaryHash = hashAuxiliaryFiles(name);
+	    if (Arrays.equals(previousHash, auxiliaryHash)) {
+		break;
+	    }
+	    log.debug(filename + ": the auxiliary files changed in pass "
+		    + pass);
+	}
+	status = status && pdf.isFile();
 
 	// Add this at the end to avoid mixing with the latex command
 	// output.
 	if (resourceBundle != null) {
-	    String pdfFile = filesLocation + File.separator
-		    + FilenameUtils.removeExtension(reportFilename) + ".pdf";
-	    if (new File(pdfFile).exists())
-		log.info("\t" + pdfFile);
+	    if (status)
+		log.info(output.append("\t").append(pdf.getPath()));
 	    else {
-		log.error("\t" + pdfFile + " FAILED");
-		throw new FileNotFoundException("Error: File not created!");
+		if (output.length() > 0) {
+		    log.info(output);
+		}
+		log.error("\t" + pdf.getPath() + " FAILED");
+	    }
+	}
+	if (!status) {
+	    throw new FileNotFoundException("Error: " + filename
+		    + " was not compiled!");
+	}
+	Files.write(inputManifestFile.toPath(), inputManifest.getBytes("utf-8"));
+	cleanPDFLatexOutput(filename);
+    }
+
+    /**
+     * Return the manifest of the input files of a main file. This lists the
+     * content hash of the main file, of the files it includes and of the files
+     * of the header / footer folder.
+     * 
+     * @param filename
+     *            the name of the main file in the files location
+     * @return the manifest
+     * @throws IOException
+     *             if the input files cannot be read
+     */
+    protected String getInputManifest(String filename) throws IOException {
+	StringBuilder manifest = new StringBuilder();
+	manifest.append(command).append('\n');
+	appendHash(manifest, new File(filesLocation, filename), filename);
+	List<File> files = getInputFiles(filename);
+	files.addAll(listFiles(headerFooterFolder));
+	URI location = new File(filesLocation).toURI();
+	for (File file : files) {
+	    if (!file.isDirectory()
+		    && !file.getName().startsWith(
+			    OutputManifest.MANIFEST_FILENAME)) {
+		appendHash(manifest, file,
+			location.relativize(file.toURI()).getPath());
+	    }
+	}
+	return manifest.toString();
+    }
+
+    /**
+     * Return the files included by a main file. By default, these are the
+     * files included by the last generated main file or, if this was not
+     * generated, the files of the report folder.
+     * 
+     * @param filename
+     *            the name of the main file in the files location
+     * @return the files
+     */
+    protected List<File> getInputFiles(String filename) {
+	if (includedFiles.isEmpty()) {
+	    return listFiles(reportFolder);
+	}
+	return new ArrayList<File>(includedFiles);
+    }
+
+    /**
+     * Return the files of a folder sorted by name.
+     * 
+     * @param folder
+     *            the folder in the files location
+     * @return the files or an empty list if the folder cannot be read
+     */
+    private List<File> listFiles(String folder) {
+	List<File> files = new ArrayList<File>();
+	File[] folderFiles = new File(filesLocation, folder).listFiles();
+	if (folderFiles != null) {
+	    Arrays.sort(folderFiles);
+	    files.addAll(Arrays.asList(folderFiles));
+	}
+	return files;
+    }
+
+    /**
+     * Append the content hash of a file to a manifest.
+     * 
+     * @param manifest
+     *            the manifest
+     * @param file
+     *            the file
+     * @param name
+     *            the name of the file in the manifest
+     * @throws IOException
+     *             if the file cannot be read
+     */
+    private static void appendHash(StringBuilder manifest, File file,
+	    String name) throws IOException {
+	if (!file.isFile()) {
+	    manifest.append("-  ").append(name).append('\n');
+	    return;
+	}
+	byte[] hash = newDigest().digest(Files.readAllBytes(file.toPath()));
+	for (byte b : hash) {
+	    manifest.append(Character.forDigit((b >> 4) & 0xf, 16)).append(
+		    Character.forDigit(b & 0xf, 16));
+	}
+	manifest.append("  ").append(name).append('\n');
+    }
+
+    /**
+     * Return a new digest for the content hash of the files.
+     * 
+     * @return the digest
+     * @throws IOException
+     *             if the hash algorithm is not available
+     */
+    private static MessageDigest newDigest() throws IOException {
+	try {
+	    return MessageDigest.getInstance("SHA-1");
+	} catch (NoSuchAlgorithmException ex) {
+	    throw new IOException(ex);
+	}
+    }
+
+    /**
+     * Return the content hash of the auxiliary files of a main file.
+     * 
+     * @param name
+     *            the name of the main file without extension
+     * @return the hash
+     * @throws IOException
+     *             if the auxiliary files cannot be read
+     */
+    private byte[] hashAuxiliaryFiles(String name) throws IOException {
+	MessageDigest digest = newDigest();
+	for (String extension : AUXILIARY_EXTENSIONS) {
+	    File file = new File(filesLocation, name + extension);
+	    // a missing file differs from an empty file
+	    if (file.isFile()) {
+		digest.update((byte) 1);
+		digest.update(Files.readAllBytes(file.toPath()));
+	    } else {
+		digest.update((byte) 0);
 	    }
 	}
-	cleanPDFLatexOutput();
+	return digest.digest();
     }
 
     /**
-     * Clean folders from LaTeX temporary, log, and output files
+     * Clean folders from LaTeX temporary, log, and output files of the main
+     * file. The files of the other main files are not removed as these can be
+     * compiled at the same time. The files are deleted before this method
+     * returns.
      * 
      * @throws IOException
      *             if cleaning failed.
      */
     public void cleanPDFLatexOutput() throws IOException {
-	if (SystemUtils.IS_OS_WINDOWS) {
-	    RunExternalCommand extCommand = new RunExternalCommand(
-		    filesLocation, resourceBundle);
-	    extCommand.runCommand("cmd /c del /s *.aux *.toc *.log *.out");
-	} else {
-	    Runtime.getRuntime().exec(
-		    new String[] {
-			    "/bin/sh",
-			    "-c",
-			    "cd " + filesLocation
-				    + " && rm -rf *.aux *.toc *.log *.out"
-				    + " && cd -" });
-	}
+	cleanPDFLatexOutput(reportFilename);
+    }
 
+    /**
+     * Clean folders from LaTeX temporary, log, and output files of a main
+     * file. The files are deleted before this method returns.
+     * 
+     * @param filename
+     *            the name of the main file in the files location
+     * @throws IOException
+     *             if cleaning failed.
+     */
+    public void cleanPDFLatexOutput(String filename) throws IOException {
+	String name = FilenameUtils.removeExtension(filename);
+	DirectoryStream<Path> files = Files.newDirectoryStream(
+		Paths.get(filesLocation), LATEX_OUTPUT_GLOB);
+	try {
+	    for (Path file : files) {
+		if (name.equals(FilenameUtils.removeExtension(file
+			.getFileName().toString()))) {
+		    Files.deleteIfExists(file);
+		}
+	    }
+	} finally {
+	    files.close();
+	}
     }
 }
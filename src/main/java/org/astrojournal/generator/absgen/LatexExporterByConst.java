@@ -23,23 +23,16 @@
  */
 package org.astrojournal.generator.absgen;
 
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
 import org.astrojournal.configuration.Configuration;
 import org.astrojournal.configuration.ajconfiguration.AJPropertyConstants;
 import org.astrojournal.generator.Report;
+import org.astrojournal.generator.absgen.ExportManifest.ExportedFile;
 
 /**
  * A generic latex Exporter.
@@ -50,10 +43,6 @@ import org.astrojournal.generator.Report;
  */
 public abstract class LatexExporterByConst extends LatexExporter {
 
-    /** The log associated to this class */
-    private static Logger log = LogManager
-	    .getLogger(LatexExporterByConst.class);
-
     protected HashMap<String, HashSet<String>> constellations = new HashMap<String, HashSet<String>>();
 
     /** A comparator for sorting items */
@@ -96,8 +85,8 @@ public abstract class LatexExporterByConst extends LatexExporter {
     @Override
     public boolean exportReports(List<Report> reports) {
 	if (resourceBundle != null) {
-	    log.info("");
-	    log.info("Exporting reports by constellation:");
+	    logInfo("");
+	    logInfo("Exporting reports by constellation:");
 	}
 	boolean result = true;
 	if (constellations.size() == 0) {
@@ -105,47 +94,28 @@ public abstract class LatexExporterByConst extends LatexExporter {
 	}
 	String[] keys = constellations.keySet().toArray(new String[0]);
 	for (int i = 0; i < keys.length; i++) {
-	    Writer list = null;
 	    String filenameOut = keys[i];
-	    try {
-		list = new BufferedWriter(new OutputStreamWriter(
-			new FileOutputStream(new File(filesLocation
-				+ File.separator + reportFolder, "const_"
-				+ filenameOut + ".tex")), "utf-8"));
-		String[] targets = constellations.get(keys[i]).toArray(
-			new String[0]);
-		// sort the targets here, before writing them in the file
-		Arrays.sort(targets, itemComparator);
-		StringBuilder listOfTargets = new StringBuilder();
-		for (int j = 0; j < targets.length; j++) {
-		    if (j == targets.length - 1)
-			listOfTargets.append(targets[j]);
-		    else
-			listOfTargets.append(targets[j] + ", ");
-		}
-		list.write(listOfTargets.toString() + "\n\n");
+	    String[] targets = constellations.get(keys[i]).toArray(
+		    new String[0]);
+	    // sort the targets here, before writing them in the file
+	    Arrays.sort(targets, itemComparator);
+	    StringBuilder listOfTargets = new StringBuilder();
+	    for (int j = 0; j < targets.length; j++) {
+		if (j == targets.length - 1)
+		    listOfTargets.append(LatexEscaper.escape(targets[j]));
+		else
+		    listOfTargets.append(LatexEscaper.escape(targets[j]))
+			    .append(", ");
+	    }
+	    listOfTargets.append("\n\n");
+	    if (writeReportFile(new ExportedFile(getReportFile("const_"
+		    + filenameOut + ".tex"), Report.INVALID_DATE_KEY, null,
+		    filenameOut), listOfTargets.toString())) {
 		if (resourceBundle != null) {
-		    log.info("\tExported constellation " + filenameOut);
+		    logInfo("\tExported constellation " + filenameOut);
 		}
-	    } catch (IOException ex) {
-		log.error("Error when opening the file " + filesLocation
-			+ File.separator + filenameOut);
-		log.debug("Error when opening the file " + filesLocation
-			+ File.separator + filenameOut, ex);
+	    } else {
 		result = false;
-	    } catch (Exception ex) {
-		log.debug(ex);
-		log.error(ex, ex);
-		result = false;
-	    } finally {
-		try {
-		    if (list != null)
-			list.close();
-		} catch (Exception ex) {
-		    log.debug(ex);
-		    log.error(ex, ex);
-		    result = false;
-		}
 	    }
 	}
 	return result;
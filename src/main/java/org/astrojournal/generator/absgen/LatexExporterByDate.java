@@ -23,14 +23,8 @@
  */
 package org.astrojournal.generator.absgen;
 
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.OutputStreamWriter;
+import java.io.StringWriter;
 import java.io.Writer;
-import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 
 import org.apache.logging.log4j.LogManager;
@@ -38,11 +32,12 @@ import org.apache.logging.log4j.Logger;
 import org.astrojournal.configuration.Configuration;
 import org.astrojournal.configuration.ajconfiguration.AJPropertyConstants;
 import org.astrojournal.generator.Report;
+import org.astrojournal.generator.ReportSink;
+import org.astrojournal.generator.absgen.ExportManifest.ExportedFile;
 import org.astrojournal.generator.basicgen.BasicMetaDataCols;
 import org.astrojournal.generator.headfoot.LatexFooter;
 import org.astrojournal.generator.headfoot.LatexHeader;
 import org.astrojournal.generator.statistics.BasicStatistics;
-import org.astrojournal.utilities.filefilters.LaTeXFilter;
 
 /**
  * A generic latex Exporter with entries by date.
@@ -79,68 +74,95 @@ public abstract class LatexExporterByDate extends LatexExporter {
     @Override
     public boolean exportReports(List<Report> reports) {
 	if (resourceBundle != null) {
-	    log.info("");
-	    log.info("Exporting reports by date:");
+	    logInfo("");
+	    logInfo("Exporting reports by date:");
 	}
 	Report report = null;
-	String[] metaData = null;
 	int nReports = reports.size();
 	boolean result = true;
 
+	// the reports are independent and their results are logged in order
+	boolean[] results = exportEachReport(reports);
 	for (int i = 0; i < nReports; i++) {
 	    report = reports.get(i);
-	    metaData = report.getMetaData();
-	    String date = metaData[BasicMetaDataCols.DATE_NAME.ordinal()];
-	    log.debug("Report " + date);
-
-	    String filenameOut = date;
-	    filenameOut = filenameOut.substring(6, 10)
-		    + filenameOut.substring(3, 5) + filenameOut.substring(0, 2);
-	    // Add an additional char if this is present. This is the case in
-	    // which more than one observation per day is done.
-	    if (date.length() == 11) {
-		filenameOut = filenameOut + date.charAt(10);
+	    if (results[i]) {
+		if (resourceBundle != null) {
+		    logInfo("\tExported report "
+			    + report.getMetaData()[BasicMetaDataCols.DATE_NAME
+				    .ordinal()] + " ("
+			    + report.getDataRowNumber() + " targets)");
+		}
+	    } else {
+		result = false;
 	    }
+	}
 
-	    Writer writer = null;
-	    try {
-		writer = new BufferedWriter(
-			new OutputStreamWriter(
-				new FileOutputStream(new File(
-					filesLocation + File.separator
-						+ reportFolder,
-					filenameOut + ".tex")),
-				"utf-8"));
+	return result;
+    }
 
-		writeLatexContent(writer, report);
+    /**
+     * Return a sink exporting each report as soon as it is imported. The
+     * reports by date are independent, so these do not need to be sorted.
+     * 
+     * @return the sink
+     */
+    @Override
+    public ReportSink getReportSink() {
+	return new ReportSink() {
+	    private int nReports = 0;
+
+	    @Override
+	    public boolean accept(Report report) {
+		nReports++;
+		return exportReport(report);
+	    }
 
+	    @Override
+	    public boolean finish() {
 		if (resourceBundle != null) {
-		    log.info("\tExported report " + date + " ("
-			    + report.getDataRowNumber() + " targets)");
-		}
-	    } catch (IOException ex) {
-		log.error("Error when opening the file " + filesLocation
-			+ File.separator + filenameOut);
-		log.debug("Error when opening the file " + filesLocation
-			+ File.separator + filenameOut, ex);
-		result = false;
-	    } catch (Exception ex) {
-		log.error(ex);
-		log.debug(ex, ex);
-		result = false;
-	    } finally {
-		try {
-		    if (writer != null)
-			writer.close();
-		} catch (Exception ex) {
-		    log.error(ex);
-		    log.debug(ex, ex);
-		    return false;
+		    logInfo("");
+		    logInfo("Exporting reports by date:");
+		    logInfo("\tExported " + nReports + " reports");
 		}
+		return true;
 	    }
+	};
+    }
+
+    /**
+     * Export a report to its own file.
+     * 
+     * @param report
+     *            the report to export
+     * @return true if the report was exported
+     */
+    @Override
+    protected boolean exportReport(Report report) {
+	String[] metaData = report.getMetaData();
+	String date = metaData[BasicMetaDataCols.DATE_NAME.ordinal()];
+	log.debug("Report " + date);
+
+	String filenameOut = date;
+	filenameOut = filenameOut.substring(6, 10)
+		+ filenameOut.substring(3, 5) + filenameOut.substring(0, 2);
+	// Add an additional char if this is present. This is the case in
+	// which more than one observation per day is done.
+	if (date.length() == 11) {
+	    filenameOut = filenameOut + date.charAt(10);
 	}
 
-	return result;
+	// render the report in memory, so that an unchanged file is not
+	// written again in incremental export
+	StringWriter writer = new StringWriter();
+	try {
+	    writeLatexContent(writer, report);
+	} catch (Exception ex) {
+	    log.error(ex);
+	    log.debug(ex, ex);
+	    return false;
+	}
+	return writeReportFile(new ExportedFile(getReportFile(filenameOut
+		+ ".tex"), report.getDateKey(), null, null), writer.toString());
     }
 
     @Override
@@ -151,41 +173,24 @@ public abstract class LatexExporterByDate extends LatexExporter {
 	// write the Latex Header
 	writer.write(latexHeader.getHeader());
 
-	// write target type statistics
-	writeSectionStatistics(writer);
+	// write target type statistics (before including them)
 	writeLatexStatistics(basicStatistics);
+	writeSectionStatistics(writer);
 
 	// write the Latex Body
 	// Write the observation reports
 	writer.write("\\section{Observation reports}\n");
 	writer.write("\\vspace{4 mm}\n");
 	writer.write("\\hspace{4 mm}\n");
-	// parse each file in the latex obs folder (sorted by observation
-	// increasing)
-	// If this pathname does not denote a directory, then listFiles()
-	// returns null.
-	File[] files = new File(filesLocation + File.separator + reportFolder)
-		.listFiles(new LaTeXFilter());
-	if (files == null) {
-	    throw new Exception("Folder " + filesLocation + File.separator
-		    + reportFolder + " not found");
-	}
-	Arrays.sort(files, Collections.reverseOrder());
+	// include each exported report (sorted by observation decreasing)
 	String currentYear = "";
-	for (File file : files) {
-	    if (file.isFile()) {
-		if (file.getName().equals("BasicStatistics.tex")) {
-		    continue;
-		}
-		if (!currentYear.equals(file.getName().substring(0, 4))) {
-		    // collect observations by year
-		    currentYear = file.getName().substring(0, 4);
-		    writer.write("\\subsection{" + currentYear + "}\n");
-		}
-		// include the file removing the extension .tex
-		writer.write("\\input{" + reportFolder + "/"
-			+ file.getName().replaceFirst("[.][^.]+$", "") + "}\n");
+	for (ExportedFile file : getExportedFiles(ExportedFile.BY_DATE)) {
+	    if (!currentYear.equals(file.getYear())) {
+		// collect observations by year
+		currentYear = file.getYear();
+		writer.write("\\subsection{" + currentYear + "}\n");
 	    }
+	    writeInput(writer, file.getPath());
 	}
 
 	// write the Latex Footer
@@ -28,26 +28,36 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
+import java.io.StringWriter;
 import java.io.Writer;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import org.apache.commons.io.FilenameUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.astrojournal.configuration.Configuration;
 import org.astrojournal.configuration.ajconfiguration.AJPropertyConstants;
 import org.astrojournal.generator.Report;
+import org.astrojournal.generator.absgen.ExportManifest.ExportedFile;
 import org.astrojournal.generator.headfoot.LatexFooter;
 import org.astrojournal.generator.headfoot.LatexHeader;
 import org.astrojournal.generator.minigen.MiniDataCols;
 import org.astrojournal.generator.statistics.BasicStatistics;
-import org.astrojournal.utilities.filefilters.LaTeXFilter;
 
 /**
- * A generic latex Exporter with elements sorted by target.
+ * A generic latex Exporter with elements sorted by target. The journal can be
+ * split by catalogue: each catalogue section is then a document of its own,
+ * the documents are compiled in parallel and the main file includes their PDF
+ * pages with the package pdfpages.
  * 
  * @author Piero Dalle Pezze
  * @version $Rev$
@@ -59,22 +69,23 @@ public abstract class LatexExporterByTarget extends LatexExporter {
     private static Logger log = LogManager
 	    .getLogger(LatexExporterByTarget.class);
 
-    /** A cache of the visited targets. */
-    protected HashSet<String> processedTargetCache = new HashSet<String>(1000);
+    /** The classifier of the targets by catalogue. */
+    protected CatalogueClassifier catalogueClassifier = new CatalogueClassifier();
 
-    /** A comparator for sorting catalogues */
-    protected Comparator<String> catalogueItemComparator = new Comparator<String>() {
-	@Override
-	public int compare(String o1, String o2) {
-	    return extractInt(o1) - extractInt(o2);
-	}
+    /** The LaTeX command separating the preamble from the document. */
+    private static final String BEGIN_DOCUMENT = "\\begin{document}";
 
-	int extractInt(String s) {
-	    String num = s.replaceAll("\\D", "");
-	    // return 0 if no digits found
-	    return num.isEmpty() ? 0 : Integer.parseInt(num);
-	}
-    };
+    /** True if the journal is compiled as one document per catalogue. */
+    protected boolean splitByCatalogue = false;
+
+    /** The maximum number of catalogue documents compiled at the same time. */
+    protected int postProcessingThreads = 1;
+
+    /** The names of the catalogue documents of the split journal. */
+    private List<String> partFilenames = new ArrayList<String>();
+
+    /** The files included by each document of the split journal. */
+    private Map<String, List<File>> splitInputFiles = new HashMap<String, List<File>>();
 
     /**
      * Default constructor.
@@ -98,28 +109,193 @@ public abstract class LatexExporterByTarget extends LatexExporter {
 	setFooterFilename(config
 		.getProperty(AJPropertyConstants.LATEX_FOOTER_BY_TARGET_FILENAME
 			.getKey()));
+	setSplitByCatalogue(Boolean.parseBoolean(config
+		.getProperty(AJPropertyConstants.LATEX_SPLIT_BY_CATALOGUE
+			.getKey())));
+	setPostProcessingThreads(Integer.parseInt(config
+		.getProperty(AJPropertyConstants.POST_PROCESSING_THREADS
+			.getKey())));
+    }
+
+    /**
+     * Get true if the journal is compiled as one document per catalogue.
+     * 
+     * @return the splitByCatalogue
+     */
+    public boolean isSplitByCatalogue() {
+	return splitByCatalogue;
+    }
+
+    /**
+     * Set true to compile the journal as one document per catalogue. The
+     * documents are compiled in parallel and merged by the main file.
+     * 
+     * @param splitByCatalogue
+     *            the splitByCatalogue to set
+     */
+    public void setSplitByCatalogue(boolean splitByCatalogue) {
+	this.splitByCatalogue = splitByCatalogue;
+    }
+
+    /**
+     * Get the maximum number of catalogue documents compiled at the same
+     * time.
+     * 
+     * @return the postProcessingThreads
+     */
+    public int getPostProcessingThreads() {
+	return postProcessingThreads;
+    }
+
+    /**
+     * Set the maximum number of catalogue documents compiled at the same time
+     * (1 for compiling them one after another). This is the number of threads
+     * for compiling the journals, so that the split journal does not run more
+     * LaTeX commands than the journals compiled in parallel would.
+     * 
+     * @param postProcessingThreads
+     *            the postProcessingThreads to set
+     */
+    public void setPostProcessingThreads(int postProcessingThreads) {
+	this.postProcessingThreads = postProcessingThreads;
     }
 
     @Override
     public boolean generateJournal(BasicStatistics basicStatistics) {
-	LatexHeader latexHeader = new LatexHeader(filesLocation,
-		headerFooterFolder, headerFilename);
-	LatexFooter latexFooter = new LatexFooter(filesLocation,
-		headerFooterFolder, footerFilename);
+	if (splitByCatalogue) {
+	    LatexHeader latexHeader = new LatexHeader(filesLocation,
+		    headerFooterFolder, headerFilename);
+	    LatexFooter latexFooter = new LatexFooter(filesLocation,
+		    headerFooterFolder, footerFilename);
+	    includedFiles.clear();
+	    return generateSplitJournal(latexHeader, latexFooter,
+		    basicStatistics);
+	}
+	return super.generateJournal(basicStatistics);
+    }
+
+    @Override
+    public void writeLatexMain(Writer writer, LatexHeader latexHeader,
+	    LatexFooter latexFooter, BasicStatistics basicStatistics)
+	    throws Exception {
+	// write the Latex Header
+	writer.write(latexHeader.getHeader());
+
+	// write target type statistics (before including them)
+	writeLatexStatistics(basicStatistics);
+	writeSectionStatistics(writer);
+
+	// write the Latex Body
+	// Write the observation reports
+	// include each exported target (sorted by catalogue)
+	String type = "";
+	for (ExportedFile file : getExportedFiles(ExportedFile.BY_TARGET)) {
+	    type = writeSectionName(writer, type, file.getCatalogue());
+	    writeInput(writer, file.getPath());
+	    writer.write("\\vspace{4 mm}\n");
+	}
+	// write the Latex Footer
+	writer.write(latexFooter.getFooter());
+    }
+
+    /**
+     * Generate the journal split by catalogue. Each catalogue section is
+     * written to a document of its own, with the preamble of the header. The
+     * main file contains the header, the statistics and the pages of the PDF
+     * of each catalogue document, which are added to the table of contents.
+     * The catalogue documents of a previous journal with more catalogues are
+     * deleted.
+     * 
+     * @param latexHeader
+     *            the header
+     * @param latexFooter
+     *            the footer
+     * @param basicStatistics
+     *            the statistics to write
+     * @return true if the journal was generated
+     */
+    protected boolean generateSplitJournal(LatexHeader latexHeader,
+	    LatexFooter latexFooter, BasicStatistics basicStatistics) {
+	partFilenames.clear();
+	splitInputFiles.clear();
+	String header = latexHeader.getHeader();
+	int beginDocument = header.indexOf(BEGIN_DOCUMENT);
+	if (beginDocument < 0) {
+	    log.error("The LaTeX header does not contain " + BEGIN_DOCUMENT
+		    + ". The journal cannot be split by catalogue.");
+	    return false;
+	}
+	String preamble = header.substring(0, beginDocument);
+	String name = FilenameUtils.removeExtension(reportFilename);
+
+	// write the statistics before the exported files are listed, as
+	// this finishes the export
+	writeLatexStatistics(basicStatistics);
+
+	// the target files of each catalogue, sorted by catalogue
+	Map<String, List<File>> catalogues = new LinkedHashMap<String, List<File>>();
+	for (ExportedFile file : getExportedFiles(ExportedFile.BY_TARGET)) {
+	    List<File> files = catalogues.get(file.getCatalogue());
+	    if (files == null) {
+		files = new ArrayList<File>();
+		catalogues.put(file.getCatalogue(), files);
+	    }
+	    files.add(file.getPath());
+	}
+
+	List<File> mainInputFiles = new ArrayList<File>();
 	Writer writer = null;
+	String filename = reportFilename;
 	try {
 	    writer = new BufferedWriter(new OutputStreamWriter(
 		    new FileOutputStream(filesLocation + File.separator
 			    + reportFilename), "utf-8"));
-	    writeLatexMain(writer, latexHeader, latexFooter, basicStatistics);
+	    writer.write(preamble);
+	    writer.write("\\usepackage{pdfpages}\n");
+	    writer.write(header.substring(beginDocument));
+
+	    writeSectionStatistics(writer);
+	    mainInputFiles.add(getReportFile(basicStatisticsFilename));
+
+	    int part = 0;
+	    for (Map.Entry<String, List<File>> catalogue : catalogues
+		    .entrySet()) {
+		part++;
+		filename = getPartFilename(name, part);
+		writePart(filename, preamble, latexFooter, part,
+			catalogue.getKey(), catalogue.getValue());
+		partFilenames.add(filename);
+		splitInputFiles.put(filename, catalogue.getValue());
+		// the pages use the page style of the main file and the section
+		// follows the statistics section in the table of contents
+		String pdf = FilenameUtils.removeExtension(filename) + ".pdf";
+		writer.write("\\includepdf[pages=-,pagecommand={},"
+			+ "addtotoc={1,section,1,{\\protect\\numberline{"
+			+ (part + 1) + "}"
+			+ LatexEscaper.escape(catalogue.getKey())
+			+ "},catalogue:" + part + "}]{" + pdf + "}\n");
+		mainInputFiles.add(new File(filesLocation, pdf));
+	    }
+	    splitInputFiles.put(reportFilename, mainInputFiles);
+	    writer.write(latexFooter.getFooter());
+
+	    // remove the catalogue documents which are not in the journal
+	    for (part++; new File(filesLocation, getPartFilename(name, part))
+		    .exists(); part++) {
+		String partName = FilenameUtils.removeExtension(getPartFilename(
+			name, part));
+		log.debug("Deleting the catalogue document " + partName);
+		new File(filesLocation, partName + ".tex").delete();
+		new File(filesLocation, partName + ".pdf").delete();
+		new File(filesLocation, partName + INPUT_MANIFEST_EXTENSION)
+			.delete();
+	    }
 
 	} catch (IOException ex) {
-	    log.error("Error when opening the file " + filesLocation
-		    + File.separator + reportFolder + File.separator
-		    + reportFilename);
-	    log.debug("Error when opening the file " + filesLocation
-		    + File.separator + reportFolder + File.separator
-		    + reportFilename, ex);
+	    log.error("Error when writing the file " + filesLocation
+		    + File.separator + filename);
+	    log.debug("Error when writing the file " + filesLocation
+		    + File.separator + filename, ex);
 	    return false;
 	} catch (Exception e) {
 	    log.debug(e);
@@ -138,82 +314,143 @@ public abstract class LatexExporterByTarget extends LatexExporter {
 	return true;
     }
 
-    @Override
-    public void writeLatexMain(Writer writer, LatexHeader latexHeader,
-	    LatexFooter latexFooter, BasicStatistics basicStatistics)
-	    throws Exception {
-	// write the Latex Header
-	writer.write(latexHeader.getHeader());
+    /**
+     * Write the document of a catalogue of the split journal. Its pages have
+     * no header or footer, as the page numbers are written by the main file.
+     * 
+     * @param filename
+     *            the name of the document in the files location
+     * @param preamble
+     *            the preamble of the header
+     * @param latexFooter
+     *            the footer
+     * @param part
+     *            the position of the catalogue (from 1)
+     * @param catName
+     *            the name of the catalogue
+     * @param files
+     *            the target files of the catalogue
+     * @throws IOException
+     */
+    protected void writePart(String filename, String preamble,
+	    LatexFooter latexFooter, int part, String catName, List<File> files)
+	    throws IOException {
+	Writer writer = new BufferedWriter(new OutputStreamWriter(
+		new FileOutputStream(filesLocation + File.separator + filename),
+		"utf-8"));
+	try {
+	    writer.write(preamble);
+	    writer.write(BEGIN_DOCUMENT + "\n");
+	    writer.write("\\pagestyle{empty}\n");
+	    // number the section as in the journal which is not split
+	    writer.write("\\setcounter{section}{" + part + "}\n");
+	    writeSectionName(writer, "", catName);
+	    for (File file : files) {
+		writeInput(writer, file);
+		writer.write("\\vspace{4 mm}\n");
+	    }
+	    writer.write(latexFooter.getFooter());
+	} finally {
+	    writer.close();
+	}
+    }
 
-	// write target type statistics
-	writeSectionStatistics(writer);
-	writeLatexStatistics(basicStatistics);
+    /**
+     * Return the name of the document of a catalogue of the split journal.
+     * 
+     * @param name
+     *            the name of the main file without extension
+     * @param part
+     *            the position of the catalogue (from 1)
+     * @return the name of the document
+     */
+    private static String getPartFilename(String name, int part) {
+	return String.format("%s_%02d.tex", name, part);
+    }
 
-	// write the Latex Body
-	// Write the observation reports
-	// parse each file in the latex obs folder (sorted by observation
-	// increasing)
-	File[] files = new File(filesLocation + File.separator + reportFolder)
-		.listFiles(new LaTeXFilter());
-	if (files == null) {
-	    throw new Exception("Folder " + filesLocation + File.separator
-		    + reportFolder + " not found");
+    /**
+     * Compile the main file. If the journal is split by catalogue, the
+     * catalogue documents are compiled first, using up to
+     * postProcessingThreads threads, then the main file merges their PDF
+     * files.
+     */
+    @Override
+    public void postProcessing() throws IOException {
+	if (!splitByCatalogue || !splitInputFiles.containsKey(reportFilename)) {
+	    super.postProcessing();
+	    return;
 	}
+	boolean status = true;
+	if (postProcessingThreads <= 1 || partFilenames.size() <= 1) {
+	    for (String filename : partFilenames) {
+		try {
+		    compile(filename);
+		} catch (IOException ex) {
+		    status = false;
+		    log.error("Error when compiling " + filename);
+		    log.debug("Error when compiling " + filename, ex);
+		}
+	    }
+	} else {
+	    status = compileConcurrently(partFilenames);
+	}
+	if (!status) {
+	    throw new IOException("Error: the catalogue documents of "
+		    + reportFilename + " were not compiled!");
+	}
+	compile(reportFilename);
+    }
 
-	sortFilesByTarget(files);
-
-	// If this pathname does not denote a directory, then listFiles()
-	// returns
-	// null.
-	String target = null, type = "";
-	for (File file : files) {
-	    target = file.getName();
-	    if (file.isFile() && !target.equals(basicStatisticsFilename)) {
-		if (target
-			.matches("^(sun|moon|mercury|venus|mars|asteroid|jupiter|saturn|uranus|neptune|pluto|comet|Sun|Moon|Mercury|Venus|Mars|Asteroid|Jupiter|Saturn|Uranus|Neptune|Pluto|Comet).*$")) {
-		    type = writeSectionName(writer, type, "Solar System");
-		} else if (target.matches("^(milkyway|MilkyWay|MILKYWAY).*$")) {
-		    type = writeSectionName(writer, type, "Milky Way");
-		} else if (target.matches("^(m|M)[0-9].*$")) {
-		    type = writeSectionName(writer, type, "Messier Catalogue");
-		} else if (target.matches("^(ngc|NGC)[0-9].*$")) {
-		    type = writeSectionName(writer, type,
-			    "New General Catalogue (NGC)");
-		} else if (target.matches("^(ic|IC)[0-9].*$")) {
-		    type = writeSectionName(writer, type,
-			    "Index Catalogue (IC)");
-		} else if (target.matches("^(stock|Stock|STOCK)[0-9].*$")) {
-		    type = writeSectionName(writer, type, "Stock Catalogue");
-		} else if (target.matches("^(mel|Mel|MEL)[0-9].*$")) {
-		    type = writeSectionName(writer, type, "Melotte Catalogue");
-		} else if (target.matches("^(cr|Cr|CR)[0-9].*$")) {
-		    type = writeSectionName(writer, type, "Collider Catalogue");
-		} else if (target.matches("^(pk|PK)[0-9].*$")) {
-		    type = writeSectionName(writer, type,
-			    "Perek-Kohoutex Catalogue");
-		} else if (target.matches("^(b|B|Barnard|BARNARD)[0-9].*$")) {
-		    type = writeSectionName(writer, type, "Barnard Catalogue");
-		} else if (target
-			.matches("^(hcg|HCG|Hickson Compact Group)[0-9].*$")) {
-		    type = writeSectionName(writer, type,
-			    "Hickson Compact Group Catalogue");
-		} else if (target.matches("^(ugc|UGC)[0-9].*$")) {
-		    type = writeSectionName(writer, type,
-			    "Uppsala General Catalogue");
-		} else if (target.matches("^(Steph)[0-9].*$")) {
-		    type = writeSectionName(writer, type, "Steph Catalogue");
-		} else {
-		    type = writeSectionName(writer, type,
-			    "Stars and unclassified targets");
+    /**
+     * Compile main files using a pool of postProcessingThreads threads.
+     * 
+     * @param filenames
+     *            the names of the main files in the files location
+     * @return true if all the main files were compiled
+     */
+    protected boolean compileConcurrently(List<String> filenames) {
+	boolean status = true;
+	List<Future<Boolean>> results = new ArrayList<Future<Boolean>>(
+		filenames.size());
+	ExecutorService executor = Executors.newFixedThreadPool(Math.min(
+		postProcessingThreads, filenames.size()));
+	try {
+	    for (final String filename : filenames) {
+		results.add(executor.submit(new Callable<Boolean>() {
+		    @Override
+		    public Boolean call() throws IOException {
+			compile(filename);
+			return true;
+		    }
+		}));
+	    }
+	    for (int i = 0; i < filenames.size(); i++) {
+		try {
+		    results.get(i).get();
+		} catch (ExecutionException ex) {
+		    status = false;
+		    log.error("Error when compiling " + filenames.get(i));
+		    log.debug("Error when compiling " + filenames.get(i),
+			    ex.getCause());
 		}
-		// include the file removing the extension .tex
-		writer.write("\\input{" + reportFolder + "/"
-			+ target.replaceFirst("[.][^.]+$", "") + "}\n");
-		writer.write("\\vspace{4 mm}\n");
 	    }
+	} catch (InterruptedException ex) {
+	    log.debug(ex, ex);
+	    Thread.currentThread().interrupt();
+	    status = false;
+	} finally {
+	    executor.shutdownNow();
 	}
-	// write the Latex Footer
-	writer.write(latexFooter.getFooter());
+	return status;
+    }
+
+    @Override
+    protected List<File> getInputFiles(String filename) {
+	List<File> files = splitInputFiles.get(filename);
+	if (files == null) {
+	    return super.getInputFiles(filename);
+	}
+	return new ArrayList<File>(files);
     }
 
     /**
@@ -236,60 +473,108 @@ public abstract class LatexExporterByTarget extends LatexExporter {
     }
 
     /**
-     * It closes the latex lists opened by the function exportObservations
+     * Export the reports by target. The entries of each target are grouped in
+     * memory first, so that each target file is written once, from its header
+     * to the end of its list of observations.
      * 
      * @param reports
-     *            the list of observations to exportObservation
-     * @return true if the lists are closed
+     *            the list of reports to export
+     * @return true if the reports were exported
      */
-    protected boolean closeLists(List<Report> reports) {
-	processedTargetCache.clear();
-	for (int i = 0; i < reports.size(); i++) {
-	    Report report = reports.get(i);
-	    List<String[]> targets = report.getAllData();
-	    for (int j = 0; j < targets.size(); j++) {
-		String[] targetEntry = targets.get(j);
-		String filenameOut = computeFileName(targetEntry);
-		Writer targetWriter = null;
-		try {
-		    if (!processedTargetCache.contains(filenameOut)) {
-			processedTargetCache.add(filenameOut);
-			targetWriter = new BufferedWriter(
-				new OutputStreamWriter(new FileOutputStream(
-					new File(filesLocation + File.separator
-						+ reportFolder, filenameOut
-						+ ".tex"), true), "utf-8"));
-			targetWriter.write("\\end{itemize}\n");
-			if (resourceBundle != null) {
-			    log.info("\tExported target " + filenameOut);
-			}
-		    }
-
-		} catch (IOException ex) {
-		    log.error("Error when opening the file " + filesLocation
-			    + File.separator + filenameOut);
-		    log.debug("Error when opening the file " + filesLocation
-			    + File.separator + filenameOut, ex);
-		    return false;
-		} catch (Exception ex) {
-		    log.debug(ex);
-		    log.error(ex, ex);
-		    return false;
-		} finally {
-		    try {
-			if (targetWriter != null)
-			    targetWriter.close();
-		    } catch (Exception ex) {
-			log.debug(ex);
-			log.error(ex, ex);
-			return false;
+    @Override
+    public boolean exportReports(List<Report> reports) {
+	if (resourceBundle != null) {
+	    logInfo("");
+	    logInfo("Exporting reports by target:");
+	}
+	// the content of each target file in order of first observation
+	Map<String, StringWriter> targetContents = new LinkedHashMap<String, StringWriter>();
+	// the record of each target file, classified once
+	Map<String, ExportedFile> targetFiles = new HashMap<String, ExportedFile>();
+	try {
+	    for (int i = 0; i < reports.size(); i++) {
+		Report report = reports.get(i);
+		String[] metaData = report.getMetaData();
+		List<String[]> targets = report.getAllData();
+		for (int j = 0; j < targets.size(); j++) {
+		    String[] targetEntry = targets.get(j);
+		    String filenameOut = computeFileName(targetEntry);
+		    StringWriter targetContent = targetContents
+			    .get(filenameOut);
+		    if (targetContent == null) {
+			targetContent = new StringWriter();
+			targetContents.put(filenameOut, targetContent);
+			targetFiles.put(filenameOut, new ExportedFile(
+				getReportFile(filenameOut + ".tex"),
+				Report.INVALID_DATE_KEY, catalogueClassifier
+					.classify(filenameOut + ".tex"),
+				targetEntry[MiniDataCols.CONSTELLATION_NAME
+					.ordinal()]));
+			writeTargetHeader(targetContent, targetEntry);
 		    }
+		    writeTargetEntry(targetContent, metaData, targetEntry);
 		}
 	    }
+	    for (StringWriter targetContent : targetContents.values()) {
+		writeTargetFooter(targetContent);
+	    }
+	} catch (Exception ex) {
+	    log.debug(ex);
+	    log.error(ex, ex);
+	    return false;
+	}
+	for (Map.Entry<String, StringWriter> targetContent : targetContents
+		.entrySet()) {
+	    String filenameOut = targetContent.getKey();
+	    if (!writeReportFile(targetFiles.get(filenameOut), targetContent
+		    .getValue().toString())) {
+		return false;
+	    }
+	    if (resourceBundle != null) {
+		logInfo("\tExported target " + filenameOut);
+	    }
 	}
 	return true;
     }
 
+    /**
+     * Write the header of a target file. This is called once for each target.
+     * 
+     * @param writer
+     *            the writer of the target content
+     * @param targetEntry
+     *            the first entry of the target
+     * @throws IOException
+     */
+    protected abstract void writeTargetHeader(Writer writer,
+	    String[] targetEntry) throws IOException;
+
+    /**
+     * Write an observation of a target.
+     * 
+     * @param writer
+     *            the writer of the target content
+     * @param metaData
+     *            the meta data of the report of the observation
+     * @param targetEntry
+     *            the entry of the target
+     * @throws IOException
+     */
+    protected abstract void writeTargetEntry(Writer writer, String[] metaData,
+	    String[] targetEntry) throws IOException;
+
+    /**
+     * Write the footer of a target file, after all its observations. By
+     * default this closes the Latex 'itemize' block opened by the header.
+     * 
+     * @param writer
+     *            the writer of the target content
+     * @throws IOException
+     */
+    protected void writeTargetFooter(Writer writer) throws IOException {
+	writer.write("\\end{itemize}\n");
+    }
+
     /**
      * Create the filename with different formats depending on whether this is a
      * planet, a double/multiple star system, or everything else
@@ -338,175 +623,4 @@ public abstract class LatexExporterByTarget extends LatexExporter {
 		+ "_" + targetEntry[MiniDataCols.CONSTELLATION_NAME.ordinal()];
     }
 
-    /**
-     * Recreate the list of files as sorted by catalogue
-     *
-     * 
-     * @param list
-     *            the sorted catalogue
-     * @param files
-     *            the full list of files
-     * @param idx
-     *            the current index for files
-     * @return the new index for files
-     */
-    private int addSortedFiles(List<String> list, File[] files, int idx) {
-	String filename;
-	for (int i = 0; i < list.size(); i++) {
-	    filename = list.get(i);
-	    if (idx < files.length) {
-		files[idx] = new File(filename);
-		idx++;
-	    }
-	}
-	return idx;
-    }
-
-    /**
-     * Sort the files by target.
-     * 
-     * @param files
-     *            the files to be sorted by target
-     */
-    protected void sortFilesByTarget(File[] files) {
-	// Add empty data for the solar system. Conjunctions are added at the
-	// bottom
-	ArrayList<String> solarSystem = new ArrayList<String>(
-		Collections.nCopies(12, ""));
-	ArrayList<String> milkyWay = new ArrayList<String>(1);
-	ArrayList<String> messier = new ArrayList<String>(110);
-	ArrayList<String> ngc = new ArrayList<String>(2500);
-	ArrayList<String> ic = new ArrayList<String>(1000);
-	ArrayList<String> stock = new ArrayList<String>(100);
-	ArrayList<String> melotte = new ArrayList<String>(400);
-	ArrayList<String> collider = new ArrayList<String>(300);
-	ArrayList<String> pk = new ArrayList<String>(500);
-	ArrayList<String> barnard = new ArrayList<String>(366);
-	ArrayList<String> hickson = new ArrayList<String>(100);
-	ArrayList<String> abell = new ArrayList<String>(500);
-	ArrayList<String> ugc = new ArrayList<String>(2000);
-	ArrayList<String> steph = new ArrayList<String>(500);
-	ArrayList<String> unclassified = new ArrayList<String>(500);
-
-	String target = null;
-	for (int i = 0; i < files.length; i++) {
-	    target = files[i].getName();
-
-	    // Instead of creating a comparator for the solar system, data are
-	    // manually sorted. Later, we need to remove empty slots.
-	    if (target
-		    .matches("^(sun|moon|mercury|venus|mars|asteroid|jupiter|saturn|uranus|neptune|pluto|comet|Sun|Moon|Mercury|Venus|Mars|Asteroid|Jupiter|Saturn|Uranus|Neptune|Pluto|Comet).*$")) {
-		if (target.matches("^(sun|Sun)\\.tex$")) {
-		    solarSystem.set(0, files[i].toString());
-		} else if (target.matches("^(moon|Moon)\\.tex$")) {
-		    solarSystem.set(1, files[i].toString());
-		} else if (target.matches("^(mercury|Mercury)\\.tex$")) {
-		    solarSystem.set(2, files[i].toString());
-		} else if (target.matches("^(venus|Venus)\\.tex$")) {
-		    solarSystem.set(3, files[i].toString());
-		} else if (target.matches("^(mars|Mars)\\.tex$")) {
-		    solarSystem.set(4, files[i].toString());
-		} else if (target.matches("^(asteroid|Asteroid)\\.tex$")) {
-		    solarSystem.set(5, files[i].toString());
-		} else if (target.matches("^(jupiter|Jupiter)\\.tex$")) {
-		    solarSystem.set(6, files[i].toString());
-		} else if (target.matches("^(saturn|Saturn)\\.tex$")) {
-		    solarSystem.set(7, files[i].toString());
-		} else if (target.matches("^(uranus|Uranus)\\.tex$")) {
-		    solarSystem.set(8, files[i].toString());
-		} else if (target.matches("^(neptune|Neptune)\\.tex$")) {
-		    solarSystem.set(9, files[i].toString());
-		} else if (target.matches("^(pluto|Pluto)\\.tex$")) {
-		    solarSystem.set(10, files[i].toString());
-		} else if (target.matches("^(comet|Comet)\\.tex$")) {
-		    solarSystem.set(11, files[i].toString());
-		}
-		// conjunctions
-		else {
-		    solarSystem.add(files[i].toString());
-		}
-		log.debug(target);
-	    } else if (target.matches("^(milkyway|MilkyWay|MILKYWAY).*$")) {
-		milkyWay.add(files[i].toString());
-		log.debug(target);
-	    } else if (target.matches("^(m|M)[0-9].*$")) {
-		messier.add(files[i].toString());
-		log.debug(target);
-	    } else if (target.matches("^(ngc|NGC)[0-9].*$")) {
-		ngc.add(files[i].toString());
-		log.debug(target);
-	    } else if (target.matches("^(ic|IC)[0-9].*$")) {
-		ic.add(files[i].toString());
-		log.debug(target);
-	    } else if (target.matches("^(stock|Stock|STOCK)[0-9].*$")) {
-		stock.add(files[i].toString());
-		log.debug(target);
-	    } else if (target.matches("^(mel|Mel|MEL)[0-9].*$")) {
-		melotte.add(files[i].toString());
-		log.debug(target);
-	    } else if (target.matches("^(cr|Cr|CR)[0-9].*$")) {
-		collider.add(files[i].toString());
-		log.debug(target);
-	    } else if (target.matches("^(b|B|Barnard|BARNARD)[0-9].*$")) {
-		barnard.add(files[i].toString());
-		log.debug(target);
-	    } else if (target.matches("^(pk|PK)[0-9].*$")) {
-		pk.add(files[i].toString());
-		log.debug(target);
-	    } else if (target
-		    .matches("^(hcg|HCG|Hickson Compact Group)[0-9].*$")) {
-		hickson.add(files[i].toString());
-		log.debug(target);
-	    } else if (target.matches("^(Abell|ABELL)[0-9].*$")) {
-		abell.add(files[i].toString());
-		log.debug(target);
-	    } else if (target.matches("^(ugc|UGC)[0-9].*$")) {
-		ugc.add(files[i].toString());
-		log.debug(target);
-	    } else if (target.matches("^(Steph)[0-9].*$")) {
-		steph.add(files[i].toString());
-		log.debug(target);
-	    } else {
-		unclassified.add(files[i].toString());
-		log.debug(target);
-	    }
-	}
-	// note Planets and Milky Way are manually sorted.
-	// Remove all the positions for which no data has been inserted.
-	solarSystem.removeAll(Collections.singleton(""));
-
-	Collections.sort(messier, catalogueItemComparator);
-	Collections.sort(ngc, catalogueItemComparator);
-	Collections.sort(ic, catalogueItemComparator);
-	Collections.sort(stock, catalogueItemComparator);
-	Collections.sort(melotte, catalogueItemComparator);
-	Collections.sort(collider, catalogueItemComparator);
-	Collections.sort(pk, catalogueItemComparator);
-	Collections.sort(barnard, catalogueItemComparator);
-	Collections.sort(hickson, catalogueItemComparator);
-	Collections.sort(abell, catalogueItemComparator);
-	Collections.sort(ugc, catalogueItemComparator);
-	Collections.sort(steph, catalogueItemComparator);
-	// normal lexicon-numerical sorting for stars
-	Collections.sort(unclassified);
-	log.debug("Catalogues are now sorted by target.");
-
-	int j = 0;
-	j = addSortedFiles(solarSystem, files, j);
-	j = addSortedFiles(milkyWay, files, j);
-	j = addSortedFiles(messier, files, j);
-	j = addSortedFiles(ngc, files, j);
-	j = addSortedFiles(ic, files, j);
-	j = addSortedFiles(stock, files, j);
-	j = addSortedFiles(melotte, files, j);
-	j = addSortedFiles(collider, files, j);
-	j = addSortedFiles(pk, files, j);
-	j = addSortedFiles(barnard, files, j);
-	j = addSortedFiles(hickson, files, j);
-	j = addSortedFiles(abell, files, j);
-	j = addSortedFiles(ugc, files, j);
-	j = addSortedFiles(steph, files, j);
-	j = addSortedFiles(unclassified, files, j);
-
-    }
 }
@@ -0,0 +1,393 @@
+/*
+ * Copyright 2015 Piero Dalle Pezze
+ *
+ * This file is part of AstroJournal.
+ *
+ * AstroJournal is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+/*
+ * Changelog:
+ * - Piero Dalle Pezze: class creation.
+ */
+package org.astrojournal.generator.absgen;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A template of the LaTeX code of a report. A template is the LaTeX code with
+ * the following tags:
+ * <ul>
+ * <li>${COLUMN} is replaced by the value of a meta data or data column (e.g.
+ * ${DATE_NAME}, ${TARGET_NAME}), escaping its LaTeX special characters;</li>
+ * <li>${COLUMN.raw} is replaced by the value of a column as it is;</li>
+ * <li>${COLUMN.colName} is replaced by the name of a column (e.g. Date);</li>
+ * <li>${?COLUMN} ... ${/COLUMN} is only written if the value of a column is
+ * not empty;</li>
+ * <li>${*} ... ${/*} is written for each data row.</li>
+ * </ul>
+ * A data column outside ${*} ... ${/*} refers to the first data row. A $ which
+ * is not followed by { is written as it is. The template is compiled once into
+ * a sequence of literal chunks and column slots, so that a report is written
+ * directly to a Writer without building intermediate strings.
+ * 
+ * @author Piero Dalle Pezze
+ * @version $Rev$
+ * @since 1.0
+ */
+public class LatexTemplate {
+
+    /** A literal chunk. */
+    private static final int LITERAL = 0;
+
+    /** The value of a meta data column. */
+    private static final int META_DATA = 1;
+
+    /** The value of a data column. */
+    private static final int DATA = 2;
+
+    /** The beginning of a section written if a meta data column is filled. */
+    private static final int IF_META_DATA = 3;
+
+    /** The beginning of a section written if a data column is not empty. */
+    private static final int IF_DATA = 4;
+
+    /** The beginning of a section written for each data row. */
+    private static final int EACH_ROW = 5;
+
+    /** The end of a section. */
+    private static final int END = 6;
+
+    /** The value of a meta data column which is not escaped. */
+    private static final int RAW_META_DATA = 7;
+
+    /** The value of a data column which is not escaped. */
+    private static final int RAW_DATA = 8;
+
+    /** The kind of each chunk. */
+    private int[] kinds;
+
+    /** The text of each literal chunk. */
+    private String[] texts;
+
+    /**
+     * The column of each slot or, for a section, the position of the chunk
+     * ending the section.
+     */
+    private int[] indexes;
+
+    /** The column of each conditional section. */
+    private int[] columns;
+
+    /**
+     * Constructor. The template is compiled.
+     * 
+     * @param template
+     *            the text of the template
+     * @param metaDataColumns
+     *            the meta data columns (e.g. ExtMetaDataCols.values())
+     * @param dataColumns
+     *            the data columns (e.g. ExtDataCols.values())
+     * @throws IllegalArgumentException
+     *             if the template refers to an unknown column or a section is
+     *             not closed
+     */
+    public <M extends Enum<M> & ReportColumn, D extends Enum<D> & ReportColumn> LatexTemplate(
+	    String template, M[] metaDataColumns, D[] dataColumns) {
+	Map<String, Integer> metaData = new HashMap<String, Integer>();
+	Map<String, Integer> data = new HashMap<String, Integer>();
+	Map<String, String> colNames = new HashMap<String, String>();
+	for (M column : metaDataColumns) {
+	    metaData.put(column.name(), column.ordinal());
+	    colNames.put(column.name(), column.getColName());
+	}
+	for (D column : dataColumns) {
+	    data.put(column.name(), column.ordinal());
+	    colNames.put(column.name(), column.getColName());
+	}
+
+	List<Integer> kindList = new ArrayList<Integer>();
+	List<String> textList = new ArrayList<String>();
+	List<Integer> indexList = new ArrayList<Integer>();
+	List<Integer> columnList = new ArrayList<Integer>();
+	// the positions of the open sections
+	List<Integer> open = new ArrayList<Integer>();
+	// the names of the open sections
+	List<String> openNames = new ArrayList<String>();
+	StringBuilder literal = new StringBuilder();
+	int i = 0;
+	while (i < template.length()) {
+	    int tag = template.indexOf("${", i);
+	    if (tag < 0) {
+		literal.append(template, i, template.length());
+		break;
+	    }
+	    literal.append(template, i, tag);
+	    int end = template.indexOf('}', tag);
+	    if (end < 0) {
+		throw new IllegalArgumentException("Tag not closed at " + tag);
+	    }
+	    String name = template.substring(tag + 2, end);
+	    i = end + 1;
+	    if (name.endsWith(".colName")) {
+		String colName = colNames.get(name.substring(0,
+			name.length() - ".colName".length()));
+		if (colName == null) {
+		    throw new IllegalArgumentException("Unknown column "
+			    + name);
+		}
+		literal.append(colName);
+		continue;
+	    }
+	    if (literal.length() > 0) {
+		add(kindList, textList, indexList, columnList, LITERAL,
+			literal.toString(), -1, -1);
+		literal.setLength(0);
+	    }
+	    if (name.equals("*")) {
+		open.add(kindList.size());
+		openNames.add(name);
+		add(kindList, textList, indexList, columnList, EACH_ROW, null,
+			-1, -1);
+	    } else if (name.startsWith("?")) {
+		String column = name.substring(1);
+		open.add(kindList.size());
+		openNames.add(column);
+		if (metaData.containsKey(column)) {
+		    add(kindList, textList, indexList, columnList,
+			    IF_META_DATA, null, -1, metaData.get(column));
+		} else if (data.containsKey(column)) {
+		    add(kindList, textList, indexList, columnList, IF_DATA,
+			    null, -1, data.get(column));
+		} else {
+		    throw new IllegalArgumentException("Unknown column "
+			    + column);
+		}
+	    } else if (name.startsWith("/")) {
+		if (open.isEmpty()
+			|| !openNames.get(open.size() - 1).equals(
+				name.substring(1))) {
+		    throw new IllegalArgumentException("Unexpected tag ${"
+			    + name + "}");
+		}
+		openNames.remove(open.size() - 1);
+		int section = open.remove(open.size() - 1);
+		indexList.set(section, kindList.size());
+		add(kindList, textList, indexList, columnList, END, null, -1,
+			-1);
+	    } else if (name.endsWith(".raw")) {
+		String column = name.substring(0, name.length()
+			- ".raw".length());
+		if (metaData.containsKey(column)) {
+		    add(kindList, textList, indexList, columnList,
+			    RAW_META_DATA, null, metaData.get(column), -1);
+		} else if (data.containsKey(column)) {
+		    add(kindList, textList, indexList, columnList, RAW_DATA,
+			    null, data.get(column), -1);
+		} else {
+		    throw new IllegalArgumentException("Unknown column "
+			    + column);
+		}
+	    } else if (metaData.containsKey(name)) {
+		add(kindList, textList, indexList, columnList, META_DATA, null,
+			metaData.get(name), -1);
+	    } else if (data.containsKey(name)) {
+		add(kindList, textList, indexList, columnList, DATA, null,
+			data.get(name), -1);
+	    } else {
+		throw new IllegalArgumentException("Unknown column " + name);
+	    }
+	}
+	if (!open.isEmpty()) {
+	    throw new IllegalArgumentException("Section ${"
+		    + openNames.get(open.size() - 1) + "} not closed");
+	}
+	if (literal.length() > 0) {
+	    add(kindList, textList, indexList, columnList, LITERAL,
+		    literal.toString(), -1, -1);
+	}
+
+	kinds = new int[kindList.size()];
+	texts = textList.toArray(new String[kinds.length]);
+	indexes = new int[kinds.length];
+	columns = new int[kinds.length];
+	for (int j = 0; j < kinds.length; j++) {
+	    kinds[j] = kindList.get(j);
+	    indexes[j] = indexList.get(j);
+	    columns[j] = columnList.get(j);
+	}
+    }
+
+    /**
+     * Add a chunk to the lists of a template being compiled.
+     * 
+     * @param kindList
+     * @param textList
+     * @param indexList
+     * @param columnList
+     * @param kind
+     * @param text
+     * @param index
+     * @param column
+     */
+    private static void add(List<Integer> kindList, List<String> textList,
+	    List<Integer> indexList, List<Integer> columnList, int kind,
+	    String text, int index, int column) {
+	kindList.add(kind);
+	textList.add(text);
+	indexList.add(index);
+	columnList.add(column);
+    }
+
+    /**
+     * Write a report.
+     * 
+     * @param writer
+     *            the writer
+     * @param metaData
+     *            the meta data of the report
+     * @param data
+     *            the data rows of the report
+     * @throws IOException
+     */
+    public void render(Writer writer, String[] metaData, List<String[]> data)
+	    throws IOException {
+	render(writer, metaData, data, data.isEmpty() ? null : data.get(0), 0,
+		kinds.length);
+    }
+
+    /**
+     * Write a report with one data row.
+     * 
+     * @param writer
+     *            the writer
+     * @param metaData
+     *            the meta data of the report
+     * @param dataRow
+     *            the data row
+     * @throws IOException
+     */
+    public void render(Writer writer, String[] metaData, String[] dataRow)
+	    throws IOException {
+	render(writer, metaData, null, dataRow, 0, kinds.length);
+    }
+
+    /**
+     * Write the chunks of the template between two positions.
+     * 
+     * @param writer
+     *            the writer
+     * @param metaData
+     *            the meta data
+     * @param data
+     *            the data rows or null if there is only the current row
+     * @param row
+     *            the current data row or null
+     * @param from
+     *            the position of the first chunk
+     * @param to
+     *            the position after the last chunk
+     * @throws IOException
+     */
+    private void render(Writer writer, String[] metaData,
+	    List<String[]> data, String[] row, int from, int to)
+	    throws IOException {
+	for (int i = from; i < to; i++) {
+	    switch (kinds[i]) {
+	    case LITERAL:
+		writer.write(texts[i]);
+		break;
+	    case META_DATA:
+		write(writer, metaData, indexes[i], true);
+		break;
+	    case DATA:
+		write(writer, row, indexes[i], true);
+		break;
+	    case RAW_META_DATA:
+		write(writer, metaData, indexes[i], false);
+		break;
+	    case RAW_DATA:
+		write(writer, row, indexes[i], false);
+		break;
+	    case IF_META_DATA:
+		if (isEmpty(metaData, columns[i])) {
+		    i = indexes[i];
+		}
+		break;
+	    case IF_DATA:
+		if (isEmpty(row, columns[i])) {
+		    i = indexes[i];
+		}
+		break;
+	    case EACH_ROW:
+		if (data == null) {
+		    render(writer, metaData, null, row, i + 1, indexes[i]);
+		} else {
+		    for (String[] dataRow : data) {
+			render(writer, metaData, data, dataRow, i + 1,
+				indexes[i]);
+		    }
+		}
+		i = indexes[i];
+		break;
+	    default:
+		break;
+	    }
+	}
+    }
+
+    /**
+     * Write a value if this exists.
+     * 
+     * @param writer
+     *            the writer
+     * @param values
+     *            the values or null
+     * @param i
+     *            the position of the value
+     * @param escape
+     *            true if the LaTeX special characters are escaped
+     * @throws IOException
+     */
+    private static void write(Writer writer, String[] values, int i,
+	    boolean escape) throws IOException {
+	if (values != null && i < values.length && values[i] != null) {
+	    if (escape) {
+		LatexEscaper.escape(writer, values[i]);
+	    } else {
+		writer.write(values[i]);
+	    }
+	}
+    }
+
+    /**
+     * Return true if a value does not exist or is empty.
+     * 
+     * @param values
+     *            the values or null
+     * @param i
+     *            the position of the value
+     * @return true if the value is empty
+     */
+    private static boolean isEmpty(String[] values, int i) {
+	return values == null || i >= values.length || values[i] == null
+		|| values[i].isEmpty();
+    }
+
+}
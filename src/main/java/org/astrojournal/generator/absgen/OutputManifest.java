@@ -0,0 +1,313 @@
+/*
+ * Copyright 2015 Piero Dalle Pezze
+ *
+ * This file is part of AstroJournal.
+ *
+ * AstroJournal is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+/*
+ * Changelog:
+ * - Piero Dalle Pezze: class creation.
+ */
+package org.astrojournal.generator.absgen;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A persisted manifest of the files written by an exporter to its folder. Each
+ * file is identified by its name, size, last modification time and content
+ * hash. A file is only written if its content changed since it was recorded,
+ * so that unchanged files keep their last modification time. The files of the
+ * folder which were not written since the manifest was loaded are deleted
+ * when this is finished. This class is thread safe.
+ * 
+ * @author Piero Dalle Pezze
+ * @version $Rev$
+ * @since 1.0
+ */
+public class OutputManifest {
+
+    /** The log associated to this class */
+    private static Logger log = LogManager.getLogger(OutputManifest.class);
+
+    /** The name of the manifest file in the folder. */
+    public static final String MANIFEST_FILENAME = ".astrojournal_manifest";
+
+    /** The version of the manifest file format. */
+    private static final int VERSION = 1;
+
+    /** The algorithm computing the content hash of a file. */
+    private static final String HASH_ALGORITHM = "SHA-1";
+
+    /** The folder containing the files. */
+    private File folder;
+
+    /** The manifest file. */
+    private File manifestFile;
+
+    /** The entries loaded from the manifest file. */
+    private Map<String, Entry> loaded = new ConcurrentHashMap<String, Entry>();
+
+    /** The entries of the files written since the manifest was loaded. */
+    private Map<String, Entry> current = new ConcurrentHashMap<String, Entry>();
+
+    /**
+     * Constructor.
+     * 
+     * @param folder
+     *            the folder containing the files
+     */
+    public OutputManifest(File folder) {
+	this.folder = folder;
+	this.manifestFile = new File(folder, MANIFEST_FILENAME);
+    }
+
+    /**
+     * Load the manifest file. If this does not exist or cannot be read, the
+     * manifest is empty and all the files will be written.
+     * 
+     * @return true if the manifest file was loaded
+     */
+    public boolean load() {
+	loaded.clear();
+	current.clear();
+	if (!manifestFile.exists()) {
+	    return false;
+	}
+	DataInputStream in = null;
+	try {
+	    in = new DataInputStream(new BufferedInputStream(
+		    new FileInputStream(manifestFile)));
+	    if (in.readInt() != VERSION) {
+		log.debug("Ignoring the output manifest " + manifestFile);
+		return false;
+	    }
+	    int nEntries = in.readInt();
+	    for (int i = 0; i < nEntries; i++) {
+		String name = in.readUTF();
+		long size = in.readLong();
+		long lastModified = in.readLong();
+		byte[] hash = new byte[in.readInt()];
+		in.readFully(hash);
+		loaded.put(name, new Entry(size, lastModified, hash));
+	    }
+	    log.debug("Loaded " + nEntries + " files from the output manifest "
+		    + manifestFile);
+	    return true;
+	} catch (IOException ex) {
+	    log.warn("The output manifest " + manifestFile
+		    + " cannot be read. All files will be written.");
+	    log.debug(ex, ex);
+	    loaded.clear();
+	    return false;
+	} finally {
+	    try {
+		if (in != null)
+		    in.close();
+	    } catch (IOException ex) {
+		log.debug(ex, ex);
+	    }
+	}
+    }
+
+    /**
+     * Write a file of the folder unless this has the same content it had when
+     * it was recorded.
+     * 
+     * @param name
+     *            the file name
+     * @param content
+     *            the content of the file
+     * @return true if the file was written, false if this was unchanged
+     * @throws IOException
+     *             if the file cannot be written
+     */
+    public boolean write(String name, byte[] content) throws IOException {
+	File file = new File(folder, name);
+	byte[] hash = hash(content);
+	Entry entry = loaded.get(name);
+	if (entry != null && entry.size == content.length
+		&& Arrays.equals(entry.hash, hash)
+		&& entry.size == file.length()
+		&& entry.lastModified == file.lastModified()) {
+	    current.put(name, entry);
+	    return false;
+	}
+	OutputStream out = new FileOutputStream(file);
+	try {
+	    out.write(content);
+	} finally {
+	    out.close();
+	}
+	current.put(name, new Entry(content.length, file.lastModified(), hash));
+	return true;
+    }
+
+    /**
+     * Delete the files of the folder which were not written since the
+     * manifest was loaded and save the manifest. The manifest can then be
+     * used for writing the files again.
+     * 
+     * @return true if the orphan files were deleted and the manifest saved
+     */
+    public boolean finish() {
+	boolean status = true;
+	File[] files = folder.listFiles();
+	if (files != null) {
+	    for (File file : files) {
+		String name = file.getName();
+		if (file.isFile() && !current.containsKey(name)
+			&& !name.startsWith(MANIFEST_FILENAME)) {
+		    log.debug("Deleting the orphan file " + file);
+		    status = file.delete() && status;
+		}
+	    }
+	}
+	return save() && status;
+    }
+
+    /**
+     * Save the entries of the files written since the manifest was loaded.
+     * The manifest file is replaced atomically where the file system allows
+     * this.
+     * 
+     * @return true if the manifest file was saved
+     */
+    public boolean save() {
+	File tmpFile = new File(manifestFile.getPath() + ".tmp");
+	DataOutputStream out = null;
+	boolean status = true;
+	try {
+	    out = new DataOutputStream(new BufferedOutputStream(
+		    new FileOutputStream(tmpFile)));
+	    out.writeInt(VERSION);
+	    out.writeInt(current.size());
+	    for (Map.Entry<String, Entry> entry : current.entrySet()) {
+		out.writeUTF(entry.getKey());
+		out.writeLong(entry.getValue().size);
+		out.writeLong(entry.getValue().lastModified);
+		out.writeInt(entry.getValue().hash.length);
+		out.write(entry.getValue().hash);
+	    }
+	} catch (IOException ex) {
+	    status = false;
+	    log.debug(ex, ex);
+	} finally {
+	    try {
+		if (out != null)
+		    out.close();
+	    } catch (IOException ex) {
+		status = false;
+		log.debug(ex, ex);
+	    }
+	}
+	try {
+	    if (status) {
+		Files.move(tmpFile.toPath(), manifestFile.toPath(),
+			StandardCopyOption.REPLACE_EXISTING);
+		log.debug("Saved " + current.size()
+			+ " files to the output manifest " + manifestFile);
+	    }
+	} catch (IOException ex) {
+	    status = false;
+	    log.debug(ex, ex);
+	}
+	if (!status) {
+	    log.warn("The output manifest " + manifestFile
+		    + " cannot be saved.");
+	    tmpFile.delete();
+	}
+	loaded.clear();
+	loaded.putAll(current);
+	current.clear();
+	return status;
+    }
+
+    /**
+     * Return the folder containing the files.
+     * 
+     * @return the folder
+     */
+    public File getFolder() {
+	return folder;
+    }
+
+    /**
+     * Compute the content hash of a file content.
+     * 
+     * @param content
+     *            the content
+     * @return the hash
+     * @throws IOException
+     *             if the hash algorithm is not available
+     */
+    private static byte[] hash(byte[] content) throws IOException {
+	try {
+	    return MessageDigest.getInstance(HASH_ALGORITHM).digest(content);
+	} catch (NoSuchAlgorithmException ex) {
+	    throw new IOException(ex);
+	}
+    }
+
+    /**
+     * A manifest entry.
+     */
+    private static class Entry {
+
+	/** The size of the file. */
+	private final long size;
+
+	/** The last modification time of the file. */
+	private final long lastModified;
+
+	/** The content hash of the file. */
+	private final byte[] hash;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param size
+	 *            the size of the file
+	 * @param lastModified
+	 *            the last modification time of the file
+	 * @param hash
+	 *            the content hash of the file
+	 */
+	public Entry(long size, long lastModified, byte[] hash) {
+	    this.size = size;
+	    this.lastModified = lastModified;
+	    this.hash = hash;
+	}
+    }
+
+}
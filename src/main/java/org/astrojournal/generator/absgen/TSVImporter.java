@@ -23,21 +23,22 @@
  */
 package org.astrojournal.generator.absgen;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.astrojournal.generator.Report;
+import org.astrojournal.generator.ReportSink;
 import org.astrojournal.generator.basicgen.BasicMetaDataCols;
 import org.astrojournal.utilities.filefilters.TSVRawReportFilter;
 
 /**
- * It imports files containing the reports. Data are separated by tab.
+ * It imports files containing the reports. Data are separated by tab. Files
+ * are read with a TSVTokenizer so that only the imported field values become
+ * Strings. The state of a parse is kept in local variables so that the same
+ * importer can parse several files concurrently.
  * 
  * @author Piero Dalle Pezze
  * @version $Rev$
@@ -48,12 +49,6 @@ public abstract class TSVImporter extends Importer {
     /** The log associated to this class */
     private static Logger log = LogManager.getLogger(TSVImporter.class);
 
-    /** The values contained in an imported string. */
-    protected String[] values = null;
-
-    /** The meta data for the current report. */
-    protected String[] metaEntry = null;
-
     /**
      * Default constructor
      */
@@ -61,52 +56,54 @@ public abstract class TSVImporter extends Importer {
     }
 
     /**
-     * Imports the report data stored in a file.
+     * Imports the report data stored in a file passing each report to a sink
+     * as soon as it is parsed.
      * 
      * @param file
      *            The file to parse (either CSV or TSV file, separated by TAB
      *            delimiter).
-     * @return a list of Report objects
+     * @param sink
+     *            the sink receiving the imported reports
+     * @return true if the sink processed all the reports correctly
      */
     @Override
-    public List<Report> importReports(File file) {
-	List<Report> reports = new ArrayList<Report>();
+    public boolean importReports(File file, ReportSink sink) {
+	boolean status = true;
 	if (file.isFile() && new TSVRawReportFilter().accept(file)) {
 
 	    // whether this is tsv or csv it does not matter as long as fields
 	    // are separated by a TAB character
-	    String delimiter = "\t";
 
 	    // Get the current file name.
 	    String rawFilename = file.getName();
 	    if (resourceBundle != null) {
 		log.info("\t" + rawFilename);
 	    }
-	    // Create a buffered reader to read the file
-	    BufferedReader reader = null;
+	    // Create a tokenizer to read the file
+	    TSVTokenizer tokenizer = null;
 	    try {
-		reader = new BufferedReader(new FileReader(file));
-		String line;
+		tokenizer = new TSVTokenizer(file);
 		// Read all lines
 		boolean foundWrongDate = false;
-		while ((line = reader.readLine()) != null) {
-		    line = line.trim();
-		    // log.debug(line);
-		    if (line.equals("") || line.startsWith("#")) {
+		while (tokenizer.nextLine()) {
+		    if (tokenizer.isEmptyLine()
+			    || tokenizer.lineStartsWith('#')) {
 			// comments or empty line. Skip
 
-		    } else if (line.indexOf(BasicMetaDataCols.DATE_NAME
-			    .getColName()) > -1) {
+		    } else if (tokenizer
+			    .lineContains(BasicMetaDataCols.DATE_NAME
+				    .getColName())) {
 			Report report = new Report();
-			importReport(reader, report, line, delimiter);
-			// Add the new report to the list of reports
-			reports.add(report);
+			importReport(tokenizer, report);
+			// Pass the new report to the sink
+			status = sink.accept(report) && status;
 			foundWrongDate = false;
 		    } else {
 			if (!foundWrongDate) {
 			    foundWrongDate = true;
 			    log.error("Expected 'Date' but found unknown property ["
-				    + line + "]. Report discarded.");
+				    + tokenizer.getLine()
+				    + "]. Report discarded.");
 			}
 		    }
 		}
@@ -114,30 +111,68 @@ public abstract class TSVImporter extends Importer {
 		log.error(ex, ex);
 	    } finally {
 		try {
-		    if (reader != null)
-			reader.close();
+		    if (tokenizer != null)
+			tokenizer.close();
 		} catch (IOException ex) {
 		    log.error(ex, ex);
 		}
 	    }
 	}
-	return reports;
+	return status;
     }
 
     /**
-     * Removes single or double quotes at the beginning and at the end of each
-     * field if these are present. This can be the case for .csv files.
+     * Imports a report record. Fields are already cleaned from quotes at the
+     * beginning and at the end.
+     * 
+     * @param tokenizer
+     *            the tokenizer associated to the file. This is positioned on
+     *            the first line of the record
+     * @param report
+     *            the object containing the report to import
+     * @throws IOException
+     *             if tokenizer cannot read the report
      */
-    protected void cleanFields() {
-	for (int i = 0; i < values.length; i++) {
-	    if (values[i].startsWith("\"") || values[i].startsWith("\'")) {
-		values[i] = values[i].substring(1);
-	    }
-	    if (values[i].endsWith("\"") || values[i].endsWith("\'")) {
-		values[i] = values[i].substring(0, values[i].length() - 1);
+    protected abstract void importReport(TSVTokenizer tokenizer, Report report)
+	    throws IOException;
+
+    /**
+     * Return the number of fields a data row must have to contain all the
+     * columns of a header line.
+     * 
+     * @param fieldColumns
+     *            the ordinal of the column of each field of the header line
+     *            (-1 if the field is ignored)
+     * @return the number of fields
+     */
+    protected static int getRequiredFieldCount(int[] fieldColumns) {
+	int nFields = fieldColumns.length;
+	while (nFields > 0 && fieldColumns[nFields - 1] == -1) {
+	    nFields--;
+	}
+	return nFields;
+    }
+
+    /**
+     * Set the data columns from the fields of a data row.
+     * 
+     * @param tokenizer
+     *            the tokenizer positioned on the data row
+     * @param dataEntry
+     *            the data columns to set
+     * @param fieldColumns
+     *            the ordinal of the column of each field of the header line
+     *            (-1 if the field is ignored)
+     */
+    protected static void setData(TSVTokenizer tokenizer, String[] dataEntry,
+	    int[] fieldColumns) {
+	int nFields = Math.min(fieldColumns.length, tokenizer.getFieldCount());
+	for (int i = 0; i < nFields; i++) {
+	    if (fieldColumns[i] != -1) {
+		dataEntry[fieldColumns[i]] = tokenizer.getField(i);
 	    }
-	    values[i] = values[i].trim();
 	}
+	log.debug(Arrays.toString(dataEntry));
     }
 
 }
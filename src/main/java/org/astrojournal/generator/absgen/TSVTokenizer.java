@@ -0,0 +1,499 @@
+/*
+ * Copyright 2015 Piero Dalle Pezze
+ *
+ * This file is part of AstroJournal.
+ *
+ * AstroJournal is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+/*
+ * Changelog:
+ * - Piero Dalle Pezze: class creation.
+ */
+package org.astrojournal.generator.absgen;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * A byte level tokenizer for tab separated value files. Lines are read from a
+ * FileChannel into a reusable ByteBuffer and split into fields by recording
+ * the offsets of each field. Lines are trimmed and single or double quotes at
+ * the beginning and at the end of each field are removed. Only the fields
+ * which are requested become Strings. The fields of a line are valid until
+ * the next line is read.
+ * 
+ * @author Piero Dalle Pezze
+ * @version $Rev$
+ * @since 1.0
+ */
+public class TSVTokenizer implements Closeable {
+
+    /** The initial size of the buffer. This grows for longer lines. */
+    private static final int BUFFER_SIZE = 8192;
+
+    /** The field delimiter. */
+    private static final byte TAB = '\t';
+
+    /** The channel to read. */
+    private FileChannel channel;
+
+    /** The charset used for decoding the fields. */
+    private Charset charset;
+
+    /** The buffer wrapping bytes. */
+    private ByteBuffer buffer;
+
+    /** The bytes read from the channel. */
+    private byte[] bytes;
+
+    /** The position of the next line in bytes. */
+    private int position = 0;
+
+    /** The number of valid bytes in bytes. */
+    private int limit = 0;
+
+    /** True if the end of the channel was reached. */
+    private boolean eof = false;
+
+    /** True if the last line was terminated by a carriage return. */
+    private boolean skipLF = false;
+
+    /** The start of the current (trimmed) line. */
+    private int lineStart = 0;
+
+    /** The end of the current (trimmed) line. */
+    private int lineEnd = 0;
+
+    /** The current line as a String, created on request. */
+    private String line = null;
+
+    /** The starts of the fields of the current line. */
+    private int[] fieldStarts = new int[16];
+
+    /** The ends of the fields of the current line. */
+    private int[] fieldEnds = new int[16];
+
+    /** The number of fields of the current line. */
+    private int fieldCount = 0;
+
+    /**
+     * Constructor. The file is decoded using the default charset.
+     * 
+     * @param file
+     *            the file to read
+     * @throws IOException
+     *             if the file cannot be opened
+     */
+    public TSVTokenizer(File file) throws IOException {
+	this(new FileInputStream(file).getChannel(), Charset.defaultCharset());
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param channel
+     *            the channel to read
+     * @param charset
+     *            the charset used for decoding the fields. This must encode
+     *            tabs, quotes and line terminators as single bytes.
+     */
+    public TSVTokenizer(FileChannel channel, Charset charset) {
+	this.channel = channel;
+	this.charset = charset;
+	bytes = new byte[BUFFER_SIZE];
+	buffer = ByteBuffer.wrap(bytes);
+    }
+
+    /**
+     * Read the next line and split it into fields. Line terminators are '\n',
+     * '\r' or "\r\n".
+     * 
+     * @return true if a line was read, false if the end of the file was
+     *         reached
+     * @throws IOException
+     *             if the channel cannot be read
+     */
+    public boolean nextLine() throws IOException {
+	line = null;
+	fieldCount = 0;
+	int start = position;
+	int i = position;
+	int end;
+	for (;;) {
+	    if (i == limit) {
+		if (eof) {
+		    position = i;
+		    if (i == start) {
+			return false;
+		    }
+		    end = i;
+		    break;
+		}
+		int shift = fill(start);
+		start = start - shift;
+		i = i - shift;
+		continue;
+	    }
+	    byte b = bytes[i];
+	    if (skipLF) {
+		skipLF = false;
+		if (b == '\n') {
+		    i++;
+		    start = i;
+		    continue;
+		}
+	    }
+	    if (b == '\n' || b == '\r') {
+		skipLF = b == '\r';
+		end = i;
+		position = i + 1;
+		break;
+	    }
+	    i++;
+	}
+	tokenize(start, end);
+	return true;
+    }
+
+    /**
+     * Return true if the current line is empty or contains only white
+     * spaces.
+     * 
+     * @return true if the current line is empty
+     */
+    public boolean isEmptyLine() {
+	return lineStart == lineEnd;
+    }
+
+    /**
+     * Return true if the current (trimmed) line starts with the character c.
+     * 
+     * @param c
+     *            an ASCII character
+     * @return true if the current line starts with c
+     */
+    public boolean lineStartsWith(char c) {
+	return lineStart < lineEnd && bytes[lineStart] == c;
+    }
+
+    /**
+     * Return true if the current line contains the string s.
+     * 
+     * @param s
+     *            the string to search
+     * @return true if the current line contains s
+     */
+    public boolean lineContains(String s) {
+	if (!isASCII(s)) {
+	    return getLine().indexOf(s) > -1;
+	}
+	int length = s.length();
+	for (int i = lineStart; i <= lineEnd - length; i++) {
+	    int j = 0;
+	    while (j < length && bytes[i + j] == s.charAt(j)) {
+		j++;
+	    }
+	    if (j == length) {
+		return true;
+	    }
+	}
+	return false;
+    }
+
+    /**
+     * Return the current (trimmed) line.
+     * 
+     * @return the current line
+     */
+    public String getLine() {
+	if (line == null) {
+	    line = decode(lineStart, lineEnd);
+	}
+	return line;
+    }
+
+    /**
+     * Return the number of fields of the current line. This is 0 for an empty
+     * line.
+     * 
+     * @return the number of fields
+     */
+    public int getFieldCount() {
+	return fieldCount;
+    }
+
+    /**
+     * Return a field of the current line.
+     * 
+     * @param i
+     *            the index of the field
+     * @return the field
+     */
+    public String getField(int i) {
+	if (i >= fieldCount) {
+	    throw new IndexOutOfBoundsException("Field " + i + " of "
+		    + fieldCount);
+	}
+	return decode(fieldStarts[i], fieldEnds[i]);
+    }
+
+    /**
+     * Compare a field of the current line with a string ignoring the case.
+     * The field is not converted into a String unless it contains non ASCII
+     * characters.
+     * 
+     * @param i
+     *            the index of the field
+     * @param s
+     *            the string to compare
+     * @return true if the field is equal to s ignoring the case
+     */
+    public boolean fieldEqualsIgnoreCase(int i, String s) {
+	if (i >= fieldCount) {
+	    throw new IndexOutOfBoundsException("Field " + i + " of "
+		    + fieldCount);
+	}
+	int start = fieldStarts[i];
+	int end = fieldEnds[i];
+	for (int j = start; j < end; j++) {
+	    if (bytes[j] < 0) {
+		return getField(i).toLowerCase().equals(s.toLowerCase());
+	    }
+	}
+	if (end - start != s.length() || !isASCII(s)) {
+	    return false;
+	}
+	for (int j = start; j < end; j++) {
+	    if (toLowerCase(bytes[j]) != toLowerCase(s.charAt(j - start))) {
+		return false;
+	    }
+	}
+	return true;
+    }
+
+    /**
+     * Return the hash code of a field of the current line ignoring the case.
+     * This is the same as hashCodeIgnoreCase(getField(i)), but the field is
+     * not converted into a String unless it contains non ASCII characters.
+     * 
+     * @param i
+     *            the index of the field
+     * @return the hash code of the field ignoring the case
+     */
+    public int fieldHashCodeIgnoreCase(int i) {
+	if (i >= fieldCount) {
+	    throw new IndexOutOfBoundsException("Field " + i + " of "
+		    + fieldCount);
+	}
+	int start = fieldStarts[i];
+	int end = fieldEnds[i];
+	int hash = 0;
+	for (int j = start; j < end; j++) {
+	    if (bytes[j] < 0) {
+		return hashCodeIgnoreCase(getField(i));
+	    }
+	    hash = 31 * hash + toLowerCase(bytes[j]);
+	}
+	return hash;
+    }
+
+    /**
+     * Return the hash code of a string ignoring the case.
+     * 
+     * @param s
+     *            the string
+     * @return the hash code of s ignoring the case
+     */
+    public static int hashCodeIgnoreCase(String s) {
+	int hash = 0;
+	for (int i = 0; i < s.length(); i++) {
+	    hash = 31 * hash + Character.toLowerCase(s.charAt(i));
+	}
+	return hash;
+    }
+
+    /**
+     * Close the channel.
+     * 
+     * @throws IOException
+     *             if the channel cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+	channel.close();
+    }
+
+    /**
+     * Compact the buffer from keepFrom and read more bytes from the channel.
+     * The buffer grows if it is full.
+     * 
+     * @param keepFrom
+     *            the first byte to keep
+     * @return the number of positions the kept bytes were shifted back
+     * @throws IOException
+     *             if the channel cannot be read
+     */
+    private int fill(int keepFrom) throws IOException {
+	if (keepFrom > 0) {
+	    System.arraycopy(bytes, keepFrom, bytes, 0, limit - keepFrom);
+	    limit = limit - keepFrom;
+	} else if (limit == bytes.length) {
+	    bytes = Arrays.copyOf(bytes, bytes.length * 2);
+	    buffer = ByteBuffer.wrap(bytes);
+	}
+	buffer.clear();
+	buffer.position(limit);
+	int read = channel.read(buffer);
+	if (read < 0) {
+	    eof = true;
+	} else {
+	    limit = limit + read;
+	}
+	return keepFrom;
+    }
+
+    /**
+     * Trim the line between start and end and record the offsets of its
+     * fields. Quotes at the beginning and at the end of each field are
+     * removed and each field is trimmed.
+     * 
+     * @param start
+     *            the start of the line
+     * @param end
+     *            the end of the line
+     */
+    private void tokenize(int start, int end) {
+	while (start < end && isWhiteSpace(bytes[start])) {
+	    start++;
+	}
+	while (end > start && isWhiteSpace(bytes[end - 1])) {
+	    end--;
+	}
+	lineStart = start;
+	lineEnd = end;
+	if (start == end) {
+	    return;
+	}
+	int fieldStart = start;
+	for (int i = start; i <= end; i++) {
+	    if (i == end || bytes[i] == TAB) {
+		addField(fieldStart, i);
+		fieldStart = i + 1;
+	    }
+	}
+    }
+
+    /**
+     * Record the offsets of a field after removing quotes and white spaces.
+     * 
+     * @param start
+     *            the start of the field
+     * @param end
+     *            the end of the field
+     */
+    private void addField(int start, int end) {
+	if (start < end && isQuote(bytes[start])) {
+	    start++;
+	}
+	if (end > start && isQuote(bytes[end - 1])) {
+	    end--;
+	}
+	while (start < end && isWhiteSpace(bytes[start])) {
+	    start++;
+	}
+	while (end > start && isWhiteSpace(bytes[end - 1])) {
+	    end--;
+	}
+	if (fieldCount == fieldStarts.length) {
+	    fieldStarts = Arrays.copyOf(fieldStarts, fieldCount * 2);
+	    fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2);
+	}
+	fieldStarts[fieldCount] = start;
+	fieldEnds[fieldCount] = end;
+	fieldCount++;
+    }
+
+    /**
+     * Decode the bytes between start and end.
+     * 
+     * @param start
+     *            the first byte
+     * @param end
+     *            the end byte (excluded)
+     * @return the decoded string
+     */
+    private String decode(int start, int end) {
+	if (start == end) {
+	    return "";
+	}
+	return new String(bytes, start, end - start, charset);
+    }
+
+    /**
+     * Return true if b is a white space as defined by String.trim().
+     * 
+     * @param b
+     *            the byte
+     * @return true if b is a white space
+     */
+    private static boolean isWhiteSpace(byte b) {
+	return b >= 0 && b <= ' ';
+    }
+
+    /**
+     * Return true if b is a single or double quote.
+     * 
+     * @param b
+     *            the byte
+     * @return true if b is a quote
+     */
+    private static boolean isQuote(byte b) {
+	return b == '"' || b == '\'';
+    }
+
+    /**
+     * Return true if s only contains ASCII characters.
+     * 
+     * @param s
+     *            the string
+     * @return true if s only contains ASCII characters
+     */
+    private static boolean isASCII(String s) {
+	for (int i = 0; i < s.length(); i++) {
+	    if (s.charAt(i) > 127) {
+		return false;
+	    }
+	}
+	return true;
+    }
+
+    /**
+     * Convert an ASCII character to lower case.
+     * 
+     * @param c
+     *            the character
+     * @return the character in lower case
+     */
+    private static int toLowerCase(int c) {
+	return c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c;
+    }
+
+}
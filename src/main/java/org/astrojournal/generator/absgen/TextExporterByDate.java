@@ -23,27 +23,26 @@
  */
 package org.astrojournal.generator.absgen;
 
-import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
+import java.io.StringWriter;
 import java.io.Writer;
-import java.util.Arrays;
-import java.util.Collections;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.List;
-import java.util.NoSuchElementException;
-import java.util.Scanner;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.astrojournal.configuration.Configuration;
 import org.astrojournal.configuration.ajconfiguration.AJPropertyConstants;
 import org.astrojournal.generator.Report;
+import org.astrojournal.generator.ReportSink;
+import org.astrojournal.generator.absgen.ExportManifest.ExportedFile;
 import org.astrojournal.generator.extgen.ExtMetaDataCols;
 import org.astrojournal.generator.minigen.MiniMetaDataCols;
 import org.astrojournal.generator.statistics.BasicStatistics;
-import org.astrojournal.utilities.filefilters.TextFilter;
 
 /**
  * A generic latex Exporter with entries by date.
@@ -78,68 +77,95 @@ public abstract class TextExporterByDate extends Exporter {
     @Override
     public boolean exportReports(List<Report> reports) {
 	if (resourceBundle != null) {
-	    log.info("");
-	    log.info("Exporting txt reports by date:");
+	    logInfo("");
+	    logInfo("Exporting txt reports by date:");
 	}
 	Report report = null;
 	int nReports = reports.size();
 	boolean result = true;
 
+	// the reports are independent and their results are logged in order
+	boolean[] results = exportEachReport(reports);
 	for (int i = 0; i < nReports; i++) {
 	    report = reports.get(i);
-	    String[] metaData = report.getMetaData();
-
-	    Writer writer = null;
-
-	    String filenameOut = metaData[MiniMetaDataCols.DATE_NAME.ordinal()];
-	    filenameOut = filenameOut.substring(6, 10)
-		    + filenameOut.substring(3, 5) + filenameOut.substring(0, 2);
-	    // Add an additional char if this is present. This is the case in
-	    // which
-	    // more than one observation per day is done.
-	    if (metaData[MiniMetaDataCols.DATE_NAME.ordinal()].length() == 11) {
-		filenameOut = filenameOut
-			+ metaData[MiniMetaDataCols.DATE_NAME.ordinal()]
-				.charAt(10);
+	    if (results[i]) {
+		if (resourceBundle != null) {
+		    logInfo("\tExported report "
+			    + report.getMetaData()[ExtMetaDataCols.DATE_NAME
+				    .ordinal()] + " ("
+			    + report.getAllData().size() + " targets)");
+		}
+	    } else {
+		result = false;
 	    }
+	}
 
-	    List<String[]> targets = report.getAllData();
-	    try {
-		writer = new BufferedWriter(new OutputStreamWriter(
-			new FileOutputStream(new File(filesLocation
-				+ File.separator + reportFolder, filenameOut
-				+ ".txt")), "utf-8"));
+	return result;
+    }
 
-		writeTextContent(writer, report);
+    /**
+     * Return a sink exporting each report as soon as it is imported. The
+     * reports by date are independent, so these do not need to be sorted.
+     * 
+     * @return the sink
+     */
+    @Override
+    public ReportSink getReportSink() {
+	return new ReportSink() {
+	    private int nReports = 0;
 
+	    @Override
+	    public boolean accept(Report report) {
+		nReports++;
+		return exportReport(report);
+	    }
+
+	    @Override
+	    public boolean finish() {
 		if (resourceBundle != null) {
-		    log.info("\tExported report "
-			    + metaData[ExtMetaDataCols.DATE_NAME.ordinal()]
-			    + " (" + targets.size() + " targets)");
-		}
-	    } catch (IOException ex) {
-		log.error("Error when opening the file " + filesLocation
-			+ File.separator + filenameOut);
-		log.debug("Error when opening the file " + filesLocation
-			+ File.separator + filenameOut, ex);
-		result = false;
-	    } catch (Exception ex) {
-		log.error(ex);
-		log.debug(ex, ex);
-		result = false;
-	    } finally {
-		try {
-		    if (writer != null)
-			writer.close();
-		} catch (Exception ex) {
-		    log.error(ex);
-		    log.debug(ex, ex);
-		    result = false;
+		    logInfo("");
+		    logInfo("Exporting txt reports by date:");
+		    logInfo("\tExported " + nReports + " reports");
 		}
+		return true;
 	    }
+	};
+    }
+
+    /**
+     * Export a report to its own file.
+     * 
+     * @param report
+     *            the report to export
+     * @return true if the report was exported
+     */
+    @Override
+    protected boolean exportReport(Report report) {
+	String[] metaData = report.getMetaData();
+
+	String filenameOut = metaData[MiniMetaDataCols.DATE_NAME.ordinal()];
+	filenameOut = filenameOut.substring(6, 10)
+		+ filenameOut.substring(3, 5) + filenameOut.substring(0, 2);
+	// Add an additional char if this is present. This is the case in
+	// which
+	// more than one observation per day is done.
+	if (metaData[MiniMetaDataCols.DATE_NAME.ordinal()].length() == 11) {
+	    filenameOut = filenameOut
+		    + metaData[MiniMetaDataCols.DATE_NAME.ordinal()].charAt(10);
 	}
 
-	return result;
+	// render the report in memory, so that an unchanged file is not
+	// written again in incremental export
+	StringWriter writer = new StringWriter();
+	try {
+	    writeTextContent(writer, report);
+	} catch (Exception ex) {
+	    log.error(ex);
+	    log.debug(ex, ex);
+	    return false;
+	}
+	return writeReportFile(new ExportedFile(getReportFile(filenameOut
+		+ ".txt"), report.getDateKey(), null, null), writer.toString());
     }
 
     /**
@@ -157,12 +183,11 @@ public abstract class TextExporterByDate extends Exporter {
      */
     @Override
     public boolean generateJournal(BasicStatistics basicStatistics) {
-	Writer writer = null;
+	FileOutputStream out = null;
 	try {
-	    writer = new BufferedWriter(new OutputStreamWriter(
-		    new FileOutputStream(filesLocation + File.separator
-			    + reportFilename), "utf-8"));
-	    writeTextMain(writer, "", "");
+	    out = new FileOutputStream(filesLocation + File.separator
+		    + reportFilename);
+	    writeTextMain(out.getChannel(), "", "");
 
 	} catch (IOException ex) {
 	    log.error("Error when opening the file " + filesLocation
@@ -176,8 +201,8 @@ public abstract class TextExporterByDate extends Exporter {
 	    return false;
 	} finally {
 	    try {
-		if (writer != null)
-		    writer.close();
+		if (out != null)
+		    out.close();
 	    } catch (Exception ex) {
 		log.error(ex);
 		log.debug(ex, ex);
@@ -188,52 +213,68 @@ public abstract class TextExporterByDate extends Exporter {
     }
 
     /**
-     * Write the main document
+     * Write the main document. The report files are encoded in UTF-8 like the
+     * main document, so these are transferred as they are by the file system
+     * without being read into memory.
      * 
-     * @param writer
+     * @param channel
+     *            the channel of the main document
      * @param header
      * @param footer
      * @throws Exception
      */
-    public void writeTextMain(Writer writer, String header, String footer)
-	    throws Exception {
+    public void writeTextMain(FileChannel channel, String header,
+	    String footer) throws Exception {
 	// write the Header
+	writeText(channel, header);
 
 	// write the Body
 	// Write the observation reports
-	// parse each file in the obs folder (sorted by observation
-	// increasing)
-	File[] files = new File(filesLocation + File.separator + reportFolder)
-		.listFiles(new TextFilter());
-	if (files == null) {
-	    throw new Exception("Folder " + filesLocation + File.separator
-		    + reportFolder + " not found");
-	}
-	Arrays.sort(files, Collections.reverseOrder());
-	// If this pathname does not denote a directory, then listFiles()
-	// returns null.
-	for (File file : files) {
-	    if (file.isFile()) {
-		// include the file removing the extension .txt
-		try {
-		    Scanner scanner = new Scanner(file, "UTF-8");
-		    String text = scanner.useDelimiter("\\A").next();
-		    scanner.close();
-		    writer.write(text);
-		} catch (NoSuchElementException e) {
-		    log.debug(e, e);
-		    log.error(e);
+	// include each exported report (sorted by observation decreasing)
+	for (ExportedFile file : getExportedFiles(ExportedFile.BY_DATE)) {
+	    FileInputStream in = new FileInputStream(file.getPath());
+	    try {
+		FileChannel reportChannel = in.getChannel();
+		long position = 0, size = reportChannel.size();
+		while (position < size) {
+		    long transferred = reportChannel.transferTo(position,
+			    size - position, channel);
+		    // the file was truncated meanwhile
+		    if (transferred == 0) {
+			break;
+		    }
+		    position += transferred;
 		}
-		writer.write("\n\n");
+	    } finally {
+		in.close();
 	    }
+	    writeText(channel, "\n\n");
 	}
 	// write the Footer
+	writeText(channel, footer);
+    }
+
+    /**
+     * Write a text to a channel in UTF-8.
+     * 
+     * @param channel
+     *            the channel
+     * @param text
+     *            the text
+     * @throws IOException
+     */
+    private void writeText(FileChannel channel, String text)
+	    throws IOException {
+	ByteBuffer buffer = ByteBuffer.wrap(text.getBytes("utf-8"));
+	while (buffer.hasRemaining()) {
+	    channel.write(buffer);
+	}
     }
 
     @Override
     public void postProcessing() throws IOException {
 	if (resourceBundle != null) {
-	    log.info("\t" + filesLocation + File.separator + reportFilename);
+	    logInfo("\t" + filesLocation + File.separator + reportFilename);
 	}
     }
 
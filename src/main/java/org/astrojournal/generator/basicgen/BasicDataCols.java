@@ -1,5 +1,7 @@
 package org.astrojournal.generator.basicgen;
 
+import org.astrojournal.generator.absgen.ReportColumn;
+
 /**
  * Target description for the basic generator.
  * 
@@ -7,12 +9,12 @@ package org.astrojournal.generator.basicgen;
  * @version $Rev$
  * @since 1.0
  */
-public enum BasicDataCols {
+public enum BasicDataCols implements ReportColumn {
 
     /** A string containing the target name. */
-    TARGET_NAME("Target"),
+    TARGET_NAME("Target", "Object"),
     /** A string containing the constellation name. */
-    CONSTELLATION_NAME("Cons"),
+    CONSTELLATION_NAME("Cons", "Constellation"),
     /** A string containing the type name. */
     TYPE_NAME("Type"),
     /** A string containing the power name. */
@@ -20,8 +22,11 @@ public enum BasicDataCols {
 
     private String colName;
 
-    private BasicDataCols(String colName) {
+    private String[] aliases;
+
+    private BasicDataCols(String colName, String... aliases) {
 	this.colName = colName;
+	this.aliases = aliases;
     }
 
     /**
@@ -29,8 +34,19 @@ public enum BasicDataCols {
      * 
      * @return the colName
      */
+    @Override
     public String getColName() {
 	return this.colName;
     }
 
+    /**
+     * Return the other names accepted for this column in the raw reports.
+     * 
+     * @return the aliases
+     */
+    @Override
+    public String[] getAliases() {
+	return this.aliases;
+    }
+
 }
@@ -26,8 +26,6 @@ package org.astrojournal.generator.basicgen;
 import java.io.IOException;
 import java.io.Writer;
 
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
 import org.astrojournal.generator.Report;
 import org.astrojournal.generator.absgen.LatexExporterByDate;
 
@@ -41,9 +39,41 @@ import org.astrojournal.generator.absgen.LatexExporterByDate;
  */
 public class BasicLatexExporterByDate extends LatexExporterByDate {
 
-    /** The log associated to this class */
-    private static Logger log = LogManager
-	    .getLogger(BasicLatexExporterByDate.class);
+    /**
+     * The name of the template of a report in the header / footer folder.
+     */
+    public static final String REPORT_TEMPLATE = "basic_report_by_date.tmpl";
+
+    /** The default template of a report. */
+    public static final String DEFAULT_REPORT_TEMPLATE = "% General observation data\n"
+	    + "\\begin{tabular}[t]{ll}\n"
+	    + "{\\bf ${DATE_NAME.colName}:} & "
+	    + "${DATE_NAME} \\\\ \n"
+	    + "${?TELESCOPES_NAME}{\\bf ${TELESCOPES_NAME.colName}:} & "
+	    + "${TELESCOPES_NAME} \\\\ \n${/TELESCOPES_NAME}"
+	    + "\\end{tabular}\n"
+	    + "\\quad\n"
+	    + "\\begin{tabular}[t]{ll}\n"
+	    + "${?SEEING_NAME}{\\bf ${SEEING_NAME.colName}:} & "
+	    + "${SEEING_NAME} \\\\ \n${/SEEING_NAME}"
+	    + "${?TRANSPARENCY_NAME}{\\bf ${TRANSPARENCY_NAME.colName}:} & "
+	    + "${TRANSPARENCY_NAME} \\\\ \n${/TRANSPARENCY_NAME}"
+	    + "\\end{tabular}\n"
+	    + "% Detailed observation data\n"
+	    + "\\begin{longtable}{ p{0.7in}  p{0.3in}  p{0.6in}  p{0.9in} }\n"
+	    + "\\hline \n"
+	    + "{\\bf ${TARGET_NAME.colName}}"
+	    + " & {\\bf ${CONSTELLATION_NAME.colName}}"
+	    + " & {\\bf ${TYPE_NAME.colName}}"
+	    + " & {\\bf ${POWER_NAME.colName}} \\\\ \n"
+	    + "\\hline \n"
+	    + "${*}${TARGET_NAME}"
+	    + " & ${CONSTELLATION_NAME}"
+	    + " & ${TYPE_NAME}"
+	    + " & ${POWER_NAME} \\\\ \n${/*}"
+	    + "\\hline \n"
+	    + "\\end{longtable} \n"
+	    + "\\clearpage \n";
 
     /**
      * Default constructor.
@@ -56,64 +86,8 @@ public class BasicLatexExporterByDate extends LatexExporterByDate {
     public void writeLatexContent(Writer writer, Report report)
 	    throws IOException {
 	String[] metaData = report.getMetaData();
-	writer.write("% General observation data\n");
-	// first metadata table
-	writer.write("\\begin{tabular}[t]{ll}\n");
-	writer.write("{\\bf " + BasicMetaDataCols.DATE_NAME.getColName()
-		+ ":} & " + metaData[BasicMetaDataCols.DATE_NAME.ordinal()]
-		+ " \\\\ \n");
-	if (!metaData[BasicMetaDataCols.TELESCOPES_NAME.ordinal()].isEmpty()) {
-	    writer.write("{\\bf "
-		    + BasicMetaDataCols.TELESCOPES_NAME.getColName() + ":} & "
-		    + metaData[BasicMetaDataCols.TELESCOPES_NAME.ordinal()]
-		    + " \\\\ \n");
-	}
-	writer.write("\\end{tabular}\n");
-	writer.write("\\quad\n");
-
-	// second metadata table
-	writer.write("\\begin{tabular}[t]{ll}\n");
-	if (!metaData[BasicMetaDataCols.SEEING_NAME.ordinal()].isEmpty()) {
-	    writer.write("{\\bf " + BasicMetaDataCols.SEEING_NAME.getColName()
-		    + ":} & "
-		    + metaData[BasicMetaDataCols.SEEING_NAME.ordinal()]
-		    + " \\\\ \n");
-	}
-	if (!metaData[BasicMetaDataCols.TRANSPARENCY_NAME.ordinal()].isEmpty()) {
-	    writer.write("{\\bf "
-		    + BasicMetaDataCols.TRANSPARENCY_NAME.getColName()
-		    + ":} & "
-		    + metaData[BasicMetaDataCols.TRANSPARENCY_NAME.ordinal()]
-		    + " \\\\ \n");
-	}
-	writer.write("\\end{tabular}\n");
-
-	writer.write("% Detailed observation data\n");
-	writer.write("\\begin{longtable}{ p{0.7in}  p{0.3in}  p{0.6in}  p{0.9in} }\n");
-	writer.write("\\hline \n");
-	writer.write("{\\bf " + BasicDataCols.TARGET_NAME.getColName()
-		+ "} & {\\bf " + BasicDataCols.CONSTELLATION_NAME.getColName()
-		+ "} & {\\bf " + BasicDataCols.TYPE_NAME.getColName()
-		+ "} & {\\bf " + BasicDataCols.POWER_NAME.getColName()
-		+ "} \\\\ \n");
-
-	writer.write("\\hline \n");
-
-	String[] targetEntry;
-	for (int j = 0; j < report.getDataRowNumber(); j++) {
-	    targetEntry = report.getData(j);
-	    log.debug("Target "
-		    + targetEntry[BasicDataCols.TARGET_NAME.ordinal()]);
-
-	    writer.write(targetEntry[BasicDataCols.TARGET_NAME.ordinal()]
-		    + " & "
-		    + targetEntry[BasicDataCols.CONSTELLATION_NAME.ordinal()]
-		    + " & " + targetEntry[BasicDataCols.TYPE_NAME.ordinal()]
-		    + " & " + targetEntry[BasicDataCols.POWER_NAME.ordinal()]
-		    + " \\\\ \n");
-	}
-	writer.write("\\hline \n");
-	writer.write("\\end{longtable} \n");
-	writer.write("\\clearpage \n");
+	getTemplate(REPORT_TEMPLATE, DEFAULT_REPORT_TEMPLATE,
+		BasicMetaDataCols.values(), BasicDataCols.values()).render(
+		writer, metaData, report.getAllData());
     }
 }
@@ -1,5 +1,7 @@
 package org.astrojournal.generator.basicgen;
 
+import org.astrojournal.generator.absgen.ReportColumn;
+
 /**
  * Report meta description for the basic generator.
  * 
@@ -7,7 +9,7 @@ package org.astrojournal.generator.basicgen;
  * @version $Rev$
  * @since 1.0
  */
-public enum BasicMetaDataCols {
+public enum BasicMetaDataCols implements ReportColumn {
 
     /** A string containing the date name. */
     DATE_NAME("Date"),
@@ -16,12 +18,15 @@ public enum BasicMetaDataCols {
     /** A string containing the transparency name. */
     TRANSPARENCY_NAME("Transparency"),
     /** A string containing the list of telescopes name. */
-    TELESCOPES_NAME("Telescopes");
+    TELESCOPES_NAME("Telescopes", "Telescope");
 
     private String colName;
 
-    private BasicMetaDataCols(String colName) {
+    private String[] aliases;
+
+    private BasicMetaDataCols(String colName, String... aliases) {
 	this.colName = colName;
+	this.aliases = aliases;
     }
 
     /**
@@ -29,7 +34,18 @@ public enum BasicMetaDataCols {
      * 
      * @return the colName
      */
+    @Override
     public String getColName() {
 	return this.colName;
     }
+
+    /**
+     * Return the other names accepted for this column in the raw reports.
+     * 
+     * @return the aliases
+     */
+    @Override
+    public String[] getAliases() {
+	return this.aliases;
+    }
 }
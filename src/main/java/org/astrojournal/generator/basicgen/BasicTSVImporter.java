@@ -23,14 +23,15 @@
  */
 package org.astrojournal.generator.basicgen;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.util.Arrays;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.astrojournal.generator.Report;
+import org.astrojournal.generator.absgen.ColumnTable;
 import org.astrojournal.generator.absgen.TSVImporter;
+import org.astrojournal.generator.absgen.TSVTokenizer;
 
 /**
  * The parser for AstroJournal. It imports tab separated value (tsv or csv)
@@ -46,6 +47,14 @@ public class BasicTSVImporter extends TSVImporter {
     /** The log associated to this class */
     private static Logger log = LogManager.getLogger(BasicTSVImporter.class);
 
+    /** The lookup table for the meta data names. */
+    private static final ColumnTable<BasicMetaDataCols> META_DATA_COLS = new ColumnTable<BasicMetaDataCols>(
+	    BasicMetaDataCols.values());
+
+    /** The lookup table for the data column names. */
+    private static final ColumnTable<BasicDataCols> DATA_COLS = new ColumnTable<BasicDataCols>(
+	    BasicDataCols.values());
+
     /**
      * Default constructor
      */
@@ -56,130 +65,103 @@ public class BasicTSVImporter extends TSVImporter {
     /**
      * Imports a report record
      * 
-     * @param reader
-     *            the buffered reader associated to the file
+     * @param tokenizer
+     *            the tokenizer associated to the file, positioned on the
+     *            first line of the record
      * @param report
      *            the object containing the observation to import
-     * @param line
-     *            the current line parsed in the file (the first line of the
-     *            record)
-     * @param delimiter
-     *            the field delimiter
      * @throws IOException
-     *             if reader cannot read the observation
+     *             if tokenizer cannot read the observation
      */
     @Override
-    protected void importReport(BufferedReader reader, Report report,
-	    String line, String delimiter) throws IOException {
-	// log.debug(line);
-	// copy the first line
-	values = line.split(delimiter);
-	// clean the field values if containing quotes at the beginning or end
-	cleanFields();
-	metaEntry = new String[BasicMetaDataCols.values().length];
+    protected void importReport(TSVTokenizer tokenizer, Report report)
+	    throws IOException {
+	// log.debug(tokenizer.getLine());
+	// the field values are already cleaned from quotes at the beginning or
+	// end
+	String[] metaEntry = new String[BasicMetaDataCols.values().length];
 	Arrays.fill(metaEntry, "");
-	if (values.length == 2) {
-	    setMetaData(BasicMetaDataCols.DATE_NAME);
+	if (tokenizer.getFieldCount() == 2
+		&& META_DATA_COLS.get(tokenizer, 0) == BasicMetaDataCols.DATE_NAME) {
+	    setMetaData(tokenizer, metaEntry, BasicMetaDataCols.DATE_NAME);
 	}
 	// Read the other lines for this observation
-	while ((line = reader.readLine()) != null) {
-	    line = line.trim();
-	    values = line.split(delimiter);
-	    // clean the field values if containing quotes at the beginning or
-	    // end
-	    cleanFields();
-	    if (values.length == 0 || line.equals("")) {
+	while (tokenizer.nextLine()) {
+	    if (tokenizer.isEmptyLine()) {
 		return;
 	    }
-	    if (values.length == 1) {
-		// We also accept naked eye observations. Therefore, the only
-		// required value
-		// is the date.
-		values = (line + '\t' + "").split(delimiter);
-	    }
-	    if (values.length == 2) {
+	    if (tokenizer.getFieldCount() == 2) {
 
-		if (setMetaData(BasicMetaDataCols.SEEING_NAME)
-			|| setMetaData(BasicMetaDataCols.TRANSPARENCY_NAME)
-			|| setMetaData(BasicMetaDataCols.TELESCOPES_NAME)) {
-		    // do nothing. || is faster than processing &&
+		// the date is only accepted as first line of a report
+		BasicMetaDataCols column = META_DATA_COLS.get(tokenizer, 0);
+		if (column != null && column != BasicMetaDataCols.DATE_NAME) {
+		    setMetaData(tokenizer, metaEntry, column);
 		} else {
 		    log.warn("Report:"
 			    + metaEntry[BasicMetaDataCols.DATE_NAME.ordinal()]
-			    + ". Unknown property [" + values[0] + ":"
-			    + values[1] + "].");
+			    + ". Unknown property [" + tokenizer.getField(0)
+			    + ":" + tokenizer.getField(1) + "].");
 		}
 
-	    } else if (values.length >= 4) {
+	    } else if (tokenizer.getFieldCount() >= 4) {
 
 		report.addMetaData(metaEntry);
 
-		if (values[0].toLowerCase().equals(
-			BasicDataCols.TARGET_NAME.getColName().toLowerCase())
-			&& values[1].toLowerCase().equals(
-				BasicDataCols.CONSTELLATION_NAME.getColName()
-					.toLowerCase())
-			&& values[2].toLowerCase().equals(
-				BasicDataCols.TYPE_NAME.getColName()
-					.toLowerCase())
-			&& values[3].toLowerCase().equals(
-				BasicDataCols.POWER_NAME.getColName()
-					.toLowerCase())) {
+		// the data columns can be in any order
+		int[] fieldColumns = DATA_COLS.getFieldColumns(tokenizer);
+		if (fieldColumns != null) {
 
+		    int nFields = getRequiredFieldCount(fieldColumns);
 		    String[] targetEntry;
-		    while ((line = reader.readLine()) != null) {
-			line = line.trim();
-			values = line.split(delimiter);
-			// clean the field values if containing quotes at the
-			// beginning or end
-			cleanFields();
-			if (line.equals("")) {
+		    while (tokenizer.nextLine()) {
+			if (tokenizer.isEmptyLine()) {
 			    return;
 			}
-			if (values.length < 4) {
+			if (tokenizer.getFieldCount() < nFields) {
 			    log.warn("Report:"
 				    + metaEntry[BasicMetaDataCols.DATE_NAME
 					    .ordinal()]
-				    + ". Malformed target [" + line
+				    + ". Malformed target ["
+				    + tokenizer.getLine()
 				    + "]. Target discarded.");
 			    break;
 			}
 			targetEntry = new String[BasicDataCols.values().length];
 			Arrays.fill(targetEntry, "");
-			targetEntry[BasicDataCols.TARGET_NAME.ordinal()] = values[0];
-			log.debug(BasicDataCols.TARGET_NAME + "=" + values[0]);
-			targetEntry[BasicDataCols.CONSTELLATION_NAME.ordinal()] = values[1];
-			log.debug(BasicDataCols.CONSTELLATION_NAME + "="
-				+ values[1]);
-			targetEntry[BasicDataCols.TYPE_NAME.ordinal()] = values[2];
-			log.debug(BasicDataCols.TYPE_NAME + "=" + values[2]);
-			targetEntry[BasicDataCols.POWER_NAME.ordinal()] = values[3];
-			log.debug(BasicDataCols.POWER_NAME + "=" + values[3]);
+			setData(tokenizer, targetEntry, fieldColumns);
 			report.addData(targetEntry);
 		    }
 		} else {
 		    log.warn("Report:"
 			    + metaEntry[BasicMetaDataCols.DATE_NAME.ordinal()]
-			    + ". Unknown property [" + values[0] + " "
-			    + values[1] + " " + values[2] + " " + values[3]
+			    + ". Unknown property [" + tokenizer.getField(0)
+			    + " " + tokenizer.getField(1) + " "
+			    + tokenizer.getField(2) + " "
+			    + tokenizer.getField(3)
 			    + "]");
 		}
 	    } else {
 		log.warn("Report:"
 			+ metaEntry[BasicMetaDataCols.DATE_NAME.ordinal()]
-			+ ". Discarding line [" + line + "].");
+			+ ". Discarding line [" + tokenizer.getLine() + "].");
 	    }
 	}
     }
 
-    /** Set the meta data */
-    private boolean setMetaData(BasicMetaDataCols column) {
-	if (values[0].toLowerCase().equals(column.getColName().toLowerCase())) {
-	    metaEntry[column.ordinal()] = values[1];
-	    log.debug(column + "=" + values[1]);
-	    return true;
-	}
-	return false;
+    /**
+     * Set the meta data.
+     * 
+     * @param tokenizer
+     *            the tokenizer positioned on the current line
+     * @param metaEntry
+     *            the meta data for the current report
+     * @param column
+     *            the meta data column to set
+     */
+    private void setMetaData(TSVTokenizer tokenizer, String[] metaEntry,
+	    BasicMetaDataCols column) {
+	metaEntry[column.ordinal()] = tokenizer.getField(1);
+	log.debug(column + "=" + metaEntry[column.ordinal()]);
     }
 
 }
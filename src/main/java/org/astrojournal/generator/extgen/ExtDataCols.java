@@ -1,5 +1,7 @@
 package org.astrojournal.generator.extgen;
 
+import org.astrojournal.generator.absgen.ReportColumn;
+
 /**
  * Target description for the extended generator.
  * 
@@ -7,12 +9,12 @@ package org.astrojournal.generator.extgen;
  * @version $Rev$
  * @since 1.0
  */
-public enum ExtDataCols {
+public enum ExtDataCols implements ReportColumn {
 
     /** A string containing the target name. */
-    TARGET_NAME("Target"),
+    TARGET_NAME("Target", "Object"),
     /** A string containing the constellation name. */
-    CONSTELLATION_NAME("Cons"),
+    CONSTELLATION_NAME("Cons", "Constellation"),
     /** A string containing the type name. */
     TYPE_NAME("Type"),
     /** A string containing the power name. */
@@ -22,8 +24,11 @@ public enum ExtDataCols {
 
     private String colName;
 
-    private ExtDataCols(String colName) {
+    private String[] aliases;
+
+    private ExtDataCols(String colName, String... aliases) {
 	this.colName = colName;
+	this.aliases = aliases;
     }
 
     /**
@@ -31,8 +36,19 @@ public enum ExtDataCols {
      * 
      * @return the colName
      */
+    @Override
     public String getColName() {
 	return this.colName;
     }
 
+    /**
+     * Return the other names accepted for this column in the raw reports.
+     * 
+     * @return the aliases
+     */
+    @Override
+    public String[] getAliases() {
+	return this.aliases;
+    }
+
 }
@@ -26,8 +26,6 @@ package org.astrojournal.generator.extgen;
 import java.io.IOException;
 import java.io.Writer;
 
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
 import org.astrojournal.generator.Report;
 import org.astrojournal.generator.absgen.LatexExporterByDate;
 
@@ -42,9 +40,60 @@ import org.astrojournal.generator.absgen.LatexExporterByDate;
  */
 public class ExtLatexExporterByDate extends LatexExporterByDate {
 
-    /** The log associated to this class */
-    private static Logger log = LogManager
-	    .getLogger(ExtLatexExporterByDate.class);
+    /**
+     * The name of the template of a report in the header / footer folder.
+     */
+    public static final String REPORT_TEMPLATE = "ext_report_by_date.tmpl";
+
+    /** The default template of a report. */
+    public static final String DEFAULT_REPORT_TEMPLATE = "% General observation data\n"
+	    + "\\begin{tabular}[t]{ll}\n"
+	    + "{\\bf ${DATE_NAME.colName}:} & "
+	    + "${DATE_NAME} \\\\ \n"
+	    + "${?TIME_NAME}{\\bf ${TIME_NAME.colName}:} & "
+	    + "${TIME_NAME} \\\\ \n${/TIME_NAME}"
+	    + "${?LOCATION_NAME}{\\bf ${LOCATION_NAME.colName}:} & "
+	    + "${LOCATION_NAME} \\\\ \n${/LOCATION_NAME}"
+	    + "${?ALTITUDE_NAME}{\\bf ${ALTITUDE_NAME.colName}:} & "
+	    + "${ALTITUDE_NAME} \\\\ \n${/ALTITUDE_NAME}"
+	    + "${?LUNAR_PHASE_NAME}{\\bf ${LUNAR_PHASE_NAME.colName}:} & "
+	    + "${LUNAR_PHASE_NAME} \\\\ \n${/LUNAR_PHASE_NAME}"
+	    + "\\end{tabular}\n"
+	    + "\\quad\n"
+	    + "\\begin{tabular}[t]{ll}\n"
+	    + "${?TEMPERATURE_NAME}{\\bf ${TEMPERATURE_NAME.colName}:} & "
+	    + "${TEMPERATURE_NAME} \\\\ \n${/TEMPERATURE_NAME}"
+	    + "${?SEEING_NAME}{\\bf ${SEEING_NAME.colName}:} & "
+	    + "${SEEING_NAME} \\\\ \n${/SEEING_NAME}"
+	    + "${?TRANSPARENCY_NAME}{\\bf ${TRANSPARENCY_NAME.colName}:} & "
+	    + "${TRANSPARENCY_NAME} \\\\ \n${/TRANSPARENCY_NAME}"
+	    + "${?DARKNESS_NAME}{\\bf ${DARKNESS_NAME.colName}:} & "
+	    + "${DARKNESS_NAME} \\\\ \n${/DARKNESS_NAME}"
+	    + "${?TELESCOPES_NAME}{\\bf ${TELESCOPES_NAME.colName}:} & "
+	    + "${TELESCOPES_NAME} \\\\ \n${/TELESCOPES_NAME}"
+	    + "${?EYEPIECES_NAME}{\\bf ${EYEPIECES_NAME.colName}:} & "
+	    + "${EYEPIECES_NAME} \\\\ \n${/EYEPIECES_NAME}"
+	    + "${?FILTERS_NAME}{\\bf ${FILTERS_NAME.colName}:} & "
+	    + "${FILTERS_NAME} \\\\ \n${/FILTERS_NAME}"
+	    + "\\end{tabular}\n"
+	    + "% Detailed observation data\n"
+	    + "\\begin{longtable}"
+	    + "{ p{0.7in}  p{0.3in}  p{0.6in}  p{0.9in}  p{5.8in} }\n"
+	    + "\\hline \n"
+	    + "{\\bf ${TARGET_NAME.colName}}"
+	    + " & {\\bf ${CONSTELLATION_NAME.colName}}"
+	    + " & {\\bf ${TYPE_NAME.colName}}"
+	    + " & {\\bf ${POWER_NAME.colName}}"
+	    + " & {\\bf ${NOTES_NAME.colName}} \\\\ \n"
+	    + "\\hline \n"
+	    + "${*}${TARGET_NAME}"
+	    + " & ${CONSTELLATION_NAME}"
+	    + " & ${TYPE_NAME}"
+	    + " & ${POWER_NAME}"
+	    + " & ${NOTES_NAME} \\\\ \n${/*}"
+	    + "\\hline \n"
+	    + "\\end{longtable} \n"
+	    + "\\clearpage \n";
 
     /**
      * Default constructor.
@@ -56,114 +105,8 @@ public class ExtLatexExporterByDate extends LatexExporterByDate {
     @Override
     public void writeLatexContent(Writer writer, Report report)
 	    throws IOException {
-	String[] metaData = report.getMetaData();
-
-	writer.write("% General observation data\n");
-
-	// first metadata table
-	writer.write("\\begin{tabular}[t]{ll}\n");
-	writer.write("{\\bf " + ExtMetaDataCols.DATE_NAME.getColName()
-		+ ":} & " + metaData[ExtMetaDataCols.DATE_NAME.ordinal()]
-		+ " \\\\ \n");
-	if (!metaData[ExtMetaDataCols.TIME_NAME.ordinal()].isEmpty()) {
-	    writer.write("{\\bf " + ExtMetaDataCols.TIME_NAME.getColName()
-		    + ":} & " + metaData[ExtMetaDataCols.TIME_NAME.ordinal()]
-		    + " \\\\ \n");
-	}
-	if (!metaData[ExtMetaDataCols.LOCATION_NAME.ordinal()].isEmpty()) {
-	    writer.write("{\\bf " + ExtMetaDataCols.LOCATION_NAME.getColName()
-		    + ":} & "
-		    + metaData[ExtMetaDataCols.LOCATION_NAME.ordinal()]
-		    + " \\\\ \n");
-	}
-	if (!metaData[ExtMetaDataCols.ALTITUDE_NAME.ordinal()].isEmpty()) {
-	    writer.write("{\\bf " + ExtMetaDataCols.ALTITUDE_NAME.getColName()
-		    + ":} & "
-		    + metaData[ExtMetaDataCols.ALTITUDE_NAME.ordinal()]
-		    + " \\\\ \n");
-	}
-	if (!metaData[ExtMetaDataCols.LUNAR_PHASE_NAME.ordinal()].isEmpty()) {
-	    writer.write("{\\bf "
-		    + ExtMetaDataCols.LUNAR_PHASE_NAME.getColName()
-		    + ":} & "
-		    + metaData[ExtMetaDataCols.LUNAR_PHASE_NAME.ordinal()]
-			    .replace("%", "\\%") + " \\\\ \n");
-	}
-	writer.write("\\end{tabular}\n");
-	writer.write("\\quad\n");
-
-	// second metadata table
-	writer.write("\\begin{tabular}[t]{ll}\n");
-	if (!metaData[ExtMetaDataCols.TEMPERATURE_NAME.ordinal()].isEmpty()) {
-	    writer.write("{\\bf "
-		    + ExtMetaDataCols.TEMPERATURE_NAME.getColName() + ":} & "
-		    + metaData[ExtMetaDataCols.TEMPERATURE_NAME.ordinal()]
-		    + " \\\\ \n");
-	}
-	if (!metaData[ExtMetaDataCols.SEEING_NAME.ordinal()].isEmpty()) {
-	    writer.write("{\\bf " + ExtMetaDataCols.SEEING_NAME.getColName()
-		    + ":} & " + metaData[ExtMetaDataCols.SEEING_NAME.ordinal()]
-		    + " \\\\ \n");
-	}
-	if (!metaData[ExtMetaDataCols.TRANSPARENCY_NAME.ordinal()].isEmpty()) {
-	    writer.write("{\\bf "
-		    + ExtMetaDataCols.TRANSPARENCY_NAME.getColName() + ":} & "
-		    + metaData[ExtMetaDataCols.TRANSPARENCY_NAME.ordinal()]
-		    + " \\\\ \n");
-	}
-	if (!metaData[ExtMetaDataCols.DARKNESS_NAME.ordinal()].isEmpty()) {
-	    writer.write("{\\bf " + ExtMetaDataCols.DARKNESS_NAME.getColName()
-		    + ":} & "
-		    + metaData[ExtMetaDataCols.DARKNESS_NAME.ordinal()]
-		    + " \\\\ \n");
-	}
-	if (!metaData[ExtMetaDataCols.TELESCOPES_NAME.ordinal()].isEmpty()) {
-	    writer.write("{\\bf "
-		    + ExtMetaDataCols.TELESCOPES_NAME.getColName() + ":} & "
-		    + metaData[ExtMetaDataCols.TELESCOPES_NAME.ordinal()]
-		    + " \\\\ \n");
-	}
-	if (!metaData[ExtMetaDataCols.EYEPIECES_NAME.ordinal()].isEmpty()) {
-	    writer.write("{\\bf " + ExtMetaDataCols.EYEPIECES_NAME.getColName()
-		    + ":} & "
-		    + metaData[ExtMetaDataCols.EYEPIECES_NAME.ordinal()]
-		    + " \\\\ \n");
-	}
-	if (!metaData[ExtMetaDataCols.FILTERS_NAME.ordinal()].isEmpty()) {
-	    writer.write("{\\bf " + ExtMetaDataCols.FILTERS_NAME.getColName()
-		    + ":} & "
-		    + metaData[ExtMetaDataCols.FILTERS_NAME.ordinal()]
-		    + " \\\\ \n");
-	}
-	writer.write("\\end{tabular}\n");
-
-	writer.write("% Detailed observation data\n");
-	writer.write("\\begin{longtable}{ p{0.7in}  p{0.3in}  p{0.6in}  p{0.9in}  p{5.8in} }\n");
-	writer.write("\\hline \n");
-	writer.write("{\\bf " + ExtDataCols.TARGET_NAME.getColName()
-		+ "} & {\\bf " + ExtDataCols.CONSTELLATION_NAME.getColName()
-		+ "} & {\\bf " + ExtDataCols.TYPE_NAME.getColName()
-		+ "} & {\\bf " + ExtDataCols.POWER_NAME.getColName()
-		+ "} & {\\bf " + ExtDataCols.NOTES_NAME.getColName()
-		+ "} \\\\ \n");
-
-	writer.write("\\hline \n");
-
-	String[] targetEntry;
-	for (int j = 0; j < report.getDataRowNumber(); j++) {
-	    targetEntry = report.getData(j);
-	    log.debug("Target "
-		    + targetEntry[ExtDataCols.TARGET_NAME.ordinal()]);
-
-	    writer.write(targetEntry[ExtDataCols.TARGET_NAME.ordinal()] + " & "
-		    + targetEntry[ExtDataCols.CONSTELLATION_NAME.ordinal()]
-		    + " & " + targetEntry[ExtDataCols.TYPE_NAME.ordinal()]
-		    + " & " + targetEntry[ExtDataCols.POWER_NAME.ordinal()]
-		    + " & " + targetEntry[ExtDataCols.NOTES_NAME.ordinal()]
-		    + " \\\\ \n");
-	}
-	writer.write("\\hline \n");
-	writer.write("\\end{longtable} \n");
-	writer.write("\\clearpage \n");
+	getTemplate(REPORT_TEMPLATE, DEFAULT_REPORT_TEMPLATE,
+		ExtMetaDataCols.values(), ExtDataCols.values()).render(writer,
+		report.getMetaData(), report.getAllData());
     }
 }
@@ -23,17 +23,11 @@
  */
 package org.astrojournal.generator.extgen;
 
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
 import java.io.Writer;
-import java.util.List;
 
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
 import org.astrojournal.generator.Report;
+import org.astrojournal.generator.absgen.LatexEscaper;
 import org.astrojournal.generator.absgen.LatexExporterByTarget;
 
 /**
@@ -47,9 +41,27 @@ import org.astrojournal.generator.absgen.LatexExporterByTarget;
  */
 public class ExtLatexExporterByTarget extends LatexExporterByTarget {
 
-    /** The log associated to this class */
-    private static Logger log = LogManager
-	    .getLogger(ExtLatexExporterByTarget.class);
+    /**
+     * The name of the template of an observation of a target in the header /
+     * footer folder.
+     */
+    public static final String ENTRY_TEMPLATE = "ext_entry_by_target.tmpl";
+
+    /** The default template of an observation of a target. */
+    public static final String DEFAULT_ENTRY_TEMPLATE = "\\item ${DATE_NAME}"
+	    + "${?TIME_NAME}, ${TIME_NAME}${/TIME_NAME}"
+	    + "${?LOCATION_NAME}, ${LOCATION_NAME}${/LOCATION_NAME}"
+	    + "${?LUNAR_PHASE_NAME}; ${LUNAR_PHASE_NAME.colName}: "
+	    + "${LUNAR_PHASE_NAME}${/LUNAR_PHASE_NAME}"
+	    + "${?SEEING_NAME}; ${SEEING_NAME.colName}: "
+	    + "${SEEING_NAME}${/SEEING_NAME}"
+	    + "${?TRANSPARENCY_NAME}, ${TRANSPARENCY_NAME.colName}: "
+	    + "${TRANSPARENCY_NAME}${/TRANSPARENCY_NAME}"
+	    + "${?DARKNESS_NAME}, ${DARKNESS_NAME.colName}: "
+	    + "${DARKNESS_NAME}${/DARKNESS_NAME}"
+	    + "${?TELESCOPES_NAME}; ${TELESCOPES_NAME}${/TELESCOPES_NAME}"
+	    + "${?POWER_NAME}, ${POWER_NAME}${/POWER_NAME}"
+	    + ". ${NOTES_NAME}\n";
 
     /**
      * Default constructor.
@@ -59,188 +71,66 @@ public class ExtLatexExporterByTarget extends LatexExporterByTarget {
     }
 
     @Override
-    public boolean exportReports(List<Report> reports) {
-	if (resourceBundle != null) {
-	    log.info("");
-	    log.info("Exporting reports by target:");
+    protected void writeTargetHeader(Writer writer, String[] targetEntry)
+	    throws IOException {
+	if (targetEntry[ExtDataCols.TYPE_NAME.ordinal()]
+		.toLowerCase().equals("planet")
+		|| targetEntry[ExtDataCols.TARGET_NAME
+			.ordinal()].toLowerCase()
+			.equals("moon")
+		|| targetEntry[ExtDataCols.TARGET_NAME
+			.ordinal()].toLowerCase().equals("sun")
+		|| targetEntry[ExtDataCols.TYPE_NAME.ordinal()]
+			.toLowerCase().equals("asteroid")
+		|| targetEntry[ExtDataCols.TYPE_NAME.ordinal()]
+			.toLowerCase().equals("comet")) {
+	    writer.write("\\subsection{");
+	    LatexEscaper.escape(writer,
+		    targetEntry[ExtDataCols.TARGET_NAME.ordinal()]);
+	} else if (targetEntry[ExtDataCols.TYPE_NAME.ordinal()]
+		.toLowerCase().equals("star")
+		|| targetEntry[ExtDataCols.TYPE_NAME.ordinal()]
+			.toLowerCase().equals("dbl star")
+		|| targetEntry[ExtDataCols.TYPE_NAME.ordinal()]
+			.toLowerCase().equals("mlt star")) {
+	    writer.write("\\subsection{");
+	    LatexEscaper.escape(writer,
+		    targetEntry[ExtDataCols.CONSTELLATION_NAME.ordinal()]);
+	    writer.write(", ");
+	    LatexEscaper.escape(writer,
+		    targetEntry[ExtDataCols.TARGET_NAME.ordinal()]);
+	} else if (targetEntry[ExtDataCols.TYPE_NAME.ordinal()]
+		.toLowerCase().equals("galaxy")
+		&& targetEntry[ExtDataCols.TARGET_NAME
+			.ordinal()].toLowerCase().equals(
+			"milky way")) {
+	    // Don't print the constellation if we are
+	    // processing the milky way!
+	    writer.write("\\subsection{");
+	    LatexEscaper.escape(writer,
+		    targetEntry[ExtDataCols.TARGET_NAME.ordinal()]);
+	} else {
+	    writer.write("\\subsection{");
+	    LatexEscaper.escape(writer,
+		    targetEntry[ExtDataCols.TARGET_NAME.ordinal()]);
+	    writer.write(", ");
+	    LatexEscaper.escape(writer,
+		    targetEntry[ExtDataCols.CONSTELLATION_NAME.ordinal()]);
 	}
+	writer.write(", ");
+	LatexEscaper.escape(writer,
+		targetEntry[ExtDataCols.TYPE_NAME.ordinal()]);
+	writer.write("}\n");
 
-	processedTargetCache.clear();
-	for (int i = 0; i < reports.size(); i++) {
-	    Report report = reports.get(i);
-	    List<String[]> targets = report.getAllData();
-	    for (int j = 0; j < targets.size(); j++) {
-		String[] targetEntry = targets.get(j);
-		String filenameOut = computeFileName(targetEntry);
-		Writer writer = null;
-		try {
-		    if (!processedTargetCache.contains(filenameOut)) {
-			processedTargetCache.add(filenameOut);
-			// Let's create a new document
-			writer = new BufferedWriter(new OutputStreamWriter(
-				new FileOutputStream(new File(filesLocation
-					+ File.separator + reportFolder,
-					filenameOut + ".tex")), "utf-8"));
-			if (targetEntry[ExtDataCols.TYPE_NAME.ordinal()]
-				.toLowerCase().equals("planet")
-				|| targetEntry[ExtDataCols.TARGET_NAME
-					.ordinal()].toLowerCase()
-					.equals("moon")
-				|| targetEntry[ExtDataCols.TARGET_NAME
-					.ordinal()].toLowerCase().equals("sun")
-				|| targetEntry[ExtDataCols.TYPE_NAME.ordinal()]
-					.toLowerCase().equals("asteroid")
-				|| targetEntry[ExtDataCols.TYPE_NAME.ordinal()]
-					.toLowerCase().equals("comet")) {
-			    writer.write("\\subsection{"
-				    + targetEntry[ExtDataCols.TARGET_NAME
-					    .ordinal()]);
-			} else if (targetEntry[ExtDataCols.TYPE_NAME.ordinal()]
-				.toLowerCase().equals("star")
-				|| targetEntry[ExtDataCols.TYPE_NAME.ordinal()]
-					.toLowerCase().equals("dbl star")
-				|| targetEntry[ExtDataCols.TYPE_NAME.ordinal()]
-					.toLowerCase().equals("mlt star")) {
-			    writer.write("\\subsection{"
-				    + targetEntry[ExtDataCols.CONSTELLATION_NAME
-					    .ordinal()]);
-			    writer.write(", "
-				    + targetEntry[ExtDataCols.TARGET_NAME
-					    .ordinal()]);
-			} else if (targetEntry[ExtDataCols.TYPE_NAME.ordinal()]
-				.toLowerCase().equals("galaxy")
-				&& targetEntry[ExtDataCols.TARGET_NAME
-					.ordinal()].toLowerCase().equals(
-					"milky way")) {
-			    // Don't print the constellation if we are
-			    // processing the milky way!
-			    writer.write("\\subsection{"
-				    + targetEntry[ExtDataCols.TARGET_NAME
-					    .ordinal()]);
-			} else {
-			    writer.write("\\subsection{"
-				    + targetEntry[ExtDataCols.TARGET_NAME
-					    .ordinal()]);
-			    writer.write(", "
-				    + targetEntry[ExtDataCols.CONSTELLATION_NAME
-					    .ordinal()]);
-			}
-			writer.write(", "
-				+ targetEntry[ExtDataCols.TYPE_NAME.ordinal()]
-				+ "}\n");
-
-			writer.write("\\begin{itemize}\n");
-		    } else {
-			// if file was already created skip the previous two
-			// lines and continue appending text (NOTE: true)
-			writer = new BufferedWriter(new OutputStreamWriter(
-				new FileOutputStream(new File(filesLocation
-					+ File.separator + reportFolder,
-					filenameOut + ".tex"), true), "utf-8"));
-		    }
-		    String[] metaData = report.getMetaData();
-		    writer.write("\\item "
-			    + metaData[ExtMetaDataCols.DATE_NAME.ordinal()]);
-
-		    if (!metaData[ExtMetaDataCols.TIME_NAME.ordinal()]
-			    .isEmpty()) {
-			writer.write(", "
-				+ metaData[ExtMetaDataCols.TIME_NAME.ordinal()]);
-		    }
-
-		    if (!metaData[ExtMetaDataCols.LOCATION_NAME.ordinal()]
-			    .isEmpty()) {
-			writer.write(", "
-				+ metaData[ExtMetaDataCols.LOCATION_NAME
-					.ordinal()]);
-		    }
-
-		    if (!metaData[ExtMetaDataCols.LUNAR_PHASE_NAME.ordinal()]
-			    .isEmpty()) {
-			writer.write("; "
-				+ ExtMetaDataCols.LUNAR_PHASE_NAME.getColName()
-				+ ": "
-				+ metaData[ExtMetaDataCols.LUNAR_PHASE_NAME
-					.ordinal()].replace("%", "\\%"));
-		    }
-
-		    if (!metaData[ExtMetaDataCols.SEEING_NAME.ordinal()]
-			    .isEmpty()) {
-			writer.write("; "
-				+ ExtMetaDataCols.SEEING_NAME.getColName()
-				+ ": "
-				+ metaData[ExtMetaDataCols.SEEING_NAME
-					.ordinal()]);
-		    }
-
-		    if (!metaData[ExtMetaDataCols.TRANSPARENCY_NAME.ordinal()]
-			    .isEmpty()) {
-			writer.write(", "
-				+ ExtMetaDataCols.TRANSPARENCY_NAME
-					.getColName()
-				+ ": "
-				+ metaData[ExtMetaDataCols.TRANSPARENCY_NAME
-					.ordinal()]);
-		    }
-
-		    if (!metaData[ExtMetaDataCols.DARKNESS_NAME.ordinal()]
-			    .isEmpty()) {
-			writer.write(", "
-				+ ExtMetaDataCols.DARKNESS_NAME.getColName()
-				+ ": "
-				+ metaData[ExtMetaDataCols.DARKNESS_NAME
-					.ordinal()]);
-		    }
-
-		    if (!metaData[ExtMetaDataCols.TELESCOPES_NAME.ordinal()]
-			    .isEmpty()) {
-			writer.write("; "
-				+ metaData[ExtMetaDataCols.TELESCOPES_NAME
-					.ordinal()]);
-		    }
-
-		    if (!targetEntry[ExtDataCols.POWER_NAME.ordinal()]
-			    .isEmpty()) {
-			writer.write(", "
-				+ targetEntry[ExtDataCols.POWER_NAME.ordinal()]);
-		    }
-		    writer.write(". ");
-
-		    if (!targetEntry[ExtDataCols.NOTES_NAME.ordinal()]
-			    .isEmpty()) {
-			writer.write(targetEntry[ExtDataCols.NOTES_NAME
-				.ordinal()]);
-		    }
-
-		    writer.write("\n");
-
-		    // do not close the Latex 'itemize' block now because
-		    // nothing is known about other observations
-		    // for this target.
+	writer.write("\\begin{itemize}\n");
+    }
 
-		} catch (IOException ex) {
-		    log.error("Error when opening the file " + filesLocation
-			    + File.separator + filenameOut);
-		    log.debug("Error when opening the file " + filesLocation
-			    + File.separator + filenameOut, ex);
-		    return false;
-		} catch (Exception ex) {
-		    log.debug(ex);
-		    log.error(ex, ex);
-		    return false;
-		} finally {
-		    try {
-			if (writer != null)
-			    writer.close();
-		    } catch (Exception ex) {
-			log.debug(ex);
-			log.error(ex, ex);
-			return false;
-		    }
-		}
-	    }
-	}
-	return closeLists(reports);
+    @Override
+    protected void writeTargetEntry(Writer writer, String[] metaData,
+	    String[] targetEntry) throws IOException {
+	getTemplate(ENTRY_TEMPLATE, DEFAULT_ENTRY_TEMPLATE,
+		ExtMetaDataCols.values(), ExtDataCols.values()).render(writer,
+		metaData, targetEntry);
     }
 
     @Override
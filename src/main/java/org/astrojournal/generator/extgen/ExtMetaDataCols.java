@@ -1,5 +1,7 @@
 package org.astrojournal.generator.extgen;
 
+import org.astrojournal.generator.absgen.ReportColumn;
+
 /**
  * Report meta description for the extended generator.
  * 
@@ -7,7 +9,7 @@ package org.astrojournal.generator.extgen;
  * @version $Rev$
  * @since 1.0
  */
-public enum ExtMetaDataCols {
+public enum ExtMetaDataCols implements ReportColumn {
 
     /** A string containing the date name. */
     DATE_NAME("Date"),
@@ -18,9 +20,9 @@ public enum ExtMetaDataCols {
     /** A string containing the altitude name. */
     ALTITUDE_NAME("Altitude"),
     /** A string containing the lunar phase. */
-    LUNAR_PHASE_NAME("Lunar Phase"),
+    LUNAR_PHASE_NAME("Lunar Phase", "Moon Phase"),
     /** A string containing the temperature name. */
-    TEMPERATURE_NAME("Temperature"),
+    TEMPERATURE_NAME("Temperature", "Temp"),
     /** A string containing the seeing name. */
     SEEING_NAME("Seeing"),
     /** A string containing the transparency name. */
@@ -28,16 +30,19 @@ public enum ExtMetaDataCols {
     /** A string containing the darkness name. */
     DARKNESS_NAME("Darkness"),
     /** A string containing the list of telescopes name. */
-    TELESCOPES_NAME("Telescopes"),
+    TELESCOPES_NAME("Telescopes", "Telescope"),
     /** A string containing the list of eyepieces name. */
-    EYEPIECES_NAME("Eyepieces"),
+    EYEPIECES_NAME("Eyepieces", "Eyepiece"),
     /** A string containing the filters name. */
-    FILTERS_NAME("Filters");
+    FILTERS_NAME("Filters", "Filter");
 
     private String colName;
 
-    private ExtMetaDataCols(String colName) {
+    private String[] aliases;
+
+    private ExtMetaDataCols(String colName, String... aliases) {
 	this.colName = colName;
+	this.aliases = aliases;
     }
 
     /**
@@ -45,7 +50,18 @@ public enum ExtMetaDataCols {
      * 
      * @return the colName
      */
+    @Override
     public String getColName() {
 	return this.colName;
     }
+
+    /**
+     * Return the other names accepted for this column in the raw reports.
+     * 
+     * @return the aliases
+     */
+    @Override
+    public String[] getAliases() {
+	return this.aliases;
+    }
 }
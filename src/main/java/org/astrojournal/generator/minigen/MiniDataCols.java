@@ -1,5 +1,7 @@
 package org.astrojournal.generator.minigen;
 
+import org.astrojournal.generator.absgen.ReportColumn;
+
 /**
  * Target description for the minimal generator.
  * 
@@ -7,19 +9,22 @@ package org.astrojournal.generator.minigen;
  * @version $Rev$
  * @since 1.0
  */
-public enum MiniDataCols {
+public enum MiniDataCols implements ReportColumn {
 
     /** A string containing the target name. */
-    TARGET_NAME("Target"),
+    TARGET_NAME("Target", "Object"),
     /** A string containing the constellation name. */
-    CONSTELLATION_NAME("Cons"),
+    CONSTELLATION_NAME("Cons", "Constellation"),
     /** A string containing the type name. */
     TYPE_NAME("Type");
 
     private String colName;
 
-    private MiniDataCols(String colName) {
+    private String[] aliases;
+
+    private MiniDataCols(String colName, String... aliases) {
 	this.colName = colName;
+	this.aliases = aliases;
     }
 
     /**
@@ -27,8 +32,19 @@ public enum MiniDataCols {
      * 
      * @return the colName
      */
+    @Override
     public String getColName() {
 	return this.colName;
     }
 
+    /**
+     * Return the other names accepted for this column in the raw reports.
+     * 
+     * @return the aliases
+     */
+    @Override
+    public String[] getAliases() {
+	return this.aliases;
+    }
+
 }
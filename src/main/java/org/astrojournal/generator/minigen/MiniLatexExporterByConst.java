@@ -23,22 +23,20 @@
  */
 package org.astrojournal.generator.minigen;
 
-import java.io.File;
 import java.io.IOException;
 import java.io.Writer;
-import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 
-import org.apache.commons.io.comparator.NameFileComparator;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.astrojournal.generator.Report;
+import org.astrojournal.generator.absgen.ExportManifest.ExportedFile;
+import org.astrojournal.generator.absgen.LatexEscaper;
 import org.astrojournal.generator.absgen.LatexExporterByConst;
 import org.astrojournal.generator.headfoot.LatexFooter;
 import org.astrojournal.generator.headfoot.LatexHeader;
 import org.astrojournal.generator.statistics.BasicStatistics;
-import org.astrojournal.utilities.filefilters.LaTeXFilter;
 
 /**
  * Exports the observed targets by constellation to Latex code. This is an basic
@@ -70,33 +68,16 @@ public class MiniLatexExporterByConst extends LatexExporterByConst {
 	writer.write(latexHeader.getHeader());
 
 	// write the Latex Body
-	// parse each file in the latex folder
-	File[] files = new File(filesLocation + File.separator + reportFolder)
-		.listFiles(new LaTeXFilter());
-	if (files == null) {
-	    throw new Exception("Folder " + filesLocation + File.separator
-		    + reportFolder + " not found");
-	}
-	// sort the constellations when we parse the files
-	Arrays.sort(files, NameFileComparator.NAME_COMPARATOR);
-
-	String currConst = "", filename = "";
-	// If this pathname does not denote a directory, then listFiles()
-	// returns null.
-	for (File file : files) {
-	    filename = file.getName();
-	    if (file.isFile()) {
-		if (!currConst.equals(filename.substring(
-			filename.indexOf("_") + 1, filename.indexOf(".")))) {
-		    currConst = filename.substring(filename.indexOf("_") + 1,
-			    filename.indexOf("."));
-		    writer.write("\\section{" + currConst + "}\n");
-		}
-		// include the file removing the extension .tex
-		writer.write("\\input{" + reportFolder + "/"
-			+ filename.replaceFirst("[.][^.]+$", "") + "}\n");
-		// writerByConst.write("\\clearpage \n");
+	// include each exported constellation (sorted by name)
+	String currConst = "";
+	for (ExportedFile file : getExportedFiles(ExportedFile.BY_NAME)) {
+	    if (!currConst.equals(file.getConstellation())) {
+		currConst = file.getConstellation();
+		writer.write("\\section{");
+		LatexEscaper.escape(writer, currConst);
+		writer.write("}\n");
 	    }
+	    writeInput(writer, file.getPath());
 	}
 
 	// write the Latex Footer
@@ -29,17 +29,16 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
-import java.util.Arrays;
-import java.util.Collections;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.astrojournal.generator.Report;
+import org.astrojournal.generator.absgen.ExportManifest.ExportedFile;
+import org.astrojournal.generator.absgen.LatexEscaper;
 import org.astrojournal.generator.absgen.LatexExporterByDate;
 import org.astrojournal.generator.headfoot.LatexFooter;
 import org.astrojournal.generator.headfoot.LatexHeader;
 import org.astrojournal.generator.statistics.BasicStatistics;
-import org.astrojournal.utilities.filefilters.LaTeXFilter;
 
 /**
  * Exports an AstroJournal observation to LaTeX code. This is an extended
@@ -67,6 +66,7 @@ public class MiniLatexExporterByDate extends LatexExporterByDate {
     public boolean generateJournal(BasicStatistics basicStatistics) {
 	LatexHeader latexHeader = new LatexHeader();
 	LatexFooter latexFooter = new LatexFooter();
+	includedFiles.clear();
 	Writer writer = null;
 	try {
 	    writer = new BufferedWriter(new OutputStreamWriter(
@@ -117,32 +117,15 @@ public class MiniLatexExporterByDate extends LatexExporterByDate {
 	writer.write("\\section*{Observation reports}\n");
 	writer.write("\\vspace{4 mm}\n");
 	writer.write("\\hspace{4 mm}\n");
-	// parse each file in the latex obs folder (sorted by observation
-	// increasing)
-	// If this pathname does not denote a directory, then listFiles()
-	// returns null.
-	File[] files = new File(filesLocation + File.separator + reportFolder)
-		.listFiles(new LaTeXFilter());
-	if (files == null) {
-	    throw new Exception("Folder " + filesLocation + File.separator
-		    + reportFolder + " not found");
-	}
-	Arrays.sort(files, Collections.reverseOrder());
+	// include each exported report (sorted by observation decreasing)
 	String currentYear = "";
-	for (File file : files) {
-	    if (file.isFile()) {
-		if (file.getName().equals("BasicStatistics.tex")) {
-		    continue;
-		}
-		if (!currentYear.equals(file.getName().substring(0, 4))) {
-		    // collect observations by year
-		    currentYear = file.getName().substring(0, 4);
-		    writer.write("\\subsection*{" + currentYear + "}\n");
-		}
-		// include the file removing the extension .tex
-		writer.write("\\input{" + reportFolder + "/"
-			+ file.getName().replaceFirst("[.][^.]+$", "") + "}\n");
+	for (ExportedFile file : getExportedFiles(ExportedFile.BY_DATE)) {
+	    if (!currentYear.equals(file.getYear())) {
+		// collect observations by year
+		currentYear = file.getYear();
+		writer.write("\\subsection*{" + currentYear + "}\n");
 	    }
+	    writeInput(writer, file.getPath());
 	}
 
 	// write the Latex Footer
@@ -155,8 +138,10 @@ public class MiniLatexExporterByDate extends LatexExporterByDate {
 	String[] metaData = report.getMetaData();
 	writer.write("% General observation data\n");
 	writer.write("\\par");
-	writer.write("{\\bf " + metaData[MiniMetaDataCols.DATE_NAME.ordinal()]
-		+ " :} ");
+	writer.write("{\\bf ");
+	LatexEscaper.escape(writer,
+		metaData[MiniMetaDataCols.DATE_NAME.ordinal()]);
+	writer.write(" :} ");
 
 	writer.write("% Detailed observation data\n");
 	String[] targetEntry;
@@ -165,7 +150,8 @@ public class MiniLatexExporterByDate extends LatexExporterByDate {
 	    log.debug("Target "
 		    + targetEntry[MiniDataCols.TARGET_NAME.ordinal()]);
 
-	    writer.write(targetEntry[MiniDataCols.TARGET_NAME.ordinal()]);
+	    LatexEscaper.escape(writer,
+		    targetEntry[MiniDataCols.TARGET_NAME.ordinal()]);
 
 	    if (j < report.getDataRowNumber() - 1) {
 		writer.write(", ");
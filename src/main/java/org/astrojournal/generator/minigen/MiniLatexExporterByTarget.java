@@ -29,11 +29,11 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
-import java.util.List;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.astrojournal.generator.Report;
+import org.astrojournal.generator.absgen.LatexEscaper;
 import org.astrojournal.generator.absgen.LatexExporterByTarget;
 import org.astrojournal.generator.headfoot.LatexFooter;
 import org.astrojournal.generator.headfoot.LatexHeader;
@@ -65,6 +65,11 @@ public class MiniLatexExporterByTarget extends LatexExporterByTarget {
     public boolean generateJournal(BasicStatistics basicStatistics) {
 	LatexHeader latexHeader = new LatexHeader();
 	LatexFooter latexFooter = new LatexFooter();
+	includedFiles.clear();
+	if (splitByCatalogue) {
+	    return generateSplitJournal(latexHeader, latexFooter,
+		    basicStatistics);
+	}
 	Writer writer = null;
 	try {
 	    writer = new BufferedWriter(new OutputStreamWriter(
@@ -98,116 +103,72 @@ public class MiniLatexExporterByTarget extends LatexExporterByTarget {
     }
 
     @Override
-    public boolean exportReports(List<Report> reports) {
-	if (resourceBundle != null) {
-	    log.info("");
-	    log.info("Exporting reports by target:");
+    protected void writeTargetHeader(Writer writer, String[] targetEntry)
+	    throws IOException {
+	if (targetEntry[MiniDataCols.TYPE_NAME.ordinal()]
+		.toLowerCase().equals("planet")
+		|| targetEntry[MiniDataCols.TARGET_NAME
+			.ordinal()].toLowerCase()
+			.equals("moon")
+		|| targetEntry[MiniDataCols.TARGET_NAME
+			.ordinal()].toLowerCase().equals("sun")
+		|| targetEntry[MiniDataCols.TYPE_NAME.ordinal()]
+			.toLowerCase().equals("asteroid")
+		|| targetEntry[MiniDataCols.TYPE_NAME.ordinal()]
+			.toLowerCase().equals("comet")) {
+	    writer.write("\\subsection*{");
+	    LatexEscaper.escape(writer,
+		    targetEntry[MiniDataCols.TARGET_NAME.ordinal()]);
+	} else if (targetEntry[MiniDataCols.TYPE_NAME.ordinal()]
+		.toLowerCase().equals("star")
+		|| targetEntry[MiniDataCols.TYPE_NAME.ordinal()]
+			.toLowerCase().equals("dbl star")
+		|| targetEntry[MiniDataCols.TYPE_NAME.ordinal()]
+			.toLowerCase().equals("mlt star")) {
+	    writer.write("\\subsection*{");
+	    LatexEscaper.escape(writer,
+		    targetEntry[MiniDataCols.CONSTELLATION_NAME.ordinal()]);
+	    writer.write(", ");
+	    LatexEscaper.escape(writer,
+		    targetEntry[MiniDataCols.TARGET_NAME.ordinal()]);
+	} else if (targetEntry[MiniDataCols.TYPE_NAME.ordinal()]
+		.toLowerCase().equals("galaxy")
+		&& targetEntry[MiniDataCols.TARGET_NAME
+			.ordinal()].toLowerCase().equals(
+			"milky way")) {
+	    // Don't print the constellation if we are
+	    // processing the milky way!
+	    writer.write("\\subsection*{");
+	    LatexEscaper.escape(writer,
+		    targetEntry[MiniDataCols.TARGET_NAME.ordinal()]);
+	} else {
+	    writer.write("\\subsection*{");
+	    LatexEscaper.escape(writer,
+		    targetEntry[MiniDataCols.TARGET_NAME.ordinal()]);
+	    writer.write(", ");
+	    LatexEscaper.escape(writer,
+		    targetEntry[MiniDataCols.CONSTELLATION_NAME.ordinal()]);
 	}
+	writer.write(", ");
+	LatexEscaper.escape(writer,
+		targetEntry[MiniDataCols.TYPE_NAME.ordinal()]);
+	writer.write("}\n");
 
-	processedTargetCache.clear();
-	for (int i = 0; i < reports.size(); i++) {
-	    Report report = reports.get(i);
-	    List<String[]> targets = report.getAllData();
-	    for (int j = 0; j < targets.size(); j++) {
-		String[] targetEntry = targets.get(j);
-		String filenameOut = computeFileName(targetEntry);
-		Writer writer = null;
-		try {
-		    if (!processedTargetCache.contains(filenameOut)) {
-			processedTargetCache.add(filenameOut);
-			// Let's create a new document
-			writer = new BufferedWriter(new OutputStreamWriter(
-				new FileOutputStream(new File(filesLocation
-					+ File.separator + reportFolder,
-					filenameOut + ".tex")), "utf-8"));
-			if (targetEntry[MiniDataCols.TYPE_NAME.ordinal()]
-				.toLowerCase().equals("planet")
-				|| targetEntry[MiniDataCols.TARGET_NAME
-					.ordinal()].toLowerCase()
-					.equals("moon")
-				|| targetEntry[MiniDataCols.TARGET_NAME
-					.ordinal()].toLowerCase().equals("sun")
-				|| targetEntry[MiniDataCols.TYPE_NAME.ordinal()]
-					.toLowerCase().equals("asteroid")
-				|| targetEntry[MiniDataCols.TYPE_NAME.ordinal()]
-					.toLowerCase().equals("comet")) {
-			    writer.write("\\subsection*{"
-				    + targetEntry[MiniDataCols.TARGET_NAME
-					    .ordinal()]);
-			} else if (targetEntry[MiniDataCols.TYPE_NAME.ordinal()]
-				.toLowerCase().equals("star")
-				|| targetEntry[MiniDataCols.TYPE_NAME.ordinal()]
-					.toLowerCase().equals("dbl star")
-				|| targetEntry[MiniDataCols.TYPE_NAME.ordinal()]
-					.toLowerCase().equals("mlt star")) {
-			    writer.write("\\subsection*{"
-				    + targetEntry[MiniDataCols.CONSTELLATION_NAME
-					    .ordinal()]);
-			    writer.write(", "
-				    + targetEntry[MiniDataCols.TARGET_NAME
-					    .ordinal()]);
-			} else if (targetEntry[MiniDataCols.TYPE_NAME.ordinal()]
-				.toLowerCase().equals("galaxy")
-				&& targetEntry[MiniDataCols.TARGET_NAME
-					.ordinal()].toLowerCase().equals(
-					"milky way")) {
-			    // Don't print the constellation if we are
-			    // processing the milky way!
-			    writer.write("\\subsection*{"
-				    + targetEntry[MiniDataCols.TARGET_NAME
-					    .ordinal()]);
-			} else {
-			    writer.write("\\subsection*{"
-				    + targetEntry[MiniDataCols.TARGET_NAME
-					    .ordinal()]);
-			    writer.write(", "
-				    + targetEntry[MiniDataCols.CONSTELLATION_NAME
-					    .ordinal()]);
-			}
-			writer.write(", "
-				+ targetEntry[MiniDataCols.TYPE_NAME.ordinal()]
-				+ "}\n");
+	writer.write("\\par\n");
+    }
 
-			writer.write("\\par\n");
-		    } else {
-			// if file was already created skip the previous two
-			// lines and continue appending text (NOTE: true)
-			writer = new BufferedWriter(new OutputStreamWriter(
-				new FileOutputStream(new File(filesLocation
-					+ File.separator + reportFolder,
-					filenameOut + ".tex"), true), "utf-8"));
-		    }
-		    String[] metaData = report.getMetaData();
-		    writer.write("("
-			    + metaData[MiniMetaDataCols.DATE_NAME.ordinal()]
-			    + ") \n");
+    @Override
+    protected void writeTargetEntry(Writer writer, String[] metaData,
+	    String[] targetEntry) throws IOException {
+	writer.write("(");
+	LatexEscaper.escape(writer,
+		metaData[MiniMetaDataCols.DATE_NAME.ordinal()]);
+	writer.write(") \n");
+    }
 
-		} catch (IOException ex) {
-		    log.error("Error when opening the file " + filesLocation
-			    + File.separator + filenameOut);
-		    log.debug("Error when opening the file " + filesLocation
-			    + File.separator + filenameOut, ex);
-		    return false;
-		} catch (Exception ex) {
-		    log.debug(ex);
-		    log.error(ex, ex);
-		    return false;
-		} finally {
-		    try {
-			if (writer != null)
-			    writer.close();
-		    } catch (Exception ex) {
-			log.debug(ex);
-			log.error(ex, ex);
-			return false;
-		    }
-		    if (resourceBundle != null) {
-			log.info("\tExported target " + filenameOut);
-		    }
-		}
-	    }
-	}
-	return true;
+    @Override
+    protected void writeTargetFooter(Writer writer) throws IOException {
+	// targets are not listed
     }
 
     @Override
@@ -224,9 +185,7 @@ public class MiniLatexExporterByTarget extends LatexExporterByTarget {
     public void writeSectionStatistics(Writer writer) throws Exception {
 	writer.write("\\clearpage\n");
 	writer.write("\\section*{Basic Statistics}\n");
-	// include the file removing the extension .tex
-	writer.write("\\input{" + reportFolder + "/"
-		+ basicStatisticsFilename.replaceFirst("[.][^.]+$", "") + "}\n");
+	writeInput(writer, getReportFile(basicStatisticsFilename));
     }
 
     @Override
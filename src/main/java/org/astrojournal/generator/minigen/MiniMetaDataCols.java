@@ -1,5 +1,7 @@
 package org.astrojournal.generator.minigen;
 
+import org.astrojournal.generator.absgen.ReportColumn;
+
 /**
  * Report meta description for the minimal generator.
  * 
@@ -7,15 +9,18 @@ package org.astrojournal.generator.minigen;
  * @version $Rev$
  * @since 1.0
  */
-public enum MiniMetaDataCols {
+public enum MiniMetaDataCols implements ReportColumn {
 
     /** A string containing the date name. */
     DATE_NAME("Date");
 
     private String colName;
 
-    private MiniMetaDataCols(String colName) {
+    private String[] aliases;
+
+    private MiniMetaDataCols(String colName, String... aliases) {
 	this.colName = colName;
+	this.aliases = aliases;
     }
 
     /**
@@ -23,7 +28,18 @@ public enum MiniMetaDataCols {
      * 
      * @return the colName
      */
+    @Override
     public String getColName() {
 	return this.colName;
     }
+
+    /**
+     * Return the other names accepted for this column in the raw reports.
+     * 
+     * @return the aliases
+     */
+    @Override
+    public String[] getAliases() {
+	return this.aliases;
+    }
 }
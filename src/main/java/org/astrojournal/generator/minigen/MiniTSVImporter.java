@@ -23,14 +23,15 @@
  */
 package org.astrojournal.generator.minigen;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.util.Arrays;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.astrojournal.generator.Report;
+import org.astrojournal.generator.absgen.ColumnTable;
 import org.astrojournal.generator.absgen.TSVImporter;
+import org.astrojournal.generator.absgen.TSVTokenizer;
 import org.astrojournal.generator.basicgen.BasicMetaDataCols;
 
 /**
@@ -46,6 +47,14 @@ public class MiniTSVImporter extends TSVImporter {
     /** The log associated to this class */
     private static Logger log = LogManager.getLogger(MiniTSVImporter.class);
 
+    /** The lookup table for the meta data names. */
+    private static final ColumnTable<MiniMetaDataCols> META_DATA_COLS = new ColumnTable<MiniMetaDataCols>(
+	    MiniMetaDataCols.values());
+
+    /** The lookup table for the data column names. */
+    private static final ColumnTable<MiniDataCols> DATA_COLS = new ColumnTable<MiniDataCols>(
+	    MiniDataCols.values());
+
     /**
      * Default constructor
      */
@@ -56,105 +65,88 @@ public class MiniTSVImporter extends TSVImporter {
     /**
      * Imports a report record
      * 
-     * @param reader
-     *            the buffered reader associated to the file
+     * @param tokenizer
+     *            the tokenizer associated to the file, positioned on the
+     *            first line of the record
      * @param report
      *            the object containing the observation to import
-     * @param line
-     *            the current line parsed in the file (the first line of the
-     *            record)
-     * @param delimiter
-     *            the field delimiter
      * @throws IOException
-     *             if reader cannot read the observation
+     *             if tokenizer cannot read the observation
      */
     @Override
-    protected void importReport(BufferedReader reader, Report report,
-	    String line, String delimiter) throws IOException {
-	// log.debug(line);
-	// copy the first line
-	values = line.split(delimiter);
-	// clean the field values if containing quotes at the beginning or end
-	cleanFields();
-	metaEntry = new String[MiniMetaDataCols.values().length];
+    protected void importReport(TSVTokenizer tokenizer, Report report)
+	    throws IOException {
+	// log.debug(tokenizer.getLine());
+	// the field values are already cleaned from quotes at the beginning or
+	// end
+	String[] metaEntry = new String[MiniMetaDataCols.values().length];
 	Arrays.fill(metaEntry, "");
-	if (values.length == 2) {
-	    setMetaData(MiniMetaDataCols.DATE_NAME);
+	if (tokenizer.getFieldCount() == 2
+		&& META_DATA_COLS.get(tokenizer, 0) == MiniMetaDataCols.DATE_NAME) {
+	    setMetaData(tokenizer, metaEntry, MiniMetaDataCols.DATE_NAME);
 	}
 	// Read the other lines for this observation
-	while ((line = reader.readLine()) != null) {
-	    line = line.trim();
-	    values = line.split(delimiter);
-	    // clean the field values if containing quotes at the beginning or
-	    // end
-	    cleanFields();
-	    if (values.length == 0 || line.equals("")) {
+	while (tokenizer.nextLine()) {
+	    if (tokenizer.isEmptyLine()) {
 		return;
 	    }
 
-	    if (values.length >= 3) {
+	    if (tokenizer.getFieldCount() >= 3) {
 
 		report.addMetaData(metaEntry);
 
-		if (values[0].toLowerCase().equals(
-			MiniDataCols.TARGET_NAME.getColName().toLowerCase())
-			&& values[1].toLowerCase().equals(
-				MiniDataCols.CONSTELLATION_NAME.getColName()
-					.toLowerCase())
-			&& values[2].toLowerCase().equals(
-				MiniDataCols.TYPE_NAME.getColName()
-					.toLowerCase())) {
+		// the data columns can be in any order
+		int[] fieldColumns = DATA_COLS.getFieldColumns(tokenizer);
+		if (fieldColumns != null) {
 
+		    int nFields = getRequiredFieldCount(fieldColumns);
 		    String[] targetEntry;
-		    while ((line = reader.readLine()) != null) {
-			line = line.trim();
-			values = line.split(delimiter);
-			// clean the field values if containing quotes at the
-			// beginning or end
-			cleanFields();
-			if (line.equals("")) {
+		    while (tokenizer.nextLine()) {
+			if (tokenizer.isEmptyLine()) {
 			    return;
 			}
-			if (values.length < 3) {
+			if (tokenizer.getFieldCount() < nFields) {
 			    log.warn("Report:"
 				    + metaEntry[MiniMetaDataCols.DATE_NAME
 					    .ordinal()]
-				    + ". Malformed target [" + line
+				    + ". Malformed target ["
+				    + tokenizer.getLine()
 				    + "]. Target discarded.");
 			    break;
 			}
 			targetEntry = new String[MiniDataCols.values().length];
 			Arrays.fill(targetEntry, "");
-			targetEntry[MiniDataCols.TARGET_NAME.ordinal()] = values[0];
-			log.debug(MiniDataCols.TARGET_NAME + "=" + values[0]);
-			targetEntry[MiniDataCols.CONSTELLATION_NAME.ordinal()] = values[1];
-			log.debug(MiniDataCols.CONSTELLATION_NAME + "="
-				+ values[1]);
-			targetEntry[MiniDataCols.TYPE_NAME.ordinal()] = values[2];
-			log.debug(MiniDataCols.TYPE_NAME + "=" + values[2]);
+			setData(tokenizer, targetEntry, fieldColumns);
 			report.addData(targetEntry);
 		    }
 		} else {
 		    log.warn("Report:"
 			    + metaEntry[MiniMetaDataCols.DATE_NAME.ordinal()]
-			    + ". Unknown property [" + values[0] + "]");
+			    + ". Unknown property [" + tokenizer.getField(0)
+			    + "]");
 		}
 	    } else {
 		log.warn("Report:"
 			+ metaEntry[BasicMetaDataCols.DATE_NAME.ordinal()]
-			+ ". Discarding line [" + line + "].");
+			+ ". Discarding line [" + tokenizer.getLine() + "].");
 	    }
 	}
     }
 
-    /** Set the meta data */
-    private boolean setMetaData(MiniMetaDataCols column) {
-	if (values[0].toLowerCase().equals(column.getColName().toLowerCase())) {
-	    metaEntry[column.ordinal()] = values[1];
-	    log.debug(column + "=" + values[1]);
-	    return true;
-	}
-	return false;
+    /**
+     * Set the meta data.
+     * 
+     * @param tokenizer
+     *            the tokenizer positioned on the current line
+     * @param metaEntry
+     *            the meta data for the current report
+     * @param column
+     *            the meta data column to set
+     */
+    private void setMetaData(TSVTokenizer tokenizer, String[] metaEntry,
+	    MiniMetaDataCols column) {
+	metaEntry[column.ordinal()] = tokenizer.getField(1);
+	log.debug(column + "=" + metaEntry[column.ordinal()]);
     }
 
 }
@@ -24,14 +24,15 @@
 package org.astrojournal.generator.statistics;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 import org.apache.commons.lang3.mutable.MutableFloat;
 import org.apache.commons.lang3.mutable.MutableInt;
 import org.astrojournal.generator.Report;
+import org.astrojournal.generator.ReportDictionary;
 import org.astrojournal.generator.extgen.ExtDataCols;
 import org.astrojournal.generator.extgen.ExtMetaDataCols;
 
@@ -90,28 +91,37 @@ public class BasicStatistics {
      */
     public boolean process(List<Report> reports) {
 	String entry = "";
-	Set<String> processedTargets = new HashSet<String>();
+	// targets and types are grouped by their normalised dictionary codes.
+	// The type counts grow with the codes of the types found.
+	ReportDictionary dictionary = Report.getDictionary();
+	int emptyCode = dictionary.encode("");
+	BitSet processedTargets = new BitSet();
+	int[] typeCodeCount = new int[64];
 	for (int i = 0; i < reports.size(); i++) {
 	    Report report = reports.get(i);
 	    String[] metaData = report.getMetaData();
-	    List<String[]> targets = report.getAllData();
+	    int nTargets = report.getDataRowNumber();
 
 	    // extract and count the type
-	    if (!targets.isEmpty()
-		    && targets.get(0).length > ExtDataCols.TYPE_NAME.ordinal()) {
-		for (int j = 0; j < targets.size(); j++) {
-		    String[] targetEntry = targets.get(j);
+	    if (nTargets > 0
+		    && report.getDataLength(0) > ExtDataCols.TYPE_NAME
+			    .ordinal()) {
+		for (int j = 0; j < nTargets; j++) {
+		    int target = dictionary.normalise(report.getDataCode(j,
+			    ExtDataCols.TARGET_NAME.ordinal()));
 		    // Process targets only once.
-		    if (!processedTargets
-			    .contains(targetEntry[ExtDataCols.TARGET_NAME
-				    .ordinal()].trim().toLowerCase())) {
-			processedTargets
-				.add(targetEntry[ExtDataCols.TARGET_NAME
-					.ordinal()].trim().toLowerCase());
-			entry = targetEntry[ExtDataCols.TYPE_NAME.ordinal()];
-			if (!entry.isEmpty()) {
-			    incrementIntMap(typeCount, entry.trim()
-				    .toLowerCase());
+		    if (!processedTargets.get(target)) {
+			processedTargets.set(target);
+			int type = report.getDataCode(j,
+				ExtDataCols.TYPE_NAME.ordinal());
+			if (type != emptyCode) {
+			    type = dictionary.normalise(type);
+			    if (type >= typeCodeCount.length) {
+				typeCodeCount = Arrays.copyOf(typeCodeCount,
+					Math.max(type + 1,
+						2 * typeCodeCount.length));
+			    }
+			    typeCodeCount[type]++;
 			}
 		    }
 		}
@@ -172,6 +182,17 @@ public class BasicStatistics {
 
 	// post processing
 
+	// Count of the types
+	for (int code = 0; code < typeCodeCount.length; code++) {
+	    if (typeCodeCount[code] > 0) {
+		entry = dictionary.decode(code);
+		if (!typeCount.containsKey(entry)) {
+		    typeCount.put(entry, new MutableInt());
+		}
+		typeCount.get(entry).add(typeCodeCount[code]);
+	    }
+	}
+
 	// Average reports per month
 	// Scale by the number of years
 	String[] keys = monthlyReportsAvg.keySet().toArray(new String[0]);
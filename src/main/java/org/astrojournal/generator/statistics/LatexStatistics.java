@@ -35,6 +35,7 @@ import org.apache.commons.lang3.mutable.MutableFloat;
 import org.apache.commons.lang3.mutable.MutableInt;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.astrojournal.generator.absgen.LatexEscaper;
 
 /**
  * A generic latex Exporter.
@@ -120,8 +121,9 @@ public class LatexStatistics {
 	for (String key : sortedKeys) {
 	    log.debug("Count(" + key.toUpperCase() + "): "
 		    + basicStatistics.getIntCount(typeCount, key));
-	    writer.write(key.toUpperCase() + " & "
-		    + basicStatistics.getIntCount(typeCount, key) + "\\\\ \n");
+	    LatexEscaper.escape(writer, key.toUpperCase());
+	    writer.write(" & " + basicStatistics.getIntCount(typeCount, key)
+		    + "\\\\ \n");
 	}
 	writer.write("\\hline \n");
 	writer.write("\\end{tabular} \n");
@@ -159,9 +161,9 @@ public class LatexStatistics {
 		    + key.substring(0, Math.min(30, key.length()))
 			    .toUpperCase() + "): "
 		    + basicStatistics.getIntCount(locationCount, key));
-	    writer.write(key.substring(0, Math.min(30, key.length()))
-		    .toUpperCase()
-		    + " & "
+	    LatexEscaper.escape(writer,
+		    key.substring(0, Math.min(30, key.length())).toUpperCase());
+	    writer.write(" & "
 		    + basicStatistics.getIntCount(locationCount, key)
 		    + "\\\\ \n");
 	}
@@ -207,9 +209,9 @@ public class LatexStatistics {
 		    + basicStatistics.getLocationWeatherAvgs(key, 0) + ", "
 		    + basicStatistics.getLocationWeatherAvgs(key, 1) + ", "
 		    + basicStatistics.getLocationWeatherAvgs(key, 2));
-	    writer.write(key.substring(0, Math.min(30, key.length()))
-		    .toUpperCase()
-		    + " & "
+	    LatexEscaper.escape(writer,
+		    key.substring(0, Math.min(30, key.length())).toUpperCase());
+	    writer.write(" & "
 		    + basicStatistics.getIntCount(locationCount, key)
 		    + " & "
 		    + basicStatistics.getLocationWeatherAvgs(key, 0)
@@ -26,11 +26,24 @@ package org.astrojournal.utilities;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.ResourceBundle;
+import java.util.StringTokenizer;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 /**
- * A simple class to run an external command from AstroJournal.
+ * A simple class to run an external command from AstroJournal. The output
+ * and the errors of the command are read at the same time by two threads, so
+ * that the command never blocks on a full pipe, and each line is logged as
+ * soon as it is read.
  * 
  * @author Piero Dalle Pezze
  * @version $Rev$
@@ -38,12 +51,34 @@ import java.util.ResourceBundle;
  */
 public class RunExternalCommand {
 
+    /** The log associated to this class */
+    private static Logger log = LogManager.getLogger(RunExternalCommand.class);
+
+    /** The timer destroying the commands which run out of time. */
+    private static final Timer WATCHDOG = new Timer(
+	    "RunExternalCommand watchdog", true);
+
+    /**
+     * The maximum time for reading the rest of the output once the command
+     * terminated in milliseconds.
+     */
+    private static final long DRAIN_TIMEOUT = 5000;
+
     /** The files location. */
     private String filesLocation = System.getProperty("user.home");
 
     /** The Resource Bundle object. */
     private ResourceBundle resourceBundle = null;
 
+    /** The maximum time of a command in milliseconds (0 for no limit). */
+    private long timeout = 0;
+
+    /** True if the output of the command is returned. */
+    private boolean outputCollected = true;
+
+    /** The exit value of the last command. */
+    private int exitValue = 0;
+
     /**
      * Constructor
      * 
@@ -59,25 +94,104 @@ public class RunExternalCommand {
     }
 
     /**
-     * Run a command
+     * Set the maximum time of a command. A command running longer is
+     * destroyed.
+     * 
+     * @param timeout
+     *            the maximum time in milliseconds (0 for no limit)
+     */
+    public void setTimeout(long timeout) {
+	this.timeout = timeout;
+    }
+
+    /**
+     * Set true if the output of the command is returned. Otherwise, the output
+     * is only logged and is not kept in memory.
+     * 
+     * @param outputCollected
+     *            the outputCollected to set
+     */
+    public void setOutputCollected(boolean outputCollected) {
+	this.outputCollected = outputCollected;
+    }
+
+    /**
+     * Return the exit value of the last command run. By convention, a value
+     * different from 0 means that the command failed.
+     * 
+     * @return the exit value
+     */
+    public int getExitValue() {
+	return exitValue;
+    }
+
+    /**
+     * Run a command. The command is split into arguments at the white spaces
+     * and is run without a shell. The exit value of the command is returned
+     * by getExitValue().
      * 
      * @param command
      *            The command to run
      * @throws IOException
-     * @return the output and output error for the executed command
+     *             if the command cannot be run, runs out of time or is
+     *             interrupted
+     * @return the output and output error for the executed command (empty if
+     *         the output is not collected)
      */
     public String runCommand(String command) throws IOException {
+	List<String> arguments = new ArrayList<String>();
+	StringTokenizer tokenizer = new StringTokenizer(command);
+	while (tokenizer.hasMoreTokens()) {
+	    arguments.add(tokenizer.nextToken());
+	}
+	final Process p = new ProcessBuilder(arguments).directory(
+		new File(filesLocation)).start();
+	// NOTE: the command output must be read on Windows, otherwise the
+	// command does not terminate.
+	StreamDrainer stdInput = new StreamDrainer(p.getInputStream(),
+		command, outputCollected);
+	StreamDrainer stdError = new StreamDrainer(p.getErrorStream(),
+		command, outputCollected);
+	stdInput.start();
+	stdError.start();
+
+	final AtomicBoolean timedOut = new AtomicBoolean(false);
+	TimerTask watchdogTask = null;
+	if (timeout > 0) {
+	    watchdogTask = new TimerTask() {
+		@Override
+		public void run() {
+		    timedOut.set(true);
+		    p.destroy();
+		}
+	    };
+	    WATCHDOG.schedule(watchdogTask, timeout);
+	}
+	try {
+	    exitValue = p.waitFor();
+	    // the streams end shortly after the command, unless a child
+	    // process still holds them
+	    stdInput.join(DRAIN_TIMEOUT);
+	    stdError.join(DRAIN_TIMEOUT);
+	} catch (InterruptedException ex) {
+	    p.destroy();
+	    Thread.currentThread().interrupt();
+	    throw new IOException("The command `" + command
+		    + "` was interrupted", ex);
+	} finally {
+	    if (watchdogTask != null) {
+		watchdogTask.cancel();
+	    }
+	}
+	if (timedOut.get()) {
+	    throw new IOException("The command `" + command
+		    + "` did not finish within " + timeout + " ms");
+	}
+	if (!outputCollected) {
+	    return "";
+	}
+
 	StringBuilder sb = new StringBuilder();
-	// NOTE: for some reason Runtime.getRuntime().exec() works only if the
-	// command output is captured on Windows.
-	// On Linux, this does not matter, but on Windows this does not work..
-	// So
-	// leave it.
-	Process p = Runtime.getRuntime().exec(command, null,
-		new File(filesLocation));
-	// read the output messages from the command
-	BufferedReader stdInput = new BufferedReader(new InputStreamReader(
-		p.getInputStream()));
 	sb.append("\n\n\n");
 	if (resourceBundle != null) {
 	    sb.append(resourceBundle
@@ -85,25 +199,85 @@ public class RunExternalCommand {
 		    + " `"
 		    + command + "`:\n\n");
 	}
-	String temp;
-	while ((temp = stdInput.readLine()) != null) {
-	    sb.append(temp).append("\n");
-	}
-	stdInput.close();
-
-	// read the error messages from the command
-	BufferedReader stdError = new BufferedReader(new InputStreamReader(
-		p.getErrorStream()));
+	sb.append(stdInput.getOutput());
 	if (resourceBundle != null) {
 	    sb.append("\n"
 		    + resourceBundle
 			    .getString("AJ.lblErrorsForTheCommand.text") + " `"
 		    + command + "`:\n\n");
 	}
-	while ((temp = stdError.readLine()) != null) {
-	    sb.append(temp).append("\n");
-	}
-	stdError.close();
+	sb.append(stdError.getOutput());
 	return sb.toString();
     }
+
+    /**
+     * A thread reading a stream of a command line by line.
+     */
+    private static class StreamDrainer extends Thread {
+
+	/** The stream. */
+	private InputStream stream;
+
+	/** The command. */
+	private String command;
+
+	/** The lines read if these are collected, otherwise null. */
+	private StringBuilder output;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param stream
+	 *            the stream
+	 * @param command
+	 *            the command
+	 * @param outputCollected
+	 *            true if the lines are collected
+	 */
+	public StreamDrainer(InputStream stream, String command,
+		boolean outputCollected) {
+	    super("RunExternalCommand stream");
+	    setDaemon(true);
+	    this.stream = stream;
+	    this.command = command;
+	    if (outputCollected) {
+		output = new StringBuilder();
+	    }
+	}
+
+	@Override
+	public void run() {
+	    BufferedReader reader = new BufferedReader(new InputStreamReader(
+		    stream));
+	    try {
+		String line;
+		while ((line = reader.readLine()) != null) {
+		    log.debug(command + ": " + line);
+		    if (output != null) {
+			synchronized (this) {
+			    output.append(line).append("\n");
+			}
+		    }
+		}
+	    } catch (IOException ex) {
+		// the stream is closed when the command is destroyed
+		log.debug(ex, ex);
+	    } finally {
+		try {
+		    reader.close();
+		} catch (IOException ex) {
+		    log.debug(ex, ex);
+		}
+	    }
+	}
+
+	/**
+	 * Return the lines read.
+	 * 
+	 * @return the lines
+	 */
+	public synchronized String getOutput() {
+	    return output == null ? "" : output.toString();
+	}
+    }
 }
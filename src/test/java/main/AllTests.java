@@ -35,6 +35,12 @@ import org.junit.runners.Suite.SuiteClasses;
 @RunWith(Suite.class)
 @SuiteClasses({ AJConfigurationTest.class, MiniTSVImporterTest.class,
 	BasicTSVImporterTest.class, ExtTSVImporterTest.class,
+	TSVTokenizerTest.class, ReportSnapshotTest.class,
+	ColumnTableTest.class, ReportTest.class,
+	CatalogueClassifierTest.class, ExporterSchedulerTest.class,
+	OutputManifestTest.class, ExportManifestTest.class,
+	LatexTemplateTest.class, LatexEscaperTest.class,
+	RunExternalCommandTest.class, SplitJournalTest.class,
 	MiniGenSystemTest.class, BasicGenSystemTest.class,
 	ExtGenSystemTest.class })
 public class AllTests {
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2015 Piero Dalle Pezze
+ *
+ * This file is part of AstroJournal.
+ *
+ * AstroJournal is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+/*
+ * Changelog:
+ * - Piero Dalle Pezze: class creation.
+ */
+package main;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.astrojournal.generator.absgen.CatalogueClassifier;
+import org.astrojournal.generator.absgen.CatalogueClassifier.Catalogue;
+import org.astrojournal.generator.absgen.CatalogueClassifier.Classification;
+import org.junit.Test;
+
+/**
+ * Test the classifier of the targets by catalogue.
+ * 
+ * @author Piero Dalle Pezze
+ * @version $Rev$
+ * @since 1.0
+ */
+public class CatalogueClassifierTest {
+
+    /**
+     * Test the catalogue of the target names.
+     */
+    @Test
+    public void testClassify() {
+	System.out.println("Running test " + this.getClass().getSimpleName()
+		+ "." + new Object() {
+		}.getClass().getEnclosingMethod().getName());
+
+	CatalogueClassifier classifier = new CatalogueClassifier();
+	assertEquals("Solar System", classifier.classify("Jupiter.tex")
+		.getCatalogueName());
+	assertEquals(6, classifier.classify("Jupiter.tex").getRank());
+	assertEquals("Solar System", classifier.classify("MoonVenus.tex")
+		.getCatalogueName());
+	assertEquals(12, classifier.classify("MoonVenus.tex").getRank());
+	assertEquals("Milky Way", classifier.classify("MilkyWay.tex")
+		.getCatalogueName());
+	assertEquals("Messier Catalogue", classifier.classify("M31_And.tex")
+		.getCatalogueName());
+	assertEquals(31, classifier.classify("M31_And.tex").getNumber());
+	assertEquals("Melotte Catalogue", classifier.classify("Mel111_Com.tex")
+		.getCatalogueName());
+	assertEquals("New General Catalogue (NGC)",
+		classifier.classify("ngc7000_Cyg.tex").getCatalogueName());
+	assertEquals("Barnard Catalogue",
+		classifier.classify("Barnard33_Ori.tex").getCatalogueName());
+	assertEquals("Abell Catalogue", classifier.classify("Abell426_Per.tex")
+		.getCatalogueName());
+	// a prefix must be followed by a digit in a numbered catalogue
+	assertEquals(CatalogueClassifier.UNCLASSIFIED,
+		classifier.classify("Mizar_UMa.tex").getCatalogueName());
+	assertEquals(CatalogueClassifier.UNCLASSIFIED,
+		classifier.classify("UMa_Albireo.tex").getCatalogueName());
+    }
+
+    /**
+     * Test the order of the classified target names.
+     */
+    @Test
+    public void testSort() {
+	System.out.println("Running test " + this.getClass().getSimpleName()
+		+ "." + new Object() {
+		}.getClass().getEnclosingMethod().getName());
+
+	CatalogueClassifier classifier = new CatalogueClassifier();
+	String[] names = new String[] { "Cyg_Albireo.tex", "NGC869_Per.tex",
+		"M101_UMa.tex", "Moon.tex", "M13_Her.tex", "Sun.tex",
+		"And_Almach.tex", "NGC7000_Cyg.tex", "M2_Aqr.tex" };
+	List<Classification> classifications = new ArrayList<Classification>();
+	for (String name : names) {
+	    classifications.add(classifier.classify(name));
+	}
+	Collections.sort(classifications);
+	String[] sortedNames = new String[] { "Sun.tex", "Moon.tex",
+		"M2_Aqr.tex", "M13_Her.tex", "M101_UMa.tex", "NGC869_Per.tex",
+		"NGC7000_Cyg.tex", "And_Almach.tex", "Cyg_Albireo.tex" };
+	for (int i = 0; i < sortedNames.length; i++) {
+	    assertEquals(sortedNames[i], classifications.get(i).getName());
+	}
+    }
+
+    /**
+     * Test that new catalogues are added as data.
+     */
+    @Test
+    public void testCustomCatalogues() {
+	System.out.println("Running test " + this.getClass().getSimpleName()
+		+ "." + new Object() {
+		}.getClass().getEnclosingMethod().getName());
+
+	List<Catalogue> catalogues = new ArrayList<Catalogue>(
+		Arrays.asList(CatalogueClassifier.DEFAULT_CATALOGUES));
+	catalogues.add(new Catalogue("Sharpless Catalogue", true, "sh2-",
+		"sh2"));
+	catalogues.add(new Catalogue("Caldwell Catalogue", true, "c"));
+	catalogues.add(new Catalogue("Arp Catalogue", true, "arp"));
+	CatalogueClassifier classifier = new CatalogueClassifier(catalogues);
+	assertEquals("Sharpless Catalogue",
+		classifier.classify("Sh2-155_Cep.tex").getCatalogueName());
+	assertEquals(2155, classifier.classify("Sh2-155_Cep.tex").getNumber());
+	assertEquals("Caldwell Catalogue", classifier.classify("C14_Per.tex")
+		.getCatalogueName());
+	assertEquals("Arp Catalogue", classifier.classify("Arp273_And.tex")
+		.getCatalogueName());
+	assertEquals("Collider Catalogue", classifier.classify("Cr399_Vul.tex")
+		.getCatalogueName());
+    }
+
+}
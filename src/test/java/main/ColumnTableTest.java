@@ -0,0 +1,183 @@
+/*
+ * Copyright 2015 Piero Dalle Pezze
+ *
+ * This file is part of AstroJournal.
+ *
+ * AstroJournal is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+/*
+ * Changelog:
+ * - Piero Dalle Pezze: class creation.
+ */
+package main;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+import org.astrojournal.generator.Report;
+import org.astrojournal.generator.absgen.ColumnTable;
+import org.astrojournal.generator.absgen.TSVTokenizer;
+import org.astrojournal.generator.basicgen.BasicDataCols;
+import org.astrojournal.generator.basicgen.BasicMetaDataCols;
+import org.astrojournal.generator.basicgen.BasicTSVImporter;
+import org.astrojournal.generator.extgen.ExtMetaDataCols;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the lookup table of the report columns.
+ * 
+ * @author Piero Dalle Pezze
+ * @version $Rev$
+ * @since 1.0
+ */
+public class ColumnTableTest {
+
+    /**
+     * The file to import.
+     */
+    private File file;
+
+    /**
+     * @throws java.lang.Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+	file = File.createTempFile("column_table_test", ".tsv");
+    }
+
+    /**
+     * @throws java.lang.Exception
+     */
+    @After
+    public void tearDown() throws Exception {
+	file.delete();
+    }
+
+    /**
+     * Write a string to the test file.
+     * 
+     * @param content
+     * @throws IOException
+     */
+    private void write(String content) throws IOException {
+	OutputStream out = new FileOutputStream(file);
+	try {
+	    out.write(content.getBytes());
+	} finally {
+	    out.close();
+	}
+    }
+
+    /**
+     * Test that names and aliases are looked up ignoring the case.
+     */
+    @Test
+    public void testGet() {
+	System.out.println("Running test " + this.getClass().getSimpleName()
+		+ "." + new Object() {
+		}.getClass().getEnclosingMethod().getName());
+
+	ColumnTable<ExtMetaDataCols> table = new ColumnTable<ExtMetaDataCols>(
+		ExtMetaDataCols.values());
+	for (ExtMetaDataCols column : ExtMetaDataCols.values()) {
+	    assertEquals(column, table.get(column.getColName()));
+	    assertEquals(column, table.get(column.getColName().toUpperCase()));
+	    for (String alias : column.getAliases()) {
+		assertEquals(column, table.get(alias.toLowerCase()));
+	    }
+	}
+	assertEquals(ExtMetaDataCols.LUNAR_PHASE_NAME,
+		table.get("moon phase"));
+	assertNull(table.get("Weather"));
+	assertNull(table.get(""));
+    }
+
+    /**
+     * Test that the fields of a header line are mapped to the columns in any
+     * order.
+     * 
+     * @throws IOException
+     */
+    @Test
+    public void testGetFieldColumns() throws IOException {
+	System.out.println("Running test " + this.getClass().getSimpleName()
+		+ "." + new Object() {
+		}.getClass().getEnclosingMethod().getName());
+
+	write("POWER\tNotes\tobject\tType\tConstellation\n"
+		+ "Target\tCons\tType\n");
+	ColumnTable<BasicDataCols> table = new ColumnTable<BasicDataCols>(
+		BasicDataCols.values());
+	TSVTokenizer tokenizer = new TSVTokenizer(file);
+	try {
+	    assertTrue(tokenizer.nextLine());
+	    int[] fieldColumns = table.getFieldColumns(tokenizer);
+	    assertEquals(5, fieldColumns.length);
+	    assertEquals(BasicDataCols.POWER_NAME.ordinal(), fieldColumns[0]);
+	    assertEquals(-1, fieldColumns[1]);
+	    assertEquals(BasicDataCols.TARGET_NAME.ordinal(), fieldColumns[2]);
+	    assertEquals(BasicDataCols.TYPE_NAME.ordinal(), fieldColumns[3]);
+	    assertEquals(BasicDataCols.CONSTELLATION_NAME.ordinal(),
+		    fieldColumns[4]);
+	    // the power column is missing
+	    assertTrue(tokenizer.nextLine());
+	    assertNull(table.getFieldColumns(tokenizer));
+	} finally {
+	    tokenizer.close();
+	}
+    }
+
+    /**
+     * Test the import of a report using aliases and whose data columns are in
+     * a different order.
+     * 
+     * @throws IOException
+     */
+    @Test
+    public void testImportShuffledColumns() throws IOException {
+	System.out.println("Running test " + this.getClass().getSimpleName()
+		+ "." + new Object() {
+		}.getClass().getEnclosingMethod().getName());
+
+	write("Date\t01/02/2015\n" + "telescope\tTV-60\n" + "Seeing\t3\n"
+		+ "Transparency\t2\n"
+		+ "Power\tType\tObject\tConstellation\n"
+		+ "63x\tGC\tM13\tHer\n" + "25x\tOC\tM45\tTau\n");
+	List<Report> reports = new BasicTSVImporter().importReports(file);
+	assertEquals(1, reports.size());
+	Report report = reports.get(0);
+	String[] metaData = report.getMetaData();
+	assertEquals("01/02/2015",
+		metaData[BasicMetaDataCols.DATE_NAME.ordinal()]);
+	assertEquals("TV-60",
+		metaData[BasicMetaDataCols.TELESCOPES_NAME.ordinal()]);
+	assertEquals(2, report.getDataRowNumber());
+	assertArrayEquals(new String[] { "M13", "Her", "GC", "63x" },
+		report.getData(0));
+	assertArrayEquals(new String[] { "M45", "Tau", "OC", "25x" },
+		report.getData(1));
+    }
+
+}
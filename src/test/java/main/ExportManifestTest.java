@@ -0,0 +1,160 @@
+/*
+ * Copyright 2015 Piero Dalle Pezze
+ *
+ * This file is part of AstroJournal.
+ *
+ * AstroJournal is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+/*
+ * Changelog:
+ * - Piero Dalle Pezze: class creation.
+ */
+package main;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.astrojournal.generator.Report;
+import org.astrojournal.generator.absgen.ExportManifest;
+import org.astrojournal.generator.absgen.ExportManifest.ExportedFile;
+import org.astrojournal.generator.absgen.Exporter;
+import org.astrojournal.generator.absgen.Importer;
+import org.astrojournal.generator.extgen.ExtLatexExporterByDate;
+import org.astrojournal.generator.extgen.ExtLatexExporterByTarget;
+import org.astrojournal.generator.extgen.ExtTSVImporter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the manifest of the report files produced by an exporter.
+ * 
+ * @author Piero Dalle Pezze
+ * @version $Rev$
+ * @since 1.0
+ */
+public class ExportManifestTest {
+
+    /**
+     * The folder of the files.
+     */
+    private File folder;
+
+    /**
+     * The imported reports.
+     */
+    private List<Report> reports;
+
+    /**
+     * @throws java.lang.Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+	folder = File.createTempFile("export_manifest_test", "");
+	folder.delete();
+	new File(folder, "reports").mkdirs();
+	Importer importer = new ExtTSVImporter();
+	importer.setFilesLocation(System.getProperty("user.dir")
+		+ File.separator + "src" + File.separator + "test"
+		+ File.separator + "resources" + File.separator
+		+ "ext_tsv_importer_test");
+	importer.setRawReportFolder("raw_reports");
+	reports = importer.importReports();
+    }
+
+    /**
+     * @throws java.lang.Exception
+     */
+    @After
+    public void tearDown() throws Exception {
+	FileUtils.deleteDirectory(folder);
+    }
+
+    /**
+     * Return an exporter writing to the test folder.
+     * 
+     * @param exporter
+     *            the exporter
+     * @return the exporter
+     */
+    private Exporter configure(Exporter exporter) {
+	exporter.setFilesLocation(folder.getAbsolutePath());
+	exporter.setReportFolder("reports");
+	return exporter;
+    }
+
+    /**
+     * Test that the reports by date are recorded from the most recent and
+     * that the files which were not exported are not recorded.
+     * 
+     * @throws IOException
+     */
+    @Test
+    public void testExportByDate() throws IOException {
+	System.out.println("Running test " + this.getClass().getSimpleName()
+		+ "." + new Object() {
+		}.getClass().getEnclosingMethod().getName());
+
+	FileUtils.writeStringToFile(new File(folder, "reports" + File.separator
+		+ "stray.tex"), "stray", "utf-8");
+	Exporter exporter = configure(new ExtLatexExporterByDate());
+	assertTrue(exporter.exportReports(reports));
+	ExportManifest manifest = exporter.getExportManifest();
+	assertEquals(reports.size(), manifest.size());
+	List<ExportedFile> files = manifest.getFiles(ExportedFile.BY_DATE);
+	for (int i = 0; i < files.size(); i++) {
+	    ExportedFile file = files.get(i);
+	    assertFalse(file.getName().equals("stray.tex"));
+	    assertTrue(file.getPath().exists());
+	    assertEquals(file.getName().substring(0, 4), file.getYear());
+	    if (i > 0) {
+		assertTrue(files.get(i - 1).getDateKey() > file.getDateKey());
+	    }
+	}
+    }
+
+    /**
+     * Test that the reports by target are recorded with their catalogue.
+     */
+    @Test
+    public void testExportByTarget() {
+	System.out.println("Running test " + this.getClass().getSimpleName()
+		+ "." + new Object() {
+		}.getClass().getEnclosingMethod().getName());
+
+	Exporter exporter = configure(new ExtLatexExporterByTarget());
+	assertTrue(exporter.exportReports(reports));
+	List<ExportedFile> files = exporter.getExportManifest().getFiles(
+		ExportedFile.BY_TARGET);
+	assertTrue(files.size() > 0);
+	for (int i = 0; i < files.size(); i++) {
+	    ExportedFile file = files.get(i);
+	    assertTrue(file.getCatalogue() != null);
+	    assertTrue(file.getConstellation() != null);
+	    if (i > 0) {
+		assertTrue(files.get(i - 1).getClassification()
+			.compareTo(file.getClassification()) <= 0);
+	    }
+	}
+    }
+
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2015 Piero Dalle Pezze
+ *
+ * This file is part of AstroJournal.
+ *
+ * AstroJournal is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+/*
+ * Changelog:
+ * - Piero Dalle Pezze: class creation.
+ */
+package main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.astrojournal.generator.ExporterScheduler;
+import org.astrojournal.generator.Report;
+import org.astrojournal.generator.absgen.ExportManifest.ExportedFile;
+import org.astrojournal.generator.absgen.Exporter;
+import org.astrojournal.generator.absgen.Importer;
+import org.astrojournal.generator.extgen.ExtLatexExporterByConst;
+import org.astrojournal.generator.extgen.ExtLatexExporterByDate;
+import org.astrojournal.generator.extgen.ExtLatexExporterByTarget;
+import org.astrojournal.generator.extgen.ExtMetaDataCols;
+import org.astrojournal.generator.extgen.ExtTSVImporter;
+import org.astrojournal.generator.extgen.ExtTextExporterByDate;
+import org.junit.Test;
+
+/**
+ * Test the scheduler of the exporters and the concurrent export of the
+ * reports.
+ * 
+ * @author Piero Dalle Pezze
+ * @version $Rev$
+ * @since 1.0
+ */
+public class ExporterSchedulerTest {
+
+    /**
+     * Return the exporters of the extended generator.
+     * 
+     * @return the exporters
+     */
+    private List<Exporter> getExporters() {
+	List<Exporter> exporters = new ArrayList<Exporter>();
+	exporters.add(new ExtLatexExporterByConst());
+	exporters.add(new ExtLatexExporterByDate());
+	exporters.add(new ExtLatexExporterByTarget());
+	exporters.add(new ExtTextExporterByDate());
+	return exporters;
+    }
+
+    /**
+     * Test that the exporters run one after another with one thread.
+     */
+    @Test
+    public void testRunSequentially() {
+	System.out.println("Running test " + this.getClass().getSimpleName()
+		+ "." + new Object() {
+		}.getClass().getEnclosingMethod().getName());
+
+	final List<Exporter> exporters = getExporters();
+	final List<Exporter> runExporters = new ArrayList<Exporter>();
+	assertTrue(new ExporterScheduler(1).run(exporters,
+		new ExporterScheduler.ExporterTask() {
+		    @Override
+		    public boolean run(Exporter exporter) {
+			runExporters.add(exporter);
+			return true;
+		    }
+		}));
+	assertEquals(exporters, runExporters);
+    }
+
+    /**
+     * Test that the exporters run in parallel and that a failure is reported.
+     */
+    @Test
+    public void testRunConcurrently() {
+	System.out.println("Running test " + this.getClass().getSimpleName()
+		+ "." + new Object() {
+		}.getClass().getEnclosingMethod().getName());
+
+	final List<Exporter> exporters = getExporters();
+	final List<Exporter> runExporters = Collections
+		.synchronizedList(new ArrayList<Exporter>());
+	// each task waits until all the tasks are running
+	final CountDownLatch running = new CountDownLatch(exporters.size());
+	boolean status = new ExporterScheduler(exporters.size()).run(
+		exporters, new ExporterScheduler.ExporterTask() {
+		    @Override
+		    public boolean run(Exporter exporter) {
+			running.countDown();
+			try {
+			    if (!running.await(10, TimeUnit.SECONDS)) {
+				return true;
+			    }
+			} catch (InterruptedException e) {
+			    return true;
+			}
+			runExporters.add(exporter);
+			return !(exporter instanceof ExtLatexExporterByTarget);
+		    }
+		});
+	assertFalse(status);
+	assertEquals(exporters.size(), runExporters.size());
+	assertTrue(runExporters.containsAll(exporters));
+    }
+
+    /**
+     * Test that the reports exported to their own files by a pool of threads
+     * are the same as the reports exported sequentially, for the text and the
+     * LaTeX reports by date.
+     * 
+     * @throws IOException
+     */
+    @Test
+    public void testExportEachReport() throws IOException {
+	System.out.println("Running test " + this.getClass().getSimpleName()
+		+ "." + new Object() {
+		}.getClass().getEnclosingMethod().getName());
+
+	Importer importer = new ExtTSVImporter();
+	importer.setFilesLocation(System.getProperty("user.dir")
+		+ File.separator + "src" + File.separator + "test"
+		+ File.separator + "resources" + File.separator
+		+ "ext_tsv_importer_test");
+	importer.setRawReportFolder("raw_reports");
+	List<Report> reports = importer.importReports();
+	assertTrue(reports.size() > 1);
+
+	File folder = File.createTempFile("exporter_scheduler_test", "");
+	folder.delete();
+	try {
+	    assertSameExport(new ExtTextExporterByDate(),
+		    new ExtTextExporterByDate(), reports, new File(folder,
+			    "text"));
+	    assertSameExport(new ExtLatexExporterByDate(),
+		    new ExtLatexExporterByDate(), reports, new File(folder,
+			    "latex"));
+	} finally {
+	    FileUtils.deleteDirectory(folder);
+	}
+    }
+
+    /**
+     * Test that a report which cannot be exported by a pool of threads fails
+     * without stopping the export of the other reports.
+     * 
+     * @throws IOException
+     */
+    @Test
+    public void testExportEachReportError() throws IOException {
+	System.out.println("Running test " + this.getClass().getSimpleName()
+		+ "." + new Object() {
+		}.getClass().getEnclosingMethod().getName());
+
+	List<Report> reports = new ArrayList<Report>();
+	for (String date : new String[] { "01/02/2015", "2015" }) {
+	    String[] metaData = new String[ExtMetaDataCols.values().length];
+	    Arrays.fill(metaData, "");
+	    metaData[ExtMetaDataCols.DATE_NAME.ordinal()] = date;
+	    Report report = new Report(metaData.length, 1);
+	    report.addMetaData(metaData);
+	    reports.add(report);
+	}
+
+	File folder = File.createTempFile("exporter_scheduler_test", "");
+	folder.delete();
+	try {
+	    new File(folder, "reports").mkdirs();
+	    Exporter exporter = new ExtTextExporterByDate();
+	    exporter.setFilesLocation(folder.getAbsolutePath());
+	    exporter.setReportFolder("reports");
+	    exporter.setReportThreads(2);
+	    assertFalse(exporter.exportReports(reports));
+	    assertTrue(new File(folder, "reports" + File.separator
+		    + "20150201.txt").isFile());
+	} finally {
+	    FileUtils.deleteDirectory(folder);
+	}
+    }
+
+    /**
+     * Assert that the reports exported by a pool of threads are the same as
+     * the reports exported one after another. Both the report files and the
+     * export manifests are compared.
+     * 
+     * @param sequential
+     *            the exporter using one thread
+     * @param concurrent
+     *            the exporter using a pool of threads
+     * @param reports
+     *            the reports to export
+     * @param folder
+     *            the folder containing the report folders
+     * @throws IOException
+     */
+    private void assertSameExport(Exporter sequential, Exporter concurrent,
+	    List<Report> reports, File folder) throws IOException {
+	File sequentialFolder = new File(folder, "sequential");
+	File concurrentFolder = new File(folder, "concurrent");
+	sequentialFolder.mkdirs();
+	concurrentFolder.mkdirs();
+
+	sequential.setFilesLocation(folder.getAbsolutePath());
+	sequential.setReportFolder(sequentialFolder.getName());
+	assertTrue(sequential.exportReports(reports));
+	concurrent.setFilesLocation(folder.getAbsolutePath());
+	concurrent.setReportFolder(concurrentFolder.getName());
+	concurrent.setReportThreads(4);
+	assertTrue(concurrent.exportReports(reports));
+
+	File[] files = sequentialFolder.listFiles();
+	assertEquals(reports.size(), files.length);
+	for (File file : files) {
+	    assertTrue(FileUtils.contentEquals(file, new File(
+		    concurrentFolder, file.getName())));
+	}
+
+	List<ExportedFile> sequentialFiles = sequential.getExportManifest()
+		.getFiles(ExportedFile.BY_DATE);
+	List<ExportedFile> concurrentFiles = concurrent.getExportManifest()
+		.getFiles(ExportedFile.BY_DATE);
+	assertEquals(reports.size(), sequentialFiles.size());
+	assertEquals(sequentialFiles.size(), concurrentFiles.size());
+	for (int i = 0; i < sequentialFiles.size(); i++) {
+	    assertEquals(sequentialFiles.get(i).getName(), concurrentFiles
+		    .get(i).getName());
+	    assertEquals(sequentialFiles.get(i).getDateKey(), concurrentFiles
+		    .get(i).getDateKey());
+	}
+    }
+
+}
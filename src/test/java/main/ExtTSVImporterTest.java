@@ -24,13 +24,23 @@
 package main;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.astrojournal.configuration.Configuration;
 import org.astrojournal.configuration.ajconfiguration.AJPropertyConstants;
 import org.astrojournal.generator.Report;
+import org.astrojournal.generator.ReportSink;
+import org.astrojournal.generator.absgen.ImportCache;
 import org.astrojournal.generator.absgen.Importer;
 import org.astrojournal.generator.extgen.ExtDataCols;
 import org.astrojournal.generator.extgen.ExtMetaDataCols;
@@ -58,6 +68,11 @@ public class ExtTSVImporterTest {
      */
     private static List<Report> reports;
 
+    /**
+     * The importer used to import the reports.
+     */
+    private static Importer importer;
+
     /**
      * @throws java.lang.Exception
      */
@@ -78,7 +93,7 @@ public class ExtTSVImporterTest {
 	// Load the new properties
 	config.loadSystemProperties();
 
-	Importer importer = new ExtTSVImporter();
+	importer = new ExtTSVImporter();
 
 	importer.setFilesLocation(config
 		.getProperty(AJPropertyConstants.FILES_LOCATION.getKey()));
@@ -139,6 +154,144 @@ public class ExtTSVImporterTest {
 	assertEquals(28, targets);
     }
 
+    /**
+     * Test that a concurrent import returns the same reports in the same
+     * order.
+     */
+    @Test
+    public void testConcurrentImport() {
+	System.out.println("Running test " + this.getClass().getSimpleName()
+		+ "." + new Object() {
+		}.getClass().getEnclosingMethod().getName());
+
+	Importer concurrentImporter = new ExtTSVImporter();
+	concurrentImporter.setFilesLocation(importer.getFilesLocation());
+	concurrentImporter.setRawReportFolder(importer.getRawReportFolder());
+	concurrentImporter.setThreads(4);
+
+	List<Report> concurrentReports = concurrentImporter.importReports();
+
+	ReportTestUtils.assertSameReports(reports, concurrentReports);
+    }
+
+    /**
+     * Test that reports read from the import cache are the same as the
+     * imported ones.
+     */
+    @Test
+    public void testImportCache() {
+	System.out.println("Running test " + this.getClass().getSimpleName()
+		+ "." + new Object() {
+		}.getClass().getEnclosingMethod().getName());
+
+	Importer cachedImporter = new ExtTSVImporter();
+	cachedImporter.setFilesLocation(importer.getFilesLocation());
+	cachedImporter.setRawReportFolder(importer.getRawReportFolder());
+	cachedImporter.setImportCacheEnabled(true);
+	File cacheFile = cachedImporter.getImportCacheFile();
+	try {
+	    // the first import fills the cache, the second one reads it.
+	    assertEquals(reports.size(), cachedImporter.importReports().size());
+	    assertTrue(cacheFile.exists());
+	    List<Report> cachedReports = cachedImporter.importReports();
+
+	    ReportTestUtils.assertSameReports(reports, cachedReports);
+	} finally {
+	    cacheFile.delete();
+	}
+    }
+
+    /**
+     * Test that the reports of a file changed while it was imported are not
+     * cached.
+     * 
+     * @throws IOException
+     */
+    @Test
+    public void testImportCacheChangedFile() throws IOException {
+	System.out.println("Running test " + this.getClass().getSimpleName()
+		+ "." + new Object() {
+		}.getClass().getEnclosingMethod().getName());
+
+	File cacheFile = File.createTempFile("import_cache_test", ".cache");
+	File file = File.createTempFile("import_cache_test", ".tsv");
+	try {
+	    ImportCache cache = new ImportCache(cacheFile, "test");
+	    List<Report> reports = new ArrayList<Report>();
+	    long size = file.length();
+	    long lastModified = file.lastModified();
+	    assertFalse(cache.putReports(file, size + 1, lastModified, reports));
+	    assertFalse(cache.putReports(file, size, lastModified - 1000,
+		    reports));
+	    assertNull(cache.getReports(file));
+	    assertTrue(cache.putReports(file, size, lastModified, reports));
+	    assertTrue(cache.save());
+	    assertSame(reports, cache.getReports(file));
+	} finally {
+	    cacheFile.delete();
+	    file.delete();
+	}
+    }
+
+    /**
+     * Test that a corrupted import cache is ignored.
+     * 
+     * @throws IOException
+     */
+    @Test
+    public void testImportCacheCorrupted() throws IOException {
+	System.out.println("Running test " + this.getClass().getSimpleName()
+		+ "." + new Object() {
+		}.getClass().getEnclosingMethod().getName());
+
+	File cacheFile = File.createTempFile("import_cache_test", ".cache");
+	File file = File.createTempFile("import_cache_test", ".tsv");
+	try {
+	    ImportCache cache = new ImportCache(cacheFile, "test");
+	    assertTrue(cache.putReports(file, file.length(),
+		    file.lastModified(), new ArrayList<Report>()));
+	    assertTrue(cache.save());
+	    byte[] content = Files.readAllBytes(cacheFile.toPath());
+	    // the length of the file path follows the version, the importer
+	    // name and the number of files
+	    for (int length : new int[] { -2, Integer.MAX_VALUE }) {
+		ByteBuffer.wrap(content).putInt(16, length);
+		Files.write(cacheFile.toPath(), content);
+		assertFalse(cache.load());
+		assertNull(cache.getReports(file));
+	    }
+	} finally {
+	    cacheFile.delete();
+	    file.delete();
+	}
+    }
+
+    /**
+     * Test that a streaming import passes the same reports to a sink.
+     */
+    @Test
+    public void testStreamingImport() {
+	System.out.println("Running test " + this.getClass().getSimpleName()
+		+ "." + new Object() {
+		}.getClass().getEnclosingMethod().getName());
+
+	final List<Report> streamedReports = new ArrayList<Report>();
+	boolean status = importer.importReports(new ReportSink() {
+	    @Override
+	    public boolean accept(Report report) {
+		return streamedReports.add(report);
+	    }
+
+	    @Override
+	    public boolean finish() {
+		return true;
+	    }
+	});
+
+	assertTrue(status);
+	ReportTestUtils.assertSameReports(reports, streamedReports);
+    }
+
     /**
      * Test a report meta information.
      */
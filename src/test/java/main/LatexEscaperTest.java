@@ -0,0 +1,100 @@
+/*
+ * Copyright 2015 Piero Dalle Pezze
+ *
+ * This file is part of AstroJournal.
+ *
+ * AstroJournal is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+/*
+ * Changelog:
+ * - Piero Dalle Pezze: class creation.
+ */
+package main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.astrojournal.generator.absgen.LatexEscaper;
+import org.junit.Test;
+
+/**
+ * Test the escaper of the LaTeX special characters.
+ * 
+ * @author Piero Dalle Pezze
+ * @version $Rev$
+ * @since 1.0
+ */
+public class LatexEscaperTest {
+
+    /**
+     * Test that all the LaTeX special characters are escaped.
+     */
+    @Test
+    public void testEscape() {
+	System.out.println("Running test " + this.getClass().getSimpleName()
+		+ "." + new Object() {
+		}.getClass().getEnclosingMethod().getName());
+
+	assertEquals("50\\% \\& more", LatexEscaper.escape("50% & more"));
+	assertEquals("\\#1 \\$2 a\\_b \\{c\\}",
+		LatexEscaper.escape("#1 $2 a_b {c}"));
+	assertEquals("\\textasciitilde{}x\\textasciicircum{}2\\textbackslash{}",
+		LatexEscaper.escape("~x^2\\"));
+	assertEquals("\\%\\%", LatexEscaper.escape("%%"));
+	assertEquals("", LatexEscaper.escape(""));
+	assertNull(LatexEscaper.escape(null));
+    }
+
+    /**
+     * Test that a text without special characters is not copied.
+     */
+    @Test
+    public void testEscapeCleanText() {
+	System.out.println("Running test " + this.getClass().getSimpleName()
+		+ "." + new Object() {
+		}.getClass().getEnclosingMethod().getName());
+
+	String text = "M31, Andromeda galaxy. Seeing: 3/5 (good)";
+	assertFalse(LatexEscaper.needsEscaping(text));
+	assertSame(text, LatexEscaper.escape(text));
+	assertTrue(LatexEscaper.needsEscaping("100%"));
+    }
+
+    /**
+     * Test that a text is escaped into a writer.
+     * 
+     * @throws IOException
+     */
+    @Test
+    public void testEscapeToWriter() throws IOException {
+	System.out.println("Running test " + this.getClass().getSimpleName()
+		+ "." + new Object() {
+		}.getClass().getEnclosingMethod().getName());
+
+	StringWriter writer = new StringWriter();
+	LatexEscaper.escape(writer, "a&b");
+	LatexEscaper.escape(writer, new StringBuilder(" 5% "));
+	LatexEscaper.escape(writer, null);
+	LatexEscaper.escape(writer, "c");
+	assertEquals("a\\&b 5\\% c", writer.toString());
+    }
+
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2015 Piero Dalle Pezze
+ *
+ * This file is part of AstroJournal.
+ *
+ * AstroJournal is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+/*
+ * Changelog:
+ * - Piero Dalle Pezze: class creation.
+ */
+package main;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.astrojournal.configuration.ajconfiguration.AJPropertyConstants;
+import org.astrojournal.generator.Report;
+import org.astrojournal.generator.absgen.Importer;
+import org.astrojournal.generator.absgen.LatexExporter;
+import org.astrojournal.generator.extgen.ExtLatexExporterByDate;
+import org.astrojournal.generator.extgen.ExtTSVImporter;
+import org.astrojournal.generator.statistics.BasicStatistics;
+
+/**
+ * An end-to-end benchmark comparing the time pdflatex takes for compiling the
+ * journal by date when the report files are included with \input and when
+ * they are copied in the journal. The reports are imported from a generated
+ * raw report file and exported by ExtLatexExporterByDate, then the journal is
+ * generated and compiled by the exporter post processing. The input manifest
+ * is deleted before each compilation, so that the journal is not skipped as
+ * up to date. This is not part of the test suite and requires pdflatex. Run
+ * it from the project folder with:
+ * 
+ * <pre>
+ * java -cp [classpath] main.LatexInlineBenchmark [reports] [iterations]
+ * </pre>
+ * 
+ * @author Piero Dalle Pezze
+ * @version $Rev$
+ * @since 1.0
+ */
+public class LatexInlineBenchmark {
+
+    /**
+     * Write a raw report file containing a number of reports with different
+     * dates.
+     * 
+     * @param file
+     *            the file to write
+     * @param reports
+     *            the number of reports
+     * @throws IOException
+     */
+    private static void writeReports(File file, int reports)
+	    throws IOException {
+	StringBuilder sb = new StringBuilder();
+	for (int i = 0; i < reports; i++) {
+	    sb.append(String.format("Date\t%02d/%02d/%d\n", i % 28 + 1,
+		    i / 28 % 12 + 1, 2000 + i / 336));
+	    sb.append("Time\t21:40-23:30\n");
+	    sb.append("Location\tCambridge, UK\n");
+	    sb.append("Lunar Phase\tWaxing crescent 26%\n");
+	    sb.append("Altitude\t12m\n");
+	    sb.append("Temperature\t12C (wind: 0km/h)\n");
+	    sb.append("Seeing\t1 - Perfect seeing\n");
+	    sb.append("Transparency\t5 - Clear\n");
+	    sb.append("Darkness\t20.5 mag\n");
+	    sb.append("Telescopes\tTele Vue 60 F6\n");
+	    sb.append("Eyepieces\tTV Panoptic 24mm, Nagler 7mm\n");
+	    sb.append("Filters\tAstronomik OIII\n");
+	    sb.append("Target\tCons\tType\tPower\tNotes\n");
+	    for (int j = 0; j < 5; j++) {
+		sb.append("M" + (j + 1) + "\tOri\tDiff Neb\t25x\t"
+			+ "Faint nebulosity around the central stars.\n");
+	    }
+	    sb.append("\n");
+	}
+	OutputStream out = new FileOutputStream(file);
+	try {
+	    out.write(sb.toString().getBytes("utf-8"));
+	} finally {
+	    out.close();
+	}
+    }
+
+    /**
+     * Return a configured exporter of the journal by date.
+     * 
+     * @param folder
+     *            the files location
+     * @param inlineReports
+     *            true if the report files are copied in the journal
+     * @return the exporter
+     */
+    private static LatexExporter getExporter(File folder,
+	    boolean inlineReports) {
+	LatexExporter exporter = new ExtLatexExporterByDate();
+	exporter.setFilesLocation(folder.getAbsolutePath());
+	exporter.setReportFolder(AJPropertyConstants.LATEX_REPORTS_FOLDER_BY_DATE
+		.getValue());
+	exporter.setReportFilename(AJPropertyConstants.LATEX_REPORT_BY_DATE_FILENAME
+		.getValue());
+	exporter.setHeaderFooterFolder(AJPropertyConstants.LATEX_HEADER_FOOTER_FOLDER
+		.getValue());
+	exporter.setHeaderFilename(AJPropertyConstants.LATEX_HEADER_BY_DATE_FILENAME
+		.getValue());
+	exporter.setFooterFilename(AJPropertyConstants.LATEX_FOOTER_BY_DATE_FILENAME
+		.getValue());
+	exporter.setQuiet(true);
+	exporter.setInlineReports(inlineReports);
+	return exporter;
+    }
+
+    /**
+     * Run the benchmark.
+     * 
+     * @param args
+     *            the number of reports and the number of iterations
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException {
+	int reports = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+	int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+	File folder = File.createTempFile("latex_inline_benchmark", "");
+	folder.delete();
+	try {
+	    File rawFolder = new File(folder, "raw_reports");
+	    rawFolder.mkdirs();
+	    writeReports(new File(rawFolder, "reports.csv"), reports);
+	    Importer importer = new ExtTSVImporter();
+	    importer.setFilesLocation(folder.getAbsolutePath());
+	    importer.setRawReportFolder(rawFolder.getName());
+	    List<Report> reportList = importer.importReports();
+	    BasicStatistics basicStatistics = new BasicStatistics();
+	    basicStatistics.process(reportList);
+	    System.out.println(reportList.size() + " reports, " + iterations
+		    + " iterations");
+
+	    for (int mode = 0; mode < 2; mode++) {
+		File modeFolder = new File(folder, mode == 0 ? "input"
+			: "inline");
+		String headerFooterFolder = AJPropertyConstants.LATEX_HEADER_FOOTER_FOLDER
+			.getValue();
+		FileUtils.copyDirectory(new File(System.getProperty("user.dir"),
+			headerFooterFolder), new File(modeFolder,
+			headerFooterFolder), false);
+		LatexExporter exporter = getExporter(modeFolder, mode == 1);
+		new File(modeFolder, exporter.getReportFolder()).mkdirs();
+		if (!exporter.exportReports(reportList)) {
+		    System.out.println("The reports were not exported.");
+		    return;
+		}
+		long time = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+		    if (!exporter.generateJournal(basicStatistics)) {
+			System.out.println("The journal was not generated.");
+			return;
+		    }
+		}
+		long generationTime = (System.nanoTime() - time) / iterations
+			/ 1000000;
+		File inputManifest = new File(modeFolder,
+			FilenameUtils.removeExtension(exporter
+				.getReportFilename())
+				+ LatexExporter.INPUT_MANIFEST_EXTENSION);
+		time = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+		    inputManifest.delete();
+		    exporter.postProcessing();
+		}
+		time = (System.nanoTime() - time) / iterations / 1000000;
+		System.out.println((mode == 0 ? "\\input: " : "inline: ")
+			+ generationTime + " ms per journal generation, "
+			+ time + " ms per compilation");
+	    }
+	} finally {
+	    FileUtils.deleteDirectory(folder);
+	}
+    }
+
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2015 Piero Dalle Pezze
+ *
+ * This file is part of AstroJournal.
+ *
+ * AstroJournal is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+/*
+ * Changelog:
+ * - Piero Dalle Pezze: class creation.
+ */
+package main;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.astrojournal.generator.Report;
+import org.astrojournal.generator.absgen.Exporter;
+import org.astrojournal.generator.absgen.Importer;
+import org.astrojournal.generator.absgen.LatexTemplate;
+import org.astrojournal.generator.extgen.ExtDataCols;
+import org.astrojournal.generator.extgen.ExtLatexExporterByDate;
+import org.astrojournal.generator.extgen.ExtMetaDataCols;
+import org.astrojournal.generator.extgen.ExtTSVImporter;
+import org.junit.Test;
+
+/**
+ * Test the LaTeX templates.
+ * 
+ * @author Piero Dalle Pezze
+ * @version $Rev$
+ * @since 1.0
+ */
+public class LatexTemplateTest {
+
+    /**
+     * Return meta data with a date and a location.
+     * 
+     * @param location
+     *            the location
+     * @return the meta data
+     */
+    private String[] getMetaData(String location) {
+	String[] metaData = new String[ExtMetaDataCols.values().length];
+	for (int i = 0; i < metaData.length; i++) {
+	    metaData[i] = "";
+	}
+	metaData[ExtMetaDataCols.DATE_NAME.ordinal()] = "01/02/2015";
+	metaData[ExtMetaDataCols.LOCATION_NAME.ordinal()] = location;
+	return metaData;
+    }
+
+    /**
+     * Return a data row.
+     * 
+     * @param target
+     *            the target
+     * @param power
+     *            the power
+     * @return the data row
+     */
+    private String[] getDataRow(String target, String power) {
+	String[] dataRow = new String[ExtDataCols.values().length];
+	for (int i = 0; i < dataRow.length; i++) {
+	    dataRow[i] = "";
+	}
+	dataRow[ExtDataCols.TARGET_NAME.ordinal()] = target;
+	dataRow[ExtDataCols.POWER_NAME.ordinal()] = power;
+	return dataRow;
+    }
+
+    /**
+     * Test the rendering of the tags of a template.
+     * 
+     * @throws IOException
+     */
+    @Test
+    public void testRender() throws IOException {
+	System.out.println("Running test " + this.getClass().getSimpleName()
+		+ "." + new Object() {
+		}.getClass().getEnclosingMethod().getName());
+
+	LatexTemplate template = new LatexTemplate(
+		"${DATE_NAME.colName}: ${DATE_NAME}$x$"
+			+ "${?LOCATION_NAME} at ${LOCATION_NAME}"
+			+ "${/LOCATION_NAME}"
+			+ "${*}\n${TARGET_NAME}${?POWER_NAME} (${POWER_NAME})"
+			+ "${/POWER_NAME}${/*}", ExtMetaDataCols.values(),
+		ExtDataCols.values());
+	List<String[]> data = new ArrayList<String[]>();
+	data.add(getDataRow("M31", "40x"));
+	data.add(getDataRow("M42", ""));
+
+	StringWriter writer = new StringWriter();
+	template.render(writer, getMetaData("Cambridge"), data);
+	assertEquals("Date: 01/02/2015$x$ at Cambridge\nM31 (40x)\nM42",
+		writer.toString());
+
+	writer = new StringWriter();
+	template.render(writer, getMetaData(""), data.get(1));
+	assertEquals("Date: 01/02/2015$x$\nM42", writer.toString());
+    }
+
+    /**
+     * Test that invalid templates are not compiled.
+     */
+    @Test
+    public void testInvalidTemplates() {
+	System.out.println("Running test " + this.getClass().getSimpleName()
+		+ "." + new Object() {
+		}.getClass().getEnclosingMethod().getName());
+
+	String[] templates = new String[] { "${UNKNOWN}",
+		"${?UNKNOWN}${/UNKNOWN}", "${?DATE_NAME}", "${*}${/DATE_NAME}",
+		"${DATE_NAME", "${UNKNOWN.colName}" };
+	for (String text : templates) {
+	    try {
+		new LatexTemplate(text, ExtMetaDataCols.values(),
+			ExtDataCols.values());
+		fail("Template " + text + " should not be compiled");
+	    } catch (IllegalArgumentException e) {
+		// expected
+	    }
+	}
+    }
+
+    /**
+     * Test that a template in the header / footer folder replaces the default
+     * template.
+     * 
+     * @throws IOException
+     */
+    @Test
+    public void testUserTemplate() throws IOException {
+	System.out.println("Running test " + this.getClass().getSimpleName()
+		+ "." + new Object() {
+		}.getClass().getEnclosingMethod().getName());
+
+	Importer importer = new ExtTSVImporter();
+	importer.setFilesLocation(System.getProperty("user.dir")
+		+ File.separator + "src" + File.separator + "test"
+		+ File.separator + "resources" + File.separator
+		+ "ext_tsv_importer_test");
+	importer.setRawReportFolder("raw_reports");
+	List<Report> reports = importer.importReports();
+
+	File folder = File.createTempFile("latex_template_test", "");
+	folder.delete();
+	try {
+	    new File(folder, "reports").mkdirs();
+	    new File(folder, "latex_header_footer").mkdirs();
+	    FileUtils.writeStringToFile(new File(folder, "latex_header_footer"
+		    + File.separator + ExtLatexExporterByDate.REPORT_TEMPLATE),
+		    "${DATE_NAME}${*};${TARGET_NAME}${/*}\n", "utf-8");
+	    Exporter exporter = new ExtLatexExporterByDate();
+	    exporter.setFilesLocation(folder.getAbsolutePath());
+	    exporter.setHeaderFooterFolder("latex_header_footer");
+	    exporter.setReportFolder("reports");
+	    exporter.exportReports(reports.subList(0, 1));
+
+	    Report report = reports.get(0);
+	    StringBuilder expected = new StringBuilder(
+		    report.getMetaData()[ExtMetaDataCols.DATE_NAME.ordinal()]);
+	    for (String[] dataRow : report.getAllData()) {
+		expected.append(';').append(
+			dataRow[ExtDataCols.TARGET_NAME.ordinal()]);
+	    }
+	    expected.append('\n');
+	    File[] files = new File(folder, "reports").listFiles();
+	    assertEquals(1, files.length);
+	    assertEquals(expected.toString(),
+		    FileUtils.readFileToString(files[0], "utf-8"));
+	} finally {
+	    FileUtils.deleteDirectory(folder);
+	}
+    }
+
+}
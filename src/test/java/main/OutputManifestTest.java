@@ -0,0 +1,131 @@
+/*
+ * Copyright 2015 Piero Dalle Pezze
+ *
+ * This file is part of AstroJournal.
+ *
+ * AstroJournal is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+/*
+ * Changelog:
+ * - Piero Dalle Pezze: class creation.
+ */
+package main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.commons.io.FileUtils;
+import org.astrojournal.generator.absgen.OutputManifest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the manifest of the files written by an exporter.
+ * 
+ * @author Piero Dalle Pezze
+ * @version $Rev$
+ * @since 1.0
+ */
+public class OutputManifestTest {
+
+    /**
+     * The folder of the files.
+     */
+    private File folder;
+
+    /**
+     * @throws java.lang.Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+	folder = File.createTempFile("output_manifest_test", "");
+	folder.delete();
+	folder.mkdirs();
+    }
+
+    /**
+     * @throws java.lang.Exception
+     */
+    @After
+    public void tearDown() throws Exception {
+	FileUtils.deleteDirectory(folder);
+    }
+
+    /**
+     * Test that only the changed files are written and that the files which
+     * are not written any more are deleted.
+     * 
+     * @throws IOException
+     */
+    @Test
+    public void testWrite() throws IOException {
+	System.out.println("Running test " + this.getClass().getSimpleName()
+		+ "." + new Object() {
+		}.getClass().getEnclosingMethod().getName());
+
+	OutputManifest manifest = new OutputManifest(folder);
+	assertFalse(manifest.load());
+	assertTrue(manifest.write("a.tex", "a".getBytes("utf-8")));
+	assertTrue(manifest.write("b.tex", "b".getBytes("utf-8")));
+	assertTrue(manifest.finish());
+	File a = new File(folder, "a.tex");
+	long lastModified = a.lastModified();
+
+	// a new manifest is loaded from the manifest file
+	manifest = new OutputManifest(folder);
+	assertTrue(manifest.load());
+	assertFalse(manifest.write("a.tex", "a".getBytes("utf-8")));
+	assertTrue(manifest.write("c.tex", "c".getBytes("utf-8")));
+	assertTrue(manifest.finish());
+	assertEquals(lastModified, a.lastModified());
+	assertTrue(a.exists());
+	assertFalse(new File(folder, "b.tex").exists());
+	assertTrue(new File(folder, "c.tex").exists());
+
+	// the manifest can be used again after it is finished
+	assertTrue(manifest.write("a.tex", "A".getBytes("utf-8")));
+	assertTrue(manifest.finish());
+	assertEquals("A", FileUtils.readFileToString(a, "utf-8"));
+	assertFalse(new File(folder, "c.tex").exists());
+	assertTrue(new File(folder, OutputManifest.MANIFEST_FILENAME).exists());
+    }
+
+    /**
+     * Test that a file changed by someone else is written again.
+     * 
+     * @throws IOException
+     */
+    @Test
+    public void testWriteModifiedFile() throws IOException {
+	System.out.println("Running test " + this.getClass().getSimpleName()
+		+ "." + new Object() {
+		}.getClass().getEnclosingMethod().getName());
+
+	OutputManifest manifest = new OutputManifest(folder);
+	manifest.load();
+	assertTrue(manifest.write("a.tex", "a".getBytes("utf-8")));
+	assertTrue(manifest.finish());
+	File a = new File(folder, "a.tex");
+	FileUtils.writeStringToFile(a, "modified", "utf-8");
+	assertTrue(manifest.write("a.tex", "a".getBytes("utf-8")));
+	assertEquals("a", FileUtils.readFileToString(a, "utf-8"));
+    }
+
+}
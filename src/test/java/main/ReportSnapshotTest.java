@@ -0,0 +1,178 @@
+/*
+ * Copyright 2015 Piero Dalle Pezze
+ *
+ * This file is part of AstroJournal.
+ *
+ * AstroJournal is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+/*
+ * Changelog:
+ * - Piero Dalle Pezze: class creation.
+ */
+package main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import org.astrojournal.generator.Report;
+import org.astrojournal.generator.ReportSnapshot;
+import org.astrojournal.generator.extgen.ExtTSVImporter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the binary snapshot of the imported reports.
+ * 
+ * @author Piero Dalle Pezze
+ * @version $Rev$
+ * @since 1.0
+ */
+public class ReportSnapshotTest {
+
+    /**
+     * The snapshot file.
+     */
+    private File file;
+
+    /**
+     * The imported reports.
+     */
+    private List<Report> reports;
+
+    /**
+     * @throws java.lang.Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+	file = File.createTempFile("report_snapshot_test", ".snapshot");
+	ExtTSVImporter importer = new ExtTSVImporter();
+	importer.setFilesLocation(System.getProperty("user.dir")
+		+ File.separator + "src" + File.separator + "test"
+		+ File.separator + "resources" + File.separator
+		+ "ext_tsv_importer_test");
+	importer.setRawReportFolder("raw_reports");
+	reports = importer.importReports();
+    }
+
+    /**
+     * @throws java.lang.Exception
+     */
+    @After
+    public void tearDown() throws Exception {
+	file.delete();
+    }
+
+    /**
+     * Test that the loaded reports are the same as the saved ones.
+     */
+    @Test
+    public void testSaveLoad() {
+	System.out.println("Running test " + this.getClass().getSimpleName()
+		+ "." + new Object() {
+		}.getClass().getEnclosingMethod().getName());
+
+	assertTrue(new ReportSnapshot(file, "extgen").save(reports, 1L));
+	List<Report> loaded = new ReportSnapshot(file, "extgen").load();
+
+	ReportTestUtils.assertSameReports(reports, loaded);
+    }
+
+    /**
+     * Test that a snapshot of another generator or a truncated snapshot are
+     * not loaded.
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void testInvalidSnapshot() throws Exception {
+	System.out.println("Running test " + this.getClass().getSimpleName()
+		+ "." + new Object() {
+		}.getClass().getEnclosingMethod().getName());
+
+	assertTrue(new ReportSnapshot(file, "extgen").save(reports, 1L));
+	assertNull(new ReportSnapshot(file, "basicgen").load());
+
+	File truncated = new File(file.getPath() + ".truncated");
+	try {
+	    byte[] bytes = Files.readAllBytes(file.toPath());
+	    Files.write(truncated.toPath(),
+		    Arrays.copyOf(bytes, bytes.length / 2));
+	    assertNull(new ReportSnapshot(truncated, "extgen").load());
+	} finally {
+	    truncated.delete();
+	}
+    }
+
+    /**
+     * Test that a snapshot is out of date if a raw report changed while it
+     * was imported.
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void testIsUpToDate() throws Exception {
+	System.out.println("Running test " + this.getClass().getSimpleName()
+		+ "." + new Object() {
+		}.getClass().getEnclosingMethod().getName());
+
+	File folder = new File(file.getPath() + ".raw_reports");
+	File rawReport = new File(folder, "report.tsv");
+	try {
+	    assertTrue(folder.mkdirs());
+	    assertTrue(rawReport.createNewFile());
+	    ReportSnapshot snapshot = new ReportSnapshot(file, "extgen");
+	    assertFalse(snapshot.isUpToDate(folder));
+
+	    // the raw report is saved again during the import
+	    long inputTime = snapshot.getInputTime(folder);
+	    assertTrue(rawReport.setLastModified(inputTime + 10000));
+	    assertTrue(snapshot.save(reports, inputTime));
+	    assertFalse(snapshot.isUpToDate(folder));
+
+	    assertTrue(snapshot.save(reports, snapshot.getInputTime(folder)));
+	    assertTrue(snapshot.isUpToDate(folder));
+	    assertFalse(new ReportSnapshot(file, "basicgen")
+		    .isUpToDate(folder));
+	} finally {
+	    rawReport.delete();
+	    folder.delete();
+	}
+    }
+
+    /**
+     * Test that a loaded snapshot can be replaced.
+     */
+    @Test
+    public void testReplaceLoaded() {
+	System.out.println("Running test " + this.getClass().getSimpleName()
+		+ "." + new Object() {
+		}.getClass().getEnclosingMethod().getName());
+
+	ReportSnapshot snapshot = new ReportSnapshot(file, "extgen");
+	assertTrue(snapshot.save(reports, 1L));
+	assertEquals(reports.size(), snapshot.load().size());
+	assertTrue(snapshot.save(reports.subList(0, 1), 1L));
+	assertEquals(1, snapshot.load().size());
+    }
+
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2015 Piero Dalle Pezze
+ *
+ * This file is part of AstroJournal.
+ *
+ * AstroJournal is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+/*
+ * Changelog:
+ * - Piero Dalle Pezze: class creation.
+ */
+package main;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.astrojournal.generator.Report;
+import org.astrojournal.generator.ReportDateIndex;
+import org.astrojournal.generator.ReportDictionary;
+import org.junit.Test;
+
+/**
+ * Test the dictionary encoded storage and the date keys of a report.
+ * 
+ * @author Piero Dalle Pezze
+ * @version $Rev$
+ * @since 1.0
+ */
+public class ReportTest {
+
+    /**
+     * Test that the stored values are returned unchanged.
+     */
+    @Test
+    public void testAddGet() {
+	System.out.println("Running test " + this.getClass().getSimpleName()
+		+ "." + new Object() {
+		}.getClass().getEnclosingMethod().getName());
+
+	String notes = "A note which is not stored in the dictionary, "
+		+ "because it is unlikely to repeat.";
+	Report report = new Report(2, 3);
+	assertArrayEquals(new String[] { null, null }, report.getMetaData());
+	assertTrue(report.addMetaData(new String[] { "01/02/2015", "Home" }));
+	assertFalse(report.addMetaData(new String[] { "01/02/2015" }));
+	assertTrue(report.addData(new String[] { "M13", "Her", "GC", "50x",
+		notes }));
+	assertTrue(report.addData(new String[] { "M45", "Tau", "OC" }));
+	assertFalse(report.addData(new String[] { "M1", "Tau" }));
+
+	assertArrayEquals(new String[] { "01/02/2015", "Home" },
+		report.getMetaData());
+	assertEquals(2, report.getDataRowNumber());
+	assertEquals(5, report.getDataLength(0));
+	assertEquals(3, report.getDataLength(1));
+	assertArrayEquals(new String[] { "M13", "Her", "GC", "50x", notes },
+		report.getData(0));
+	assertArrayEquals(new String[] { "M45", "Tau", "OC" },
+		report.getData(1));
+	assertNull(report.getData(2));
+
+	List<String[]> data = report.getAllData();
+	assertEquals(2, data.size());
+	assertArrayEquals(report.getData(1), data.get(1));
+    }
+
+    /**
+     * Test that equal values have the same code and that values which are
+     * equal ignoring the case have the same normalised code.
+     */
+    @Test
+    public void testCodes() {
+	System.out.println("Running test " + this.getClass().getSimpleName()
+		+ "." + new Object() {
+		}.getClass().getEnclosingMethod().getName());
+
+	ReportDictionary dictionary = Report.getDictionary();
+	Report report = new Report(1, 2);
+	report.addMetaData(new String[] { "Home" });
+	report.addData(new String[] { "M13", "GC" });
+	report.addData(new String[] { "m13 ", "Gc" });
+	report.addData(new String[] { "M13", null });
+
+	assertEquals(report.getDataCode(0, 0), report.getDataCode(2, 0));
+	assertEquals(dictionary.encode("M13"), report.getDataCode(0, 0));
+	assertEquals(dictionary.normalise(report.getDataCode(0, 0)),
+		dictionary.normalise(report.getDataCode(1, 0)));
+	assertEquals(dictionary.normalise(report.getDataCode(0, 1)),
+		dictionary.normalise(report.getDataCode(1, 1)));
+	assertEquals("gc", dictionary.decode(dictionary.normalise(report
+		.getDataCode(0, 1))));
+	assertEquals(ReportDictionary.NULL, report.getDataCode(2, 1));
+	assertEquals("Home",
+		dictionary.decode(report.getMetaDataCode(0)));
+    }
+
+    /**
+     * Test that the free text columns are not stored in the dictionary.
+     */
+    @Test
+    public void testFreeText() {
+	System.out.println("Running test " + this.getClass().getSimpleName()
+		+ "." + new Object() {
+		}.getClass().getEnclosingMethod().getName());
+
+	ReportDictionary dictionary = Report.getDictionary();
+	Report report = new Report(1, Report.ENCODED_DATA_COLUMNS);
+	report.addMetaData(new String[] { "01/02/2015" });
+	report.addData(new String[] { "M13", "Her", "GC", "50x", "Nice" });
+	int size = dictionary.size();
+	String notes = "Faint " + System.nanoTime();
+	report.addData(new String[] { "M13", "Her", "GC", "50x", notes });
+	assertEquals(size, dictionary.size());
+	assertEquals(notes, report.getData(1)[Report.ENCODED_DATA_COLUMNS]);
+    }
+
+    /**
+     * Test the date keys.
+     */
+    @Test
+    public void testDateKey() {
+	System.out.println("Running test " + this.getClass().getSimpleName()
+		+ "." + new Object() {
+		}.getClass().getEnclosingMethod().getName());
+
+	assertEquals(0, Report.getEpochDay(Report.parseDateKey("01/01/1970")));
+	assertEquals(16593,
+		Report.getEpochDay(Report.parseDateKey("07/06/2015")));
+	assertEquals(11016,
+		Report.getEpochDay(Report.parseDateKey("29/02/2000")));
+	assertEquals(-1, Report.getEpochDay(Report.parseDateKey("31/12/1969")));
+	assertTrue(Report.parseDateKey("07/06/2015") < Report
+		.parseDateKey("07/06/2015a"));
+	assertTrue(Report.parseDateKey("07/06/2015a") < Report
+		.parseDateKey("07/06/2015B"));
+	assertTrue(Report.parseDateKey("07/06/2015b") < Report
+		.parseDateKey("08/06/2015"));
+	assertTrue(Report.parseDateKey("31/12/2014") < Report
+		.parseDateKey("01/01/2015"));
+	assertEquals(Report.INVALID_DATE_KEY, Report.parseDateKey(null));
+	assertEquals(Report.INVALID_DATE_KEY, Report.parseDateKey("7/6/2015"));
+	assertEquals(Report.INVALID_DATE_KEY,
+		Report.parseDateKey("07/13/2015"));
+	assertEquals(Report.INVALID_DATE_KEY,
+		Report.parseDateKey("07/06/2015ab"));
+    }
+
+    /**
+     * Test the sort of the reports and the query of a range of dates.
+     */
+    @Test
+    public void testDateIndex() {
+	System.out.println("Running test " + this.getClass().getSimpleName()
+		+ "." + new Object() {
+		}.getClass().getEnclosingMethod().getName());
+
+	String[] dates = new String[] { "07/06/2015a", "23/02/2015",
+		"07/06/2015b", "wrong", "31/05/2015", "01/06/2015" };
+	List<Report> reports = new ArrayList<Report>();
+	for (String date : dates) {
+	    Report report = new Report();
+	    report.addMetaData(new String[] { date });
+	    reports.add(report);
+	}
+	Collections.sort(reports, Collections.reverseOrder());
+	String[] sortedDates = new String[] { "07/06/2015b", "07/06/2015a",
+		"01/06/2015", "31/05/2015", "23/02/2015", "wrong" };
+	for (int i = 0; i < sortedDates.length; i++) {
+	    assertEquals(sortedDates[i], reports.get(i).getMetaData()[0]);
+	}
+
+	ReportDateIndex index = new ReportDateIndex(reports);
+	assertEquals(5, index.size());
+	List<Report> range = index.getReports("31/05/2015", "07/06/2015");
+	assertEquals(4, range.size());
+	for (int i = 0; i < range.size(); i++) {
+	    assertEquals(sortedDates[i], range.get(i).getMetaData()[0]);
+	}
+	assertEquals(1, index.getReports("01/01/2015", "30/05/2015").size());
+	assertTrue(index.getReports("08/06/2015", "31/12/2015").isEmpty());
+	assertTrue(index.getReports("07/06/2015", "01/06/2015").isEmpty());
+	assertTrue(index.getReports("wrong", "07/06/2015").isEmpty());
+    }
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2015 Piero Dalle Pezze
+ *
+ * This file is part of AstroJournal.
+ *
+ * AstroJournal is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+/*
+ * Changelog:
+ * - Piero Dalle Pezze: class creation.
+ */
+package main;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.astrojournal.generator.Report;
+
+/**
+ * A set of utilities for the tests comparing reports.
+ * 
+ * @author Piero Dalle Pezze
+ * @version $Rev$
+ * @since 1.0
+ */
+public class ReportTestUtils {
+
+    /**
+     * Assert that two lists contain the same reports in the same order.
+     * 
+     * @param expected
+     *            the expected reports
+     * @param actual
+     *            the actual reports
+     */
+    public static void assertSameReports(List<Report> expected,
+	    List<Report> actual) {
+	assertEquals(expected.size(), actual.size());
+	for (int i = 0; i < expected.size(); i++) {
+	    assertArrayEquals(expected.get(i).getMetaData(), actual.get(i)
+		    .getMetaData());
+	    assertEquals(expected.get(i).getdataColumnNumber(), actual.get(i)
+		    .getdataColumnNumber());
+	    assertEquals(expected.get(i).getDataRowNumber(), actual.get(i)
+		    .getDataRowNumber());
+	    for (int j = 0; j < expected.get(i).getDataRowNumber(); j++) {
+		assertArrayEquals(expected.get(i).getData(j), actual.get(i)
+			.getData(j));
+	    }
+	}
+    }
+
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2015 Piero Dalle Pezze
+ *
+ * This file is part of AstroJournal.
+ *
+ * AstroJournal is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+/*
+ * Changelog:
+ * - Piero Dalle Pezze: class creation.
+ */
+package main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.SystemUtils;
+import org.astrojournal.utilities.RunExternalCommand;
+import org.junit.Test;
+
+/**
+ * Test the execution of the external commands.
+ * 
+ * @author Piero Dalle Pezze
+ * @version $Rev$
+ * @since 1.0
+ */
+public class RunExternalCommandTest {
+
+    /**
+     * Test that the output of a command is returned.
+     * 
+     * @throws IOException
+     */
+    @Test
+    public void testRunCommand() throws IOException {
+	System.out.println("Running test " + this.getClass().getSimpleName()
+		+ "." + new Object() {
+		}.getClass().getEnclosingMethod().getName());
+
+	if (SystemUtils.IS_OS_WINDOWS) {
+	    return;
+	}
+	RunExternalCommand extCommand = new RunExternalCommand(
+		System.getProperty("java.io.tmpdir"), null);
+	extCommand.setTimeout(10000);
+	assertTrue(extCommand.runCommand("echo astrojournal").contains(
+		"astrojournal"));
+    }
+
+    /**
+     * Test that the exit value of a failed command is reported.
+     * 
+     * @throws IOException
+     */
+    @Test
+    public void testExitValue() throws IOException {
+	System.out.println("Running test " + this.getClass().getSimpleName()
+		+ "." + new Object() {
+		}.getClass().getEnclosingMethod().getName());
+
+	if (SystemUtils.IS_OS_WINDOWS) {
+	    return;
+	}
+	RunExternalCommand extCommand = new RunExternalCommand(
+		System.getProperty("java.io.tmpdir"), null);
+	extCommand.setTimeout(10000);
+	extCommand.runCommand("false");
+	assertTrue(extCommand.getExitValue() != 0);
+	extCommand.runCommand("true");
+	assertEquals(0, extCommand.getExitValue());
+    }
+
+    /**
+     * Test that a command writing a large output to both streams does not
+     * block and that the output is only returned if this is collected.
+     * 
+     * @throws IOException
+     */
+    @Test
+    public void testLargeOutput() throws IOException {
+	System.out.println("Running test " + this.getClass().getSimpleName()
+		+ "." + new Object() {
+		}.getClass().getEnclosingMethod().getName());
+
+	if (SystemUtils.IS_OS_WINDOWS) {
+	    return;
+	}
+	File script = File.createTempFile("run_external_command_test", ".sh");
+	try {
+	    // more than a pipe buffer on the errors before the output ends
+	    FileUtils.writeStringToFile(script,
+		    "i=0; while [ $i -lt 5000 ]; do "
+			    + "echo \"error line $i of the command\" >&2; "
+			    + "i=$((i+1)); done; echo astrojournal\n", "utf-8");
+	    RunExternalCommand extCommand = new RunExternalCommand(
+		    script.getParent(), null);
+	    extCommand.setTimeout(30000);
+	    String output = extCommand.runCommand("sh " + script.getName());
+	    assertTrue(output.contains("astrojournal"));
+	    assertTrue(output.contains("error line 4999 of the command"));
+	    extCommand.setOutputCollected(false);
+	    assertEquals("", extCommand.runCommand("sh " + script.getName()));
+	} finally {
+	    script.delete();
+	}
+    }
+
+    /**
+     * Test that a command running out of time is destroyed.
+     */
+    @Test
+    public void testTimeout() {
+	System.out.println("Running test " + this.getClass().getSimpleName()
+		+ "." + new Object() {
+		}.getClass().getEnclosingMethod().getName());
+
+	if (SystemUtils.IS_OS_WINDOWS) {
+	    return;
+	}
+	RunExternalCommand extCommand = new RunExternalCommand(
+		System.getProperty("java.io.tmpdir"), null);
+	extCommand.setTimeout(200);
+	long time = System.currentTimeMillis();
+	try {
+	    extCommand.runCommand("sleep 30");
+	    fail("The command was not destroyed");
+	} catch (IOException e) {
+	    assertTrue(System.currentTimeMillis() - time < 10000);
+	}
+    }
+
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2015 Piero Dalle Pezze
+ *
+ * This file is part of AstroJournal.
+ *
+ * AstroJournal is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+/*
+ * Changelog:
+ * - Piero Dalle Pezze: class creation.
+ */
+package main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.io.FileUtils;
+import org.astrojournal.generator.Report;
+import org.astrojournal.generator.absgen.ExportManifest.ExportedFile;
+import org.astrojournal.generator.absgen.Importer;
+import org.astrojournal.generator.absgen.LatexExporterByTarget;
+import org.astrojournal.generator.extgen.ExtLatexExporterByTarget;
+import org.astrojournal.generator.extgen.ExtTSVImporter;
+import org.astrojournal.generator.statistics.BasicStatistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the journal by target split by catalogue.
+ * 
+ * @author Piero Dalle Pezze
+ * @version $Rev$
+ * @since 1.0
+ */
+public class SplitJournalTest {
+
+    /**
+     * The folder of the files.
+     */
+    private File folder;
+
+    /**
+     * The exporter by target.
+     */
+    private LatexExporterByTarget exporter;
+
+    /**
+     * The imported reports.
+     */
+    private List<Report> reports;
+
+    /**
+     * The statistics of the imported reports.
+     */
+    private BasicStatistics basicStatistics;
+
+    /**
+     * @throws java.lang.Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+	folder = File.createTempFile("split_journal_test", "");
+	folder.delete();
+	new File(folder, "reports").mkdirs();
+	FileUtils.copyDirectory(new File(System.getProperty("user.dir"),
+		"latex_header_footer"), new File(folder, "latex_header_footer"),
+		true);
+	Importer importer = new ExtTSVImporter();
+	importer.setFilesLocation(System.getProperty("user.dir")
+		+ File.separator + "src" + File.separator + "test"
+		+ File.separator + "resources" + File.separator
+		+ "ext_tsv_importer_test");
+	importer.setRawReportFolder("raw_reports");
+	reports = importer.importReports();
+	basicStatistics = new BasicStatistics();
+	basicStatistics.process(reports);
+
+	exporter = newExporter(false);
+	assertTrue(exporter.exportReports(reports));
+    }
+
+    /**
+     * Return an exporter by target writing the split journal to the test
+     * folder.
+     * 
+     * @param incrementalExport
+     *            true if only the changed report files are written
+     * @return the exporter
+     */
+    private LatexExporterByTarget newExporter(boolean incrementalExport) {
+	LatexExporterByTarget byTarget = new ExtLatexExporterByTarget();
+	byTarget.setFilesLocation(folder.getAbsolutePath());
+	byTarget.setReportFolder("reports");
+	byTarget.setReportFilename("journal.tex");
+	byTarget.setHeaderFooterFolder("latex_header_footer");
+	byTarget.setHeaderFilename("header_by_target.tex");
+	byTarget.setFooterFilename("footer_by_target.tex");
+	byTarget.setSplitByCatalogue(true);
+	byTarget.setIncrementalExport(incrementalExport);
+	return byTarget;
+    }
+
+    /**
+     * @throws java.lang.Exception
+     */
+    @After
+    public void tearDown() throws Exception {
+	FileUtils.deleteDirectory(folder);
+    }
+
+    /**
+     * Test that a document is written for each catalogue and that the main
+     * file includes their PDF files in order.
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void testGenerateSplitJournal() throws Exception {
+	System.out.println("Running test " + this.getClass().getSimpleName()
+		+ "." + new Object() {
+		}.getClass().getEnclosingMethod().getName());
+
+	Set<String> catalogues = new LinkedHashSet<String>();
+	for (ExportedFile file : exporter.getExportManifest().getFiles(
+		ExportedFile.BY_TARGET)) {
+	    catalogues.add(file.getCatalogue());
+	}
+	assertTrue(catalogues.size() > 1);
+	// a document of a previous journal with more catalogues
+	File stale = new File(folder, String.format("journal_%02d.tex",
+		catalogues.size() + 1));
+	FileUtils.writeStringToFile(stale, "stale", "utf-8");
+
+	assertTrue(exporter.generateJournal(basicStatistics));
+	String main = FileUtils.readFileToString(new File(folder,
+		"journal.tex"), "utf-8");
+	assertTrue(main.contains("\\usepackage{pdfpages}"));
+	int position = main.indexOf("\\section{Basic Statistics}");
+	assertTrue(position >= 0);
+	int part = 0;
+	for (String catalogue : catalogues) {
+	    part++;
+	    String name = String.format("journal_%02d", part);
+	    position = main.indexOf("]{" + name + ".pdf}", position);
+	    assertTrue(position >= 0);
+	    String content = FileUtils.readFileToString(new File(folder, name
+		    + ".tex"), "utf-8");
+	    assertEquals(1, content.split("\\\\section\\{", -1).length - 1);
+	    assertTrue(content.contains("\\section{" + catalogue + "}"));
+	    assertTrue(content.contains("\\setcounter{section}{" + part + "}"));
+	    assertTrue(content.trim().endsWith("\\end{document}"));
+	}
+	assertFalse(stale.exists());
+    }
+
+    /**
+     * Test that the statistics file is recorded by the incremental export, so
+     * that the next run does not delete it or write it again.
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void testIncrementalStatistics() throws Exception {
+	System.out.println("Running test " + this.getClass().getSimpleName()
+		+ "." + new Object() {
+		}.getClass().getEnclosingMethod().getName());
+
+	LatexExporterByTarget incrementalExporter = newExporter(true);
+	assertTrue(incrementalExporter.exportReports(reports));
+	assertTrue(incrementalExporter.generateJournal(basicStatistics));
+	File statistics = new File(folder, "reports" + File.separator
+		+ "BasicStatistics.tex");
+	assertTrue(statistics.exists());
+	long lastModified = statistics.lastModified();
+	// a file written again would have a later modification time
+	Thread.sleep(1100);
+	// the next run loads the manifest saved by the previous one
+	incrementalExporter = newExporter(true);
+	assertTrue(incrementalExporter.exportReports(reports));
+	assertTrue(incrementalExporter.generateJournal(basicStatistics));
+	assertTrue(statistics.exists());
+	assertEquals(lastModified, statistics.lastModified());
+    }
+
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2015 Piero Dalle Pezze
+ *
+ * This file is part of AstroJournal.
+ *
+ * AstroJournal is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+/*
+ * Changelog:
+ * - Piero Dalle Pezze: class creation.
+ */
+package main;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+
+import org.astrojournal.generator.absgen.TSVTokenizer;
+import org.astrojournal.generator.extgen.ExtDataCols;
+
+/**
+ * A benchmark comparing the bytes allocated for tokenizing a raw report file
+ * with String.split() and with TSVTokenizer. Both approaches read every line,
+ * clean the fields and create the same field Strings. This is not part of
+ * the test suite. Run it with:
+ * 
+ * <pre>
+ * java -cp [classpath] main.TSVTokenizerBenchmark [reports] [iterations]
+ * </pre>
+ * 
+ * @author Piero Dalle Pezze
+ * @version $Rev$
+ * @since 1.0
+ */
+public class TSVTokenizerBenchmark {
+
+    /**
+     * A sink for the created fields, so that they are not optimised away.
+     */
+    private static long sink = 0;
+
+    /**
+     * Write a raw report file containing a number of reports.
+     * 
+     * @param file
+     *            the file to write
+     * @param reports
+     *            the number of reports
+     * @throws IOException
+     */
+    private static void writeReports(File file, int reports)
+	    throws IOException {
+	StringBuilder sb = new StringBuilder();
+	for (int i = 0; i < reports; i++) {
+	    sb.append("Date\t" + (i % 28 + 1) + "/06/2015\n");
+	    sb.append("Time\t21:40-23:30\n");
+	    sb.append("Location\tCambridge, UK\n");
+	    sb.append("Altitude\t12m\n");
+	    sb.append("Temperature\t12C (wind: 0km/h)\n");
+	    sb.append("Seeing\t1 - Perfect seeing\n");
+	    sb.append("Transparency\t5 - Clear\n");
+	    sb.append("Darkness\t20.5 mag\n");
+	    sb.append("Telescopes\tTele Vue 60 F6\n");
+	    sb.append("Eyepieces\tTV Panoptic 24mm, Nagler 7mm\n");
+	    sb.append("Filters\tAstronomik OIII\n");
+	    sb.append("Target\tCons\tType\tPower\tNotes\n");
+	    for (int j = 0; j < 10; j++) {
+		sb.append("\"M" + j + "\"\tOri\tDiff Neb\t25x\t"
+			+ "\"Faint nebulosity around the central stars.\"\n");
+	    }
+	    sb.append("\n");
+	}
+	OutputStream out = new FileOutputStream(file);
+	try {
+	    out.write(sb.toString().getBytes());
+	} finally {
+	    out.close();
+	}
+    }
+
+    /**
+     * Tokenize a file with BufferedReader, trim(), split() and the removal of
+     * quotes previously used by the TSV importers.
+     * 
+     * @param file
+     *            the file to tokenize
+     * @throws IOException
+     */
+    private static void tokenizeWithSplit(File file) throws IOException {
+	String name = ExtDataCols.TARGET_NAME.getColName();
+	BufferedReader reader = new BufferedReader(new FileReader(file));
+	try {
+	    String line;
+	    while ((line = reader.readLine()) != null) {
+		line = line.trim();
+		String[] values = line.split("\t");
+		for (int i = 0; i < values.length; i++) {
+		    if (values[i].startsWith("\"")
+			    || values[i].startsWith("\'")) {
+			values[i] = values[i].substring(1);
+		    }
+		    if (values[i].endsWith("\"") || values[i].endsWith("\'")) {
+			values[i] = values[i].substring(0,
+				values[i].length() - 1);
+		    }
+		    values[i] = values[i].trim();
+		}
+		if (values[0].toLowerCase().equals(name.toLowerCase())) {
+		    sink++;
+		}
+		for (int i = 1; i < values.length; i++) {
+		    sink = sink + values[i].length();
+		}
+	    }
+	} finally {
+	    reader.close();
+	}
+    }
+
+    /**
+     * Tokenize a file with TSVTokenizer.
+     * 
+     * @param file
+     *            the file to tokenize
+     * @throws IOException
+     */
+    private static void tokenizeWithTokenizer(File file) throws IOException {
+	String name = ExtDataCols.TARGET_NAME.getColName();
+	TSVTokenizer tokenizer = new TSVTokenizer(file);
+	try {
+	    while (tokenizer.nextLine()) {
+		if (tokenizer.getFieldCount() == 0) {
+		    continue;
+		}
+		if (tokenizer.fieldEqualsIgnoreCase(0, name)) {
+		    sink++;
+		}
+		for (int i = 1; i < tokenizer.getFieldCount(); i++) {
+		    sink = sink + tokenizer.getField(i).length();
+		}
+	    }
+	} finally {
+	    tokenizer.close();
+	}
+    }
+
+    /**
+     * Return the bytes allocated by the current thread.
+     * 
+     * @return the bytes allocated by the current thread or -1 if this is not
+     *         supported by the JVM
+     */
+    private static long allocatedBytes() {
+	java.lang.management.ThreadMXBean bean = ManagementFactory
+		.getThreadMXBean();
+	if (bean instanceof com.sun.management.ThreadMXBean) {
+	    return ((com.sun.management.ThreadMXBean) bean)
+		    .getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+	return -1;
+    }
+
+    /**
+     * Run the benchmark.
+     * 
+     * @param args
+     *            the number of reports and the number of iterations
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException {
+	int reports = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+	int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+	File file = File.createTempFile("tsv_tokenizer_benchmark", ".tsv");
+	try {
+	    writeReports(file, reports);
+	    System.out.println("File size: " + file.length() + " bytes, "
+		    + reports + " reports, " + iterations + " iterations");
+	    // warm up
+	    for (int i = 0; i < iterations; i++) {
+		tokenizeWithSplit(file);
+		tokenizeWithTokenizer(file);
+	    }
+	    for (int mode = 0; mode < 2; mode++) {
+		long bytes = allocatedBytes();
+		long time = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+		    if (mode == 0) {
+			tokenizeWithSplit(file);
+		    } else {
+			tokenizeWithTokenizer(file);
+		    }
+		}
+		time = (System.nanoTime() - time) / iterations / 1000000;
+		bytes = (allocatedBytes() - bytes) / iterations;
+		System.out.println((mode == 0 ? "split:     " : "tokenizer: ")
+			+ bytes / 1024 + " KB allocated, " + time
+			+ " ms per iteration");
+	    }
+	    System.out.println("Checksum: " + sink);
+	} finally {
+	    file.delete();
+	}
+    }
+
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2015 Piero Dalle Pezze
+ *
+ * This file is part of AstroJournal.
+ *
+ * AstroJournal is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+/*
+ * Changelog:
+ * - Piero Dalle Pezze: class creation.
+ */
+package main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.astrojournal.generator.absgen.TSVTokenizer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the tokenizer used by the TSV importers.
+ * 
+ * @author Piero Dalle Pezze
+ * @version $Rev$
+ * @since 1.0
+ */
+public class TSVTokenizerTest {
+
+    /**
+     * The file to tokenize.
+     */
+    private File file;
+
+    /**
+     * @throws java.lang.Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+	file = File.createTempFile("tsv_tokenizer_test", ".tsv");
+    }
+
+    /**
+     * @throws java.lang.Exception
+     */
+    @After
+    public void tearDown() throws Exception {
+	file.delete();
+    }
+
+    /**
+     * Write a string to the test file.
+     * 
+     * @param content
+     * @throws IOException
+     */
+    private void write(String content) throws IOException {
+	OutputStream out = new FileOutputStream(file);
+	try {
+	    out.write(content.getBytes());
+	} finally {
+	    out.close();
+	}
+    }
+
+    /**
+     * Test that fields are trimmed and cleaned from quotes.
+     * 
+     * @throws IOException
+     */
+    @Test
+    public void testFields() throws IOException {
+	System.out.println("Running test " + this.getClass().getSimpleName()
+		+ "." + new Object() {
+		}.getClass().getEnclosingMethod().getName());
+
+	write("  \"Target\"\t'Cons'\t Type \t\tNotes  \n");
+	TSVTokenizer tokenizer = new TSVTokenizer(file);
+	try {
+	    assertTrue(tokenizer.nextLine());
+	    assertEquals("\"Target\"\t'Cons'\t Type \t\tNotes",
+		    tokenizer.getLine());
+	    assertEquals(5, tokenizer.getFieldCount());
+	    assertEquals("Target", tokenizer.getField(0));
+	    assertEquals("Cons", tokenizer.getField(1));
+	    assertEquals("Type", tokenizer.getField(2));
+	    assertEquals("", tokenizer.getField(3));
+	    assertEquals("Notes", tokenizer.getField(4));
+	    assertTrue(tokenizer.fieldEqualsIgnoreCase(0, "TARGET"));
+	    assertFalse(tokenizer.fieldEqualsIgnoreCase(1, "Constellation"));
+	    assertTrue(tokenizer.lineContains("Type"));
+	    assertFalse(tokenizer.lineContains("type"));
+	    assertFalse(tokenizer.nextLine());
+	} finally {
+	    tokenizer.close();
+	}
+    }
+
+    /**
+     * Test the line terminators, empty lines and comments.
+     * 
+     * @throws IOException
+     */
+    @Test
+    public void testLines() throws IOException {
+	System.out.println("Running test " + this.getClass().getSimpleName()
+		+ "." + new Object() {
+		}.getClass().getEnclosingMethod().getName());
+
+	write("# comment\r\nDate\t22/03/2015\r\r\n \t \nTime\t19:00");
+	TSVTokenizer tokenizer = new TSVTokenizer(file);
+	try {
+	    assertTrue(tokenizer.nextLine());
+	    assertTrue(tokenizer.lineStartsWith('#'));
+	    assertTrue(tokenizer.nextLine());
+	    assertEquals(2, tokenizer.getFieldCount());
+	    assertEquals("22/03/2015", tokenizer.getField(1));
+	    assertTrue(tokenizer.nextLine());
+	    assertTrue(tokenizer.isEmptyLine());
+	    assertEquals(0, tokenizer.getFieldCount());
+	    assertTrue(tokenizer.nextLine());
+	    assertTrue(tokenizer.isEmptyLine());
+	    assertTrue(tokenizer.nextLine());
+	    assertEquals("19:00", tokenizer.getField(1));
+	    assertFalse(tokenizer.nextLine());
+	    assertFalse(tokenizer.nextLine());
+	} finally {
+	    tokenizer.close();
+	}
+    }
+
+    /**
+     * Test lines longer than the buffer of the tokenizer.
+     * 
+     * @throws IOException
+     */
+    @Test
+    public void testLongLines() throws IOException {
+	System.out.println("Running test " + this.getClass().getSimpleName()
+		+ "." + new Object() {
+		}.getClass().getEnclosingMethod().getName());
+
+	StringBuilder notes = new StringBuilder();
+	for (int i = 0; i < 20000; i++) {
+	    notes.append((char) ('a' + i % 26));
+	}
+	StringBuilder content = new StringBuilder();
+	for (int i = 0; i < 3; i++) {
+	    content.append("M" + i + "\tOri\tDiff Neb\t" + notes + "\n");
+	}
+	write(content.toString());
+	TSVTokenizer tokenizer = new TSVTokenizer(file);
+	try {
+	    for (int i = 0; i < 3; i++) {
+		assertTrue(tokenizer.nextLine());
+		assertEquals(4, tokenizer.getFieldCount());
+		assertEquals("M" + i, tokenizer.getField(0));
+		assertEquals(notes.toString(), tokenizer.getField(3));
+	    }
+	    assertFalse(tokenizer.nextLine());
+	} finally {
+	    tokenizer.close();
+	}
+    }
+
+}